@@ -0,0 +1,27 @@
+package battleship;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the model benchmarks with the GC profiler, reporting ops/s and the allocation rate
+ * (gc.alloc.rate.norm is bytes allocated per operation).
+ */
+public class BenchmarkRunner {
+  /**
+   * Runs the benchmarks.
+   *
+   * @param args optional regular expression selecting the benchmarks to run
+   * @throws RunnerException if JMH fails to run
+   */
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+        .include(args.length > 0 ? args[0] : ModelBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,71 @@
+package battleship;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures fingerprinting uniform classic layouts with a {@link LayoutCanonicalizer}, alone and
+ * followed by a {@link FingerprintCache} lookup, cycling through a pool of sampled layouts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CanonicalBenchmark {
+
+  @Param({"4096", "1048576"})
+  public int poolSize;  // number of distinct sampled layouts
+
+  private ShipType[][] types;  // ship types of each layout
+  private int[][] layouts;  // packed placements of each layout
+  private LayoutCanonicalizer canonicalizer;
+  private FingerprintCache<long[]> cache;  // per-layout counters
+  private int next;  // index of the next layout
+
+  /**
+   * Sample the pool of layouts.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    GameConfig config = GameConfig.DEFAULT;
+    LayoutSpace space = new LayoutSpace(config, null);
+    SplittableRandom random = new SplittableRandom(7);
+    int ships = config.getFleet().size();
+    types = new ShipType[poolSize][ships];
+    layouts = new int[poolSize][ships];
+    for (int i = 0; i < poolSize; i++) {
+      space.sample(random, types[i], layouts[i]);
+    }
+    canonicalizer = new LayoutCanonicalizer(config.getHeight(), config.getWidth());
+    cache = new FingerprintCache<>(1 << 16);
+  }
+
+  @Benchmark
+  public long fingerprint() {
+    int i = next++ & (poolSize - 1);
+    return canonicalizer.fingerprint(types[i], layouts[i]);
+  }
+
+  @Benchmark
+  public long[] cached() {
+    int i = next++ & (poolSize - 1);
+    long[] stats = cache.computeIfAbsent(canonicalizer.fingerprint(types[i], layouts[i]),
+        fingerprint -> new long[1]);
+    stats[0]++;
+    return stats;
+  }
+}
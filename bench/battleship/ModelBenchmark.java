@@ -0,0 +1,134 @@
+package battleship;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the hot paths of every {@link BattleshipModel} implementation.
+ * Each benchmark runs once per engine listed in {@link #engine}, with and without
+ * {@link #metrics}, which shows what recording costs on each hot path. Run them through
+ * {@link BenchmarkRunner}, which also attaches the GC profiler to report allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+  @Param({"BattleshipModelImpl", "BitboardBattleshipModel"})
+  public String engine;
+
+  @Param({"false", "true"})
+  public boolean metrics;  // whether the models record into a GameMetricsRecorder
+
+  private BattleshipModel model;  // model whose hot paths are measured
+  private BattleshipModel midGame;  // model left in the middle of a game, for the queries
+  private RandomGuessStrategy strategy;
+  private SplittableRandom random;
+  private int nextCell;  // next cell guessed by makeGuess
+
+  /**
+   * Creates a model of the engine under test.
+   *
+   * @param engine  the simple class name of the engine
+   * @param random  the generator placing its ships
+   * @param metrics the metrics of the model
+   * @return a new model
+   */
+  static BattleshipModel createModel(String engine, SplittableRandom random,
+                                     GameMetrics metrics) {
+    switch (engine) {
+      case "BattleshipModelImpl":
+        return new BattleshipModelImpl(GameConfig.DEFAULT, random, metrics);
+      case "BitboardBattleshipModel":
+        return new BitboardBattleshipModel(GameConfig.DEFAULT, random, metrics);
+      default:
+        throw new IllegalArgumentException("Unknown engine " + engine);
+    }
+  }
+
+  /**
+   * Create the models and bring the mid-game one to a state with a few guesses made.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    random = new SplittableRandom(42);
+    GameMetrics recorder = metrics ? new GameMetricsRecorder() : GameMetrics.NOOP;
+    model = createModel(engine, random, recorder);
+    model.startGame();
+    midGame = createModel(engine, new SplittableRandom(7), recorder);
+    midGame.startGame();
+    for (int i = 0; i < midGame.getMaxGuesses() / 2; i++) {
+      midGame.makeGuess(i, (i * 3) % 10);
+    }
+    strategy = new RandomGuessStrategy();
+  }
+
+  @Benchmark
+  public BattleshipModel startGame() {
+    model.startGame();
+    return model;
+  }
+
+  /**
+   * Makes one guess, walking the board cell by cell. When the game ends a new one is started,
+   * so one call in every getMaxGuesses() also pays for a {@link #startGame()}.
+   */
+  @Benchmark
+  public boolean makeGuess() {
+    if (model.isGameOver()) {
+      model.startGame();
+    }
+    int cell = nextCell;
+    nextCell = (nextCell + 7) % 100;
+    return model.makeGuess(cell / 10, cell % 10);
+  }
+
+  @Benchmark
+  public boolean isGameOver() {
+    return midGame.isGameOver();
+  }
+
+  @Benchmark
+  public boolean areAllShipsSunk() {
+    return midGame.areAllShipsSunk();
+  }
+
+  @Benchmark
+  public CellState[][] getCellGrid() {
+    return midGame.getCellGrid();
+  }
+
+  @Benchmark
+  public ShipType[][] getShipGrid() {
+    return midGame.getShipGrid();
+  }
+
+  /**
+   * Plays a whole game with random guessing, from startGame to game over.
+   */
+  @Benchmark
+  public int fullGame() {
+    model.startGame();
+    strategy.newGame(10, 10, random);
+    while (!model.isGameOver()) {
+      int cell = strategy.nextGuess();
+      model.makeGuess(cell / 10, cell % 10);
+    }
+    return model.getGuessCount();
+  }
+}
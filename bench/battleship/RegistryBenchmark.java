@@ -0,0 +1,79 @@
+package battleship;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link GameSessionRegistry} with a single synchronized map of models when 64 threads
+ * make guesses in random sessions. Games use a guess limit large enough never to end during a
+ * run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(64)
+public class RegistryBenchmark {
+
+  private static final GameConfig CONFIG =
+      new GameConfig(10, 10, Integer.MAX_VALUE, GameConfig.DEFAULT.getFleet());
+
+  @Param({"10000"})
+  public int sessions;
+
+  private GameSessionRegistry registry;
+  private long[] ids;  // session ids of the registry
+  private Map<Long, BattleshipModel> synchronizedMap;  // the baseline
+
+  /**
+   * Create the same number of sessions in the registry and in the baseline map.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    registry = new GameSessionRegistry(() -> new BattleshipModelImpl(CONFIG,
+        new SplittableRandom()), sessions, TimeUnit.HOURS.toNanos(1));
+    ids = new long[sessions];
+    synchronizedMap = Collections.synchronizedMap(new HashMap<>());
+    for (int i = 0; i < sessions; i++) {
+      ids[i] = registry.createSession();
+      BattleshipModel model = new BattleshipModelImpl(CONFIG, new SplittableRandom(i));
+      model.startGame();
+      synchronizedMap.put((long) i, model);
+    }
+  }
+
+  @Benchmark
+  public boolean registry() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    return registry.makeGuess(ids[random.nextInt(sessions)], random.nextInt(10),
+        random.nextInt(10));
+  }
+
+  @Benchmark
+  public boolean synchronizedMap() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long id = random.nextInt(sessions);
+    synchronized (synchronizedMap) {
+      return synchronizedMap.get(id).makeGuess(random.nextInt(10), random.nextInt(10));
+    }
+  }
+}
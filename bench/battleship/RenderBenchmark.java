@@ -0,0 +1,78 @@
+package battleship;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares rendering a mid-game cell grid with a headless {@link BoardRenderer} and with one
+ * {@code print} per cell on a print stream that discards its output, as the console front-end
+ * used to.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+
+  private BoardView board;  // board of a game with a few guesses made
+  private BoardRenderer renderer;
+  private PrintStream printStream;  // the baseline
+
+  /**
+   * Create a mid-game board and the two renderers.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    BattleshipModel model = new BattleshipModelImpl(new SplittableRandom(7));
+    model.startGame();
+    for (int i = 0; i < model.getMaxGuesses() / 2; i++) {
+      model.makeGuess(i, (i * 3) % 10);
+    }
+    board = model.getBoardView();
+    renderer = BoardRenderer.headless();
+    printStream = new PrintStream(OutputStream.nullOutputStream(), true);
+  }
+
+  @Benchmark
+  public long renderer() throws IOException {
+    renderer.appendCellGrid(board).flush();
+    return renderer.getBytesWritten();
+  }
+
+  /**
+   * Prints the grid like the original console front-end, one stream write per cell.
+   */
+  @Benchmark
+  public PrintStream printPerCell() {
+    printStream.println("\nCurrent Grid State:");
+    printStream.print("  ");
+    for (int i = 0; i < board.getWidth(); i++) {
+      printStream.print(i + " ");
+    }
+    printStream.println();
+    for (int i = 0; i < board.getHeight(); i++) {
+      printStream.print((char) ('A' + i) + " ");
+      for (int j = 0; j < board.getWidth(); j++) {
+        printStream.print(board.cellAt(i, j).getSymbol() + " ");
+      }
+      printStream.println();
+    }
+    return printStream;
+  }
+}
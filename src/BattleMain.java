@@ -1,7 +1,14 @@
 import battleship.BattleshipModel;
 import battleship.BattleshipModelImpl;
-import battleship.CellState;
-import java.util.Scanner;
+import battleship.BoardRenderer;
+import battleship.BoardView;
+import battleship.GameListener;
+import battleship.GuessReader;
+import battleship.ShipType;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
 
 /**
  * Main class to run the Battleship game in the console.
@@ -10,52 +17,62 @@ public class BattleMain {
   /**
    * Main method to run the Battleship game in the console.
    *
-   * @param args unused
+   * @param args optional file of guesses, one per line like A0, to play in batch mode
+   * @throws IOException if the console or the file cannot be read or written
    */
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException {
     BattleshipModel model = new BattleshipModelImpl();
     model.startGame();
-    Scanner scanner = new Scanner(System.in);
+    if (args.length > 0) {
+      playBatch(model, Path.of(args[0]));
+      return;
+    }
+    BoardView board = model.getBoardView();
+    BoardRenderer renderer = new BoardRenderer(Channels.newChannel(System.out));
+    model.addGameListener(new GameListener() {
+      @Override
+      public void onHit(int row, int col) {
+        System.out.println("Hit!");
+      }
+
+      @Override
+      public void onMiss(int row, int col) {
+        System.out.println("Miss!");
+      }
+
+      @Override
+      public void onShipSunk(ShipType type) {
+        System.out.println("You sank the " + type.name() + "!");
+      }
+    });
+    GuessReader reader = new GuessReader(Channels.newChannel(System.in), board.getHeight(),
+        board.getWidth());
     System.out.println("Welcome to Battleship!");
     System.out.println("The game has been initialized. Try to sink all the ships.");
 
     // Game loop
     while (!model.isGameOver()) {
       // Display the grid
-      printCellGrid(model.getCellGrid());
+      renderer.appendCellGrid(board).flush();
 
       // Get the user's guess
       System.out.print("Enter your guess (e.g., A0): ");
-      String input = scanner.nextLine().trim().toUpperCase();
-      if (input.length() < 2 || input.length() > 3) {
+      int cell = reader.next();
+      if (cell == GuessReader.END) {
+        break;
+      }
+      if (cell == GuessReader.INVALID) {
         System.out.println(
             "Invalid input. Please enter a letter (A-J) followed by a number (0-9).");
         continue;
       }
-      // Parse row and column
-      int row = input.charAt(0) - 'A';
-      int col;
-
-      try {
-        col = Integer.parseInt(input.substring(1));
-      } catch (NumberFormatException e) {
-        System.out.println("Invalid column number. Please enter a number between 0 and 9.");
-        continue;
-      }
-
-      // Validate row and column ranges
-      if (row < 0 || row >= 10 || col < 0 || col >= 10) {
+      if (cell == GuessReader.OUT_OF_BOUNDS) {
         System.out.println("Coordinates out of bounds. Rows: A-J, Columns: 0-9.");
         continue;
       }
       // Process the guess
       try {
-        boolean hit = model.makeGuess(row, col);
-        if (hit) {
-          System.out.println("Hit!");
-        } else {
-          System.out.println("Miss!");
-        }
+        model.makeGuess(cell / board.getWidth(), cell % board.getWidth());  // listener reports it
       } catch (IllegalArgumentException e) {
         System.out.println("Invalid guess: " + e.getMessage());
       } catch (IllegalStateException e) {
@@ -77,54 +94,46 @@ public class BattleMain {
 
     // Reveal the ship positions
     try {
-      printCellGrid(model.getCellGrid());
-      printShipGrid(model.getShipGrid());
+      renderer.appendCellGrid(board).appendShipGrid(board).flush();
     } catch (IllegalStateException e) {
       System.out.println("Error retrieving ship grid: " + e.getMessage());
     }
 
-    scanner.close();
-  }
-
-  /**
-   * Prints the current state of the cell grid.
-   *
-   * @param grid The current state of the cell grid.
-   */
-  private static void printCellGrid(CellState[][] grid) {
-    System.out.println("\nCurrent Grid State:");
-    System.out.print("  ");
-    for (int i = 0; i < grid[0].length; i++) {
-      System.out.print(i + " ");
-    }
-    System.out.println();
-    for (int i = 0; i < grid.length; i++) {
-      System.out.print((char) ('A' + i) + " ");
-      for (int j = 0; j < grid[i].length; j++) {
-        System.out.print(grid[i][j].getSymbol() + " ");
-      }
-      System.out.println();
-    }
+    reader.close();
   }
 
   /**
-   * Prints the ship grid after the game is over.
+   * Plays the guesses of a file without printing each of them, starting a new game whenever one
+   * ends, then prints how the games went.
    *
-   * @param grid The ship grid after the game is over.
+   * @param model the model, with a game started
+   * @param file  the file of guesses
+   * @throws IOException if the file cannot be read
    */
-  private static void printShipGrid(battleship.ShipType[][] grid) {
-    System.out.println("\nShip Grid:");
-    System.out.print("  ");
-    for (int i = 0; i < grid[0].length; i++) {
-      System.out.print(i + " ");
-    }
-    System.out.println();
-    for (int i = 0; i < grid.length; i++) {
-      System.out.print((char) ('A' + i) + " ");
-      for (int j = 0; j < grid[i].length; j++) {
-        System.out.print(grid[i][j] == null ? "- " : grid[i][j].getSymbol() + " ");
+  private static void playBatch(BattleshipModel model, Path file) throws IOException {
+    BoardView board = model.getBoardView();
+    int[] cells = new int[4096];
+    int games = 1;
+    int won = 0;
+    long guesses = 0;
+    try (GuessReader reader = new GuessReader(FileChannel.open(file), board.getHeight(),
+        board.getWidth())) {
+      int count;
+      while ((count = reader.read(cells)) != GuessReader.END) {
+        for (int i = 0; i < count; i++) {
+          if (model.isGameOver()) {
+            won += model.areAllShipsSunk() ? 1 : 0;
+            model.startGame();
+            games++;
+          }
+          model.makeGuess(cells[i] / board.getWidth(), cells[i] % board.getWidth());
+        }
+        guesses += count;
       }
-      System.out.println();
+      won += model.areAllShipsSunk() ? 1 : 0;
+      System.out.println("Played " + guesses + " guesses in " + games + " games, " + won
+          + " won. Skipped " + reader.getRejectedCount() + " of " + reader.getLineCount()
+          + " lines.");
     }
   }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+import battleship.GameConfig;
+import battleship.GameServer;
+import battleship.LoadGenerator;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Main class to load-test a {@link GameServer} with a {@link LoadGenerator}.
+ */
+public class LoadGeneratorMain {
+  /**
+   * Plays games against a server and prints the throughput and latencies.
+   *
+   * @param args optional connection count (default 1000), duration in seconds (default 10) and
+   *             server host and port; without them a server is started in this process on
+   *             loopback
+   * @throws IOException if the server cannot be reached or started
+   */
+  public static void main(String[] args) throws IOException {
+    int connections = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+    GameServer local = null;
+    InetSocketAddress address;
+    if (args.length > 3) {
+      address = new InetSocketAddress(args[2], Integer.parseInt(args[3]));
+    } else {
+      local = new GameServer(GameConfig.DEFAULT, connections, TimeUnit.MINUTES.toNanos(1),
+          Runtime.getRuntime().availableProcessors());
+      address = local.start(new InetSocketAddress("127.0.0.1", 0));
+    }
+    try {
+      LoadGenerator generator = new LoadGenerator(address, connections, 0L);
+      generator.run(TimeUnit.SECONDS.toNanos(seconds));
+      System.out.println(generator);
+    } finally {
+      if (local != null) {
+        local.close();
+      }
+    }
+  }
+}
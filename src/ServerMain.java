@@ -0,0 +1,29 @@
+import battleship.GameConfig;
+import battleship.GameServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Main class to host classic games over TCP with {@link GameServer}.
+ */
+public class ServerMain {
+  /**
+   * Starts a server and runs until the process is stopped.
+   *
+   * @param args optional port (default 7777), event loop count (default one per processor) and
+   *             session limit (default 100000)
+   * @throws IOException if the port cannot be bound
+   */
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 7777;
+    int loops = args.length > 1 ? Integer.parseInt(args[1])
+        : Runtime.getRuntime().availableProcessors();
+    int maxSessions = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+
+    GameServer server = new GameServer(GameConfig.DEFAULT, maxSessions,
+        TimeUnit.MINUTES.toNanos(10), loops);
+    InetSocketAddress address = server.start(new InetSocketAddress(port));
+    System.out.println("Listening on " + address + " with " + loops + " event loops.");
+  }
+}
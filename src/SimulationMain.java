@@ -0,0 +1,29 @@
+import battleship.BitboardBattleshipModel;
+import battleship.GameSimulator;
+import battleship.RandomGuessStrategy;
+import battleship.SimulationStats;
+
+/**
+ * Main class to batch-evaluate a guessing strategy with the Monte Carlo simulator.
+ */
+public class SimulationMain {
+  /**
+   * Plays simulated games and prints their aggregate statistics.
+   *
+   * @param args optional number of games (default 100000) and seed (default 0)
+   */
+  public static void main(String[] args) {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    long seed = args.length > 1 ? Long.parseLong(args[1]) : 0L;
+
+    GameSimulator simulator = new GameSimulator(BitboardBattleshipModel::new,
+        RandomGuessStrategy::new);
+    long start = System.nanoTime();
+    SimulationStats stats = simulator.run(games, seed);
+    long elapsed = System.nanoTime() - start;
+
+    System.out.println(stats);
+    System.out.printf("%d games in %.1f ms (%.0f games/s)%n", games, elapsed / 1e6,
+        games / (elapsed / 1e9));
+  }
+}
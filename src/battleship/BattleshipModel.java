@@ -4,6 +4,8 @@ package battleship;
  * A single game of Battleship played on a 10x10 grid, where the player aims to guess and hit all
  * the ships randomly placed on the grid. The player has a maximum of 50 guesses. The game ends when
  * either all ships are sunk or the guess limit is reached. Ships are revealed after the game ends.
+ * Implementations may also take a {@link GameConfig} with another board size, guess limit and
+ * fleet.
  */
 public interface BattleshipModel {
 
@@ -24,6 +26,61 @@ public interface BattleshipModel {
    */
   boolean makeGuess(int row, int col);
 
+  /**
+   * Processes a batch of guesses in order, as if by calling {@link #makeGuess} for each. Every
+   * coordinate is checked before the first guess is made, and the batch stops as soon as the game
+   * is over, so a salvo may hold more shots than there are guesses left.
+   *
+   * @param rows    the row index of each guess (0-based)
+   * @param cols    the column index of each guess (0-based)
+   * @param outHits receives, for each guess made, whether it was a hit
+   * @return the number of guesses made
+   * @throws IllegalArgumentException if rows and cols differ in length, outHits is shorter, or a
+   *                                  coordinate is out of bounds; no guess is made then
+   * @throws IllegalStateException    if the game is already over
+   */
+  default int makeGuesses(int[] rows, int[] cols, boolean[] outHits)
+      throws IllegalArgumentException, IllegalStateException {
+    BoardView view = getBoardView();
+    GuessBatch.checkCoordinates(rows, cols, outHits, view.getHeight(), view.getWidth());
+    if (isGameOver()) {
+      throw new IllegalStateException("Game is already over.");
+    }
+    int made = 0;
+    while (made < rows.length && !isGameOver()) {
+      outHits[made] = makeGuess(rows[made], cols[made]);
+      made++;
+    }
+    return made;
+  }
+
+  /**
+   * Processes a batch of guesses given as packed cells, row * width + col, like
+   * {@link #makeGuesses(int[], int[], boolean[])}.
+   *
+   * @param cells   the cell of each guess
+   * @param outHits receives, for each guess made, whether it was a hit
+   * @return the number of guesses made
+   * @throws IllegalArgumentException if outHits is shorter than cells or a cell is out of bounds;
+   *                                  no guess is made then
+   * @throws IllegalStateException    if the game is already over
+   */
+  default int makeGuesses(int[] cells, boolean[] outHits)
+      throws IllegalArgumentException, IllegalStateException {
+    BoardView view = getBoardView();
+    int width = view.getWidth();
+    GuessBatch.checkCells(cells, outHits, view.getHeight(), width);
+    if (isGameOver()) {
+      throw new IllegalStateException("Game is already over.");
+    }
+    int made = 0;
+    while (made < cells.length && !isGameOver()) {
+      outHits[made] = makeGuess(cells[made] / width, cells[made] % width);
+      made++;
+    }
+    return made;
+  }
+
   /**
    * Checks if the game is over.
    *
@@ -67,4 +124,37 @@ public interface BattleshipModel {
    * @throws IllegalStateException if the game is not over
    */
   ShipType[][] getShipGrid();
+
+  /**
+   * Returns a read-only view of the board that reflects the game state without copying it. The
+   * same view is returned on every call and stays valid across games.
+   *
+   * @return the board view
+   */
+  BoardView getBoardView();
+
+  /**
+   * Returns the latest immutable snapshot of the board and guess count, reflecting every guess
+   * made so far in the current game. Any thread may call this method while another one plays,
+   * without locking.
+   *
+   * @return the latest snapshot
+   */
+  GameSnapshot getSnapshot();
+
+  /**
+   * Registers a listener that is told about every guess, hit, miss, sunk ship and the end of
+   * the game, across all games played by this model.
+   *
+   * @param listener the listener
+   * @throws IllegalArgumentException if listener is null
+   */
+  void addGameListener(GameListener listener);
+
+  /**
+   * Unregisters a listener. Does nothing if the listener is not registered.
+   *
+   * @param listener the listener
+   */
+  void removeGameListener(GameListener listener);
 }
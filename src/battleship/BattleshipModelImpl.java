@@ -1,111 +1,315 @@
 package battleship;
 
-import java.util.ArrayList;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents the model for the Battleship game.
+ * The board size, guess limit and fleet come from a {@link GameConfig}. A cell-to-ship index
+ * resolves guesses without scanning the fleet, and a new game only clears the cells touched by
+ * the previous one, so boards can be large.
+ *
+ * <p>Snapshots are published through a version number, as in a sequence lock: it is odd while a
+ * guess or a new game changes the board and even otherwise. {@link #getSnapshot()} reads the
+ * cells guessed since the last snapshot between two reads of the same even version, and builds
+ * the new snapshot from the last one, so the player neither allocates nor waits for it. A
+ * reader that keeps overlapping guesses tries again, so it is lock-free but not wait-free.
  */
-public class BattleshipModelImpl implements BattleshipModel {
+public class BattleshipModelImpl implements ReplayableModel {
 
-  private final int height = 10;  // height of the map
-  private final int width = 10;  // width of the map
-  private final int maxGuesses = 10;  // maximum number of guesses
+  private static final CellState[] CELL_STATES = CellState.values();
+  private static final VarHandle VERSION;
+
+  static {
+    try {
+      VERSION = MethodHandles.lookup().findVarHandle(BattleshipModelImpl.class, "version",
+          long.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final int height;  // height of the map
+  private final int width;  // width of the map
+  private final int maxGuesses;  // maximum number of guesses
+  private final ShipType[] fleet;  // ships placed at the start of each game
+  private final PlacementMode placementMode;  // how the fleet is placed
+  private final int[] layoutSlots;  // scratch: placement or layout entry of each ship
   private int guessCount = 0;  // number of guesses made
 
-  private CellState[][] visualMap;  // map of the game
-  private ArrayList<Ship> ships;  // list of ships
+  private byte[] visualMap;  // map of the game, the CellState ordinal of each cell
+  private Ship[] ships;  // ships of the fleet
+  private int[] shipIndex;  // 1 + index in ships of the ship on each cell, 0 for water
+  private int[] remainingSegments;  // cells of each ship not yet hit
+  private int sunkCount;  // number of sunk ships
+  private ShipType lastSunk;  // ship sunk by the last guess, or null
+  private int[] revealedCells;  // cells guessed this game, reset by the next game
+  private int revealedCount;  // number of entries in revealedCells
+  private final ShipPlacer placer;  // places ships on the map
+  private final RandomGenerator random;  // source of randomness for ship placement
+  private final BoardView boardView = new View();  // read-only view of this model
+  private final GameListeners listeners = new GameListeners();  // told about every guess
+  private final GameMetrics metrics;  // told how long game starts and guesses take
+  private final boolean timed;  // whether metrics are enabled, so the clock is read
+  private final GameSnapshot emptySnapshot;  // snapshot of a game with no guesses
+  private int games;  // games started, telling snapshots of earlier games apart
+  private long version;  // odd while the state is changing, accessed through VERSION
+  private volatile Published published;  // last snapshot built by getSnapshot
 
   /**
-   * Generate initial visual map.
+   * Constructor for a BattleshipModelImpl of the default game with its own default random
+   * generator.
    */
-  private void initVisualMap() {
-    visualMap = new CellState[height][width];
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        visualMap[i][j] = CellState.UNKNOWN;
-      }
-    }
+  public BattleshipModelImpl() {
+    this(RandomGenerator.getDefault());
   }
 
   /**
-   * Find all legal places on board for a given ship.
-   * Based on map height, width, and occupied grids.
+   * Constructor for a BattleshipModelImpl of the default game that places ships with the given
+   * random generator.
+   * The generator is owned by this model and should not be shared across threads. Two models
+   * given generators in the same state produce the same ship layout.
    *
-   * @param boatLength length of the ship
-   * @param isVertical whether the ship is vertical
-   * @return a list of all legal places
+   * @param random the random generator, e.g. a seeded SplittableRandom
+   * @throws IllegalArgumentException if random is null
    */
-  private ArrayList<Vector2Int> findLegalStartPlaceForShip(ArrayList<Vector2Int> occupiedGrids,
-                                                           int boatLength, boolean isVertical) {
-    ArrayList<Vector2Int> legalPlaces = new ArrayList<>();
+  public BattleshipModelImpl(RandomGenerator random) throws IllegalArgumentException {
+    this(GameConfig.DEFAULT, random);
+  }
 
-    if (isVertical) {
-      for (int i = 0; i < height; i++) {
-        for (int j = 0; j < width; j++) {
-          boolean isLegal = true;
-          for (int k = 0; k < boatLength; k++) {
+  /**
+   * Constructor for a BattleshipModelImpl of the given game that places ships with the given
+   * random generator.
+   *
+   * @param config the board size, guess limit and fleet
+   * @param random the random generator, e.g. a seeded SplittableRandom
+   * @throws IllegalArgumentException if config or random is null
+   */
+  public BattleshipModelImpl(GameConfig config, RandomGenerator random)
+      throws IllegalArgumentException {
+    this(config, random, GameMetrics.NOOP);
+  }
 
-            if (i + k >= height || occupiedGrids.contains(new Vector2Int(i + k, j))) {
-              isLegal = false;
-              break;
-            }
-          }
-          if (isLegal) {
-            legalPlaces.add(new Vector2Int(i, j));
-          }
-        }
-      }
-    } else {
-      for (int i = 0; i < height; i++) {
-        for (int j = 0; j < width; j++) {
-          boolean isLegal = true;
-          for (int k = 0; k < boatLength; k++) {
-            if (j + k >= width || occupiedGrids.contains(new Vector2Int(i, j + k))) {
-              isLegal = false;
-              break;
-            }
-          }
-          if (isLegal) {
-            legalPlaces.add(new Vector2Int(i, j));
-          }
-        }
-      }
+  /**
+   * Constructor for a BattleshipModelImpl of the given game that places ships with the given
+   * random generator and reports its hot paths to the given metrics.
+   *
+   * @param config  the board size, guess limit and fleet
+   * @param random  the random generator, e.g. a seeded SplittableRandom
+   * @param metrics told how long each game start and guess took, or {@link GameMetrics#NOOP}
+   * @throws IllegalArgumentException if config, random or metrics is null
+   */
+  public BattleshipModelImpl(GameConfig config, RandomGenerator random, GameMetrics metrics)
+      throws IllegalArgumentException {
+    if (config == null) {
+      throw new IllegalArgumentException("Game configuration cannot be null.");
+    }
+    if (random == null) {
+      throw new IllegalArgumentException("Random generator cannot be null.");
+    }
+    if (metrics == null) {
+      throw new IllegalArgumentException("Metrics cannot be null.");
     }
+    this.height = config.getHeight();
+    this.width = config.getWidth();
+    this.maxGuesses = config.getMaxGuesses();
+    this.fleet = config.getFleet().toArray(new ShipType[0]);
+    this.placementMode = config.getPlacementMode();
+    this.layoutSlots = new int[fleet.length];
+    this.placer = new ShipPlacer(height, width);
+    this.random = random;
+    this.metrics = metrics;
+    this.timed = metrics.isEnabled();
+    this.emptySnapshot = GameSnapshot.empty(height, width, maxGuesses);
+    this.published = new Published(0, 0, 0, emptySnapshot);
+  }
 
-    return legalPlaces;
+  /**
+   * A snapshot, the version of the state it was built from, and how far into that game's
+   * guessed cells it goes.
+   */
+  private static final class Published {
+    private final long version;
+    private final int game;
+    private final int revealed;  // entries of revealedCells included
+    private final GameSnapshot snapshot;
+
+    private Published(long version, int game, int revealed, GameSnapshot snapshot) {
+      this.version = version;
+      this.game = game;
+      this.revealed = revealed;
+      this.snapshot = snapshot;
+    }
+  }
+
+  /**
+   * Generate initial visual map. The map of a previous game is reused, and only the cells
+   * guessed in that game are reset.
+   */
+  private void initVisualMap() {
+    if (visualMap == null) {
+      visualMap = new byte[height * width];
+      Arrays.fill(visualMap, (byte) CellState.UNKNOWN.ordinal());
+      revealedCells = new int[(int) Math.min(maxGuesses, (long) height * width)];
+    }
+    for (int i = 0; i < revealedCount; i++) {
+      visualMap[revealedCells[i]] = (byte) CellState.UNKNOWN.ordinal();
+    }
+    revealedCount = 0;
+  }
+
+  /**
+   * Create the ships of the fleet, with bodies of the right length but no position yet.
+   * Called once; later games move the same ships around.
+   */
+  private void initShips() {
+    ships = new Ship[fleet.length];
+    for (int s = 0; s < fleet.length; s++) {
+      ships[s] = new Ship(fleet[s]);
+    }
+    shipIndex = new int[height * width];
+    remainingSegments = new int[ships.length];
   }
 
   /**
    * Initializes the game by setting up the grids and randomly placing ships.
+   * Calling it again starts a new game that reuses the map and ship objects of the previous one,
+   * so a model can play any number of games without allocating after the first.
+   * Ships are placed as the {@link PlacementMode} of the configuration says.
+   *
+   * @throws IllegalStateException if a ship has no legal place in its chosen orientation, or in
+   *                               UNIFORM mode the fleet has no legal layout at all, or none
+   *                               was found within the attempt bound of a board of more than
+   *                               128 cells
    */
   @Override
   public void startGame() throws IllegalStateException {
-    initVisualMap();
-    ships = new ArrayList<>();
-    ArrayList<Vector2Int> occupiedGrids = new ArrayList<>();
-    for (ShipType shipType : ShipType.values()) {
-      int boatLength = shipType.getSize();
-      boolean isVertical = Math.random() < 0.5;
-      ArrayList<Vector2Int> legalPlaces = findLegalStartPlaceForShip(occupiedGrids, boatLength,
-          isVertical);
-      if (legalPlaces.size() == 0) {
+    if (!timed) {
+      placeFleet();
+      return;
+    }
+    placer.takeRetries();
+    long begin = System.nanoTime();
+    placeFleet();
+    metrics.onGameStarted(System.nanoTime() - begin, placer.takeRetries());
+  }
+
+  /**
+   * Reset the board and place the fleet as the placement mode says.
+   *
+   * @throws IllegalStateException if the fleet cannot be placed
+   */
+  private void placeFleet() throws IllegalStateException {
+    resetGame();
+    if (placementMode == PlacementMode.UNIFORM) {
+      if (!placer.randomLayout(fleet, random, layoutSlots)) {
+        throw new IllegalStateException("The fleet has no legal layout on this board.");
+      }
+      for (int s = 0; s < ships.length; s++) {
+        placeShip(s, layoutSlots[s]);
+      }
+      return;
+    }
+    placer.clear();
+    for (int s = 0; s < ships.length; s++) {
+      ShipType shipType = ships[s].getType();
+      boolean isVertical = random.nextBoolean();
+      int placement = placer.randomPlacement(shipType, isVertical, random);
+      if (placement < 0) {
         throw new IllegalStateException("No legal place for ship " + shipType);
       }
-      int randomIndex = (int) (Math.random() * legalPlaces.size());
-      Vector2Int startPlace = legalPlaces.get(randomIndex);
-      ArrayList<Vector2Int> body = new ArrayList<>();
-      for (int i = 0; i < boatLength; i++) {
-        if (isVertical) {
-          body.add(new Vector2Int(startPlace.gridX + i, startPlace.gridY));
-          occupiedGrids.add(new Vector2Int(startPlace.gridX + i, startPlace.gridY));
-        } else {
-          body.add(new Vector2Int(startPlace.gridX, startPlace.gridY + i));
-          occupiedGrids.add(new Vector2Int(startPlace.gridX, startPlace.gridY + i));
+      placer.occupy(shipType, placement);
+      placeShip(s, placement);
+    }
+  }
+
+  /**
+   * Starts a new game with the given ships at the given places.
+   *
+   * @param types  the type of each ship; together they must be the fleet, in any order
+   * @param layout the packed placement of each ship
+   * @throws IllegalArgumentException if the types do not match the fleet or a ship is off the
+   *                                  board or overlaps another; the current game is then kept
+   */
+  @Override
+  public void startGame(ShipType[] types, int[] layout) throws IllegalArgumentException {
+    if (layout.length != types.length) {
+      throw new IllegalArgumentException("Layout does not match the fleet.");
+    }
+    ReplayableModel.matchFleet(fleet, types, layoutSlots);
+    placer.clear();
+    for (int s = 0; s < fleet.length; s++) {
+      int packed = layout[layoutSlots[s]];
+      int placement = placer.placementOf(fleet[s], ReplayableModel.start(packed),
+          ReplayableModel.isVertical(packed));
+      if (placement < 0 || !placer.fits(fleet[s], placement)) {
+        throw new IllegalArgumentException("Illegal place for ship " + fleet[s]);
+      }
+      placer.occupy(fleet[s], placement);
+    }
+    resetGame();
+    for (int s = 0; s < fleet.length; s++) {
+      int packed = layout[layoutSlots[s]];
+      placeShip(s, placer.placementOf(fleet[s], ReplayableModel.start(packed),
+          ReplayableModel.isVertical(packed)));
+    }
+  }
+
+  /**
+   * Clear the board of the previous game, keeping its objects for the new one.
+   */
+  private void resetGame() {
+    beginWrite();
+    initVisualMap();
+    guessCount = 0;
+    sunkCount = 0;
+    games++;
+    if (ships == null) {
+      initShips();
+    } else {
+      for (Ship ship : ships) {
+        for (int cell : ship.getBody()) {
+          shipIndex[cell] = 0;
         }
       }
-      ships.add(new Ship(shipType, body));
+    }
+    endWrite();
+  }
 
+  /**
+   * Make the version odd before the state read by snapshots changes. Only the playing thread
+   * writes, so the version is read plainly here.
+   */
+  private void beginWrite() {
+    VERSION.setOpaque(this, version + 1);
+    VarHandle.storeStoreFence();  // the odd version is visible before any change
+  }
+
+  /**
+   * Make the version even again once the state is consistent.
+   */
+  private void endWrite() {
+    VERSION.setRelease(this, version + 1);
+  }
+
+  /**
+   * Move a ship to a placement and afloat again.
+   *
+   * @param s         index of the ship
+   * @param placement the placement, as numbered by the placer
+   */
+  private void placeShip(int s, int placement) {
+    Ship ship = ships[s];
+    boolean isVertical = placer.isVertical(ship.getType(), placement);
+    ship.place(placer.start(ship.getType(), placement), isVertical ? width : 1);
+    int[] body = ship.getBody();
+    for (int cell : body) {
+      shipIndex[cell] = s + 1;
     }
+    remainingSegments[s] = body.length;
+    ship.revive();
   }
 
   /**
@@ -122,53 +326,108 @@ public class BattleshipModelImpl implements BattleshipModel {
   public boolean makeGuess(int row, int col)
       throws IllegalArgumentException, IllegalStateException {
     // deal with exception
-    if (row < 0 || row >= height || col < 0 || col >= width) {
-      throw new IllegalArgumentException("Coordinates out of bounds. Rows: A-J, Columns: 0-9.");
+    if (!Coordinates.inBounds(row, col, height, width)) {
+      throw GuessBatch.outOfBounds(height, width);
     }
 
     if (isGameOver()) {
       throw new IllegalStateException("Game is already over.");
     }
 
+    return guess(Coordinates.pack(row, col, width));
+  }
+
+  @Override
+  public int makeGuesses(int[] rows, int[] cols, boolean[] outHits)
+      throws IllegalArgumentException, IllegalStateException {
+    GuessBatch.checkCoordinates(rows, cols, outHits, height, width);
+    if (isGameOver()) {
+      throw new IllegalStateException("Game is already over.");
+    }
+    int made = 0;
+    while (made < rows.length && !isGameOver()) {
+      outHits[made] = guess(Coordinates.pack(rows[made], cols[made], width));
+      made++;
+    }
+    return made;
+  }
+
+  @Override
+  public int makeGuesses(int[] cells, boolean[] outHits)
+      throws IllegalArgumentException, IllegalStateException {
+    GuessBatch.checkCells(cells, outHits, height, width);
+    if (isGameOver()) {
+      throw new IllegalStateException("Game is already over.");
+    }
+    int made = 0;
+    while (made < cells.length && !isGameOver()) {
+      outHits[made] = guess(cells[made]);
+      made++;
+    }
+    return made;
+  }
+
+  /**
+   * Make a guess that has already been checked against the board and the game state.
+   *
+   * @param cell the packed cell
+   * @return true if the guess was a hit, false otherwise
+   */
+  private boolean guess(int cell) {
+    long begin = timed ? System.nanoTime() : 0;
+    beginWrite();
     // deal with guess count
     guessCount++;
+    if (visualMap[cell] == CellState.UNKNOWN.ordinal()) {
+      revealedCells[revealedCount++] = cell;
+    }
 
     // sunk the ship if it is a hit
-    boolean hit = checkHit(row, col);  // don't like it. checking and modifying should be separated
+    boolean hit = checkHit(cell);  // don't like it. checking and modifying should be separated
 
     // update visual map
-    updateVisualMap(new Vector2Int(row, col), hit);
+    updateVisualMap(cell, hit);
+    endWrite();
 
+    if (!listeners.isEmpty()) {
+      listeners.fireGuess(Coordinates.row(cell, width), Coordinates.col(cell, width), hit,
+          lastSunk, isGameOver(), areAllShipsSunk(), guessCount);
+    }
+    if (timed) {
+      metrics.onGuess(System.nanoTime() - begin, hit, lastSunk != null);
+    }
     return hit;
-
   }
 
 
   /**
    * Check if the guess is a hit.
-   * sunk the ship if it is a hit.
+   * A first hit on a ship segment decrements the ship's remaining segments, and the ship sinks
+   * when none remain. Hitting the same segment again changes nothing.
    *
-   * @param row the row index (0-based)
-   * @param col the column index (0-based)
+   * @param cell the packed cell
    * @return true if the guess was a hit, false otherwise
    */
-  private boolean checkHit(int row, int col) {
-    for (Ship ship : ships) {
-      for (Vector2Int body : ship.getBody()) {
-        if (body.gridX == row && body.gridY == col) {
-          ship.sink();
-          return true;
-        }
-      }
+  private boolean checkHit(int cell) {
+    lastSunk = null;
+    int owner = shipIndex[cell];
+    if (owner == 0) {
+      return false;
+    }
+    if (visualMap[cell] != CellState.HIT.ordinal() && --remainingSegments[owner - 1] == 0) {
+      Ship ship = ships[owner - 1];
+      ship.sink();
+      sunkCount++;
+      lastSunk = ship.getType();
     }
-    return false;
+    return true;
   }
 
-  private void updateVisualMap(Vector2Int pos, boolean hit) {
+  private void updateVisualMap(int cell, boolean hit) {
     if (hit) {
-      visualMap[pos.gridX][pos.gridY] = CellState.HIT;
+      visualMap[cell] = (byte) CellState.HIT.ordinal();
     } else {
-      visualMap[pos.gridX][pos.gridY] = CellState.MISS;
+      visualMap[cell] = (byte) CellState.MISS.ordinal();
     }
 
   }
@@ -195,12 +454,7 @@ public class BattleshipModelImpl implements BattleshipModel {
    */
   @Override
   public boolean areAllShipsSunk() {
-    for (Ship ship : ships) {
-      if (!ship.isDead()) {
-        return false;
-      }
-    }
-    return true;
+    return sunkCount == ships.length;
   }
 
   /**
@@ -231,7 +485,58 @@ public class BattleshipModelImpl implements BattleshipModel {
    */
   @Override
   public CellState[][] getCellGrid() {
-    return visualMap;
+    CellState[][] copy = new CellState[height][width];
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        copy[i][j] = CELL_STATES[visualMap[i * width + j]];
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Returns the latest snapshot of the game. It reflects every guess of the current game, and
+   * can be read from any thread without locking.
+   *
+   * @return the latest snapshot
+   */
+  @Override
+  public GameSnapshot getSnapshot() {
+    for (int attempt = 0; ; attempt++) {
+      long start = (long) VERSION.getAcquire(this);
+      if ((start & 1) == 0) {
+        Published last = published;
+        if (last.version == start) {
+          return last.snapshot;
+        }
+        int game = games;
+        int count = guessCount;
+        boolean allSunk = sunkCount == fleet.length;
+        int[] revealedLog = revealedCells;
+        byte[] map = visualMap;
+        int revealed = revealedLog == null ? 0 : Math.min(revealedCount, revealedLog.length);
+        int from = last.game == game && last.revealed <= revealed ? last.revealed : 0;
+        int[] cells = new int[revealed - from];
+        boolean[] cellHits = new boolean[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+          cells[i] = revealedLog[from + i];
+          cellHits[i] = map[cells[i]] == CellState.HIT.ordinal();
+        }
+        VarHandle.loadLoadFence();  // the copies are read before the version is checked again
+        if ((long) VERSION.getOpaque(this) == start) {
+          GameSnapshot snapshot = count == 0 ? emptySnapshot
+              : (from == 0 ? emptySnapshot : last.snapshot)
+                  .withGuesses(cells, cellHits, cells.length, count, allSunk);
+          published = new Published(start, game, revealed, snapshot);
+          return snapshot;
+        }
+      }
+      if (attempt < 100) {
+        Thread.onSpinWait();
+      } else {
+        Thread.yield();  // the player may have been descheduled in the middle of a guess
+      }
+    }
   }
 
   /**
@@ -246,10 +551,80 @@ public class BattleshipModelImpl implements BattleshipModel {
     ShipType[][] shipGrid = new ShipType[height][width];
 
     for (Ship ship : ships) {
-      for (Vector2Int body : ship.getBody()) {
-        shipGrid[body.gridX][body.gridY] = ship.getType();
+      for (int cell : ship.getBody()) {
+        shipGrid[Coordinates.row(cell, width)][Coordinates.col(cell, width)] = ship.getType();
       }
     }
     return shipGrid;
   }
+
+  /**
+   * Returns a read-only view of the board that reflects the game state without copying it.
+   *
+   * @return the board view
+   */
+  @Override
+  public BoardView getBoardView() {
+    return boardView;
+  }
+
+  /**
+   * Registers a listener that is told about every guess, hit, miss, sunk ship and the end of
+   * the game.
+   *
+   * @param listener the listener
+   * @throws IllegalArgumentException if listener is null
+   */
+  @Override
+  public void addGameListener(GameListener listener) throws IllegalArgumentException {
+    listeners.add(listener);
+  }
+
+  /**
+   * Unregisters a listener. Does nothing if the listener is not registered.
+   *
+   * @param listener the listener
+   */
+  @Override
+  public void removeGameListener(GameListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Read-only view over the visual map and the ships of this model.
+   */
+  private class View implements BoardView {
+    @Override
+    public int getHeight() {
+      return height;
+    }
+
+    @Override
+    public int getWidth() {
+      return width;
+    }
+
+    @Override
+    public CellState cellAt(int row, int col) {
+      return CELL_STATES[visualMap[cellIndex(row, col)]];
+    }
+
+    @Override
+    public ShipType shipAt(int row, int col) {
+      int owner = shipIndex[cellIndex(row, col)];
+      return owner == 0 ? null : ships[owner - 1].getType();
+    }
+
+    /**
+     * Returns the packed cell of a coordinate.
+     *
+     * @throws IndexOutOfBoundsException if the cell is off the board
+     */
+    private int cellIndex(int row, int col) throws IndexOutOfBoundsException {
+      if (!Coordinates.inBounds(row, col, height, width)) {
+        throw new IndexOutOfBoundsException("Cell (" + row + ", " + col + ") is off the board.");
+      }
+      return Coordinates.pack(row, col, width);
+    }
+  }
 }
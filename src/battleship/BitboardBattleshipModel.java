@@ -0,0 +1,585 @@
+package battleship;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.random.RandomGenerator;
+
+/**
+ * Represents the model for the Battleship game, backed by bitboards.
+ * The cells of the board are numbered row * width + col. Every set of cells (the occupied
+ * cells, each ship's body, the guessed cells and the hit cells) is stored as a pair of longs:
+ * cells 0-63 in the low word and cells 64-127 in the high word, which limits this engine to
+ * boards of at most 128 cells. Guesses and game state queries are then a handful of bitwise
+ * operations and never allocate.
+ *
+ * <p>Snapshots are published through a version number, as in a sequence lock: it is odd while a
+ * guess or a new game changes the bitboards and even otherwise. {@link #getSnapshot()} reads the
+ * bitboards between two reads of the same even version, so a reader builds the snapshot and the
+ * player neither allocates nor waits for it. The reader does wait: while a guess is under way,
+ * or if the player guesses again before the copy is checked, it spins and tries again, so
+ * {@code getSnapshot} is lock-free but not wait-free.
+ */
+public class BitboardBattleshipModel implements ReplayableModel {
+
+  private static final VarHandle VERSION;
+
+  static {
+    try {
+      VERSION = MethodHandles.lookup().findVarHandle(BitboardBattleshipModel.class, "version",
+          long.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final int height;  // height of the map
+  private final int width;  // width of the map
+  private final int maxGuesses;  // maximum number of guesses
+  private int guessCount = 0;  // number of guesses made
+
+  private final ShipType[] shipTypes;  // fleet, indexed by ship slot
+  private final long[] shipLo;  // low word of each ship's body
+  private final long[] shipHi;  // high word of each ship's body
+  private final PlacementMode placementMode;  // how the fleet is placed
+  private final int[] layoutSlots;  // scratch: placement or layout entry of each ship
+  private final ShipPlacer placer;  // places ships on the map
+  private final RandomGenerator random;  // source of randomness for ship placement
+  private final BoardView boardView = new View();  // read-only view of this model
+  private final GameListeners listeners = new GameListeners();  // told about every guess
+  private final GameMetrics metrics;  // told how long game starts and guesses take
+  private final boolean timed;  // whether metrics are enabled, so the clock is read
+  private final GameSnapshot emptySnapshot;  // snapshot of a game with no guesses
+  private long version;  // odd while the state is changing, accessed through VERSION
+  private volatile Published published;  // last snapshot built by getSnapshot
+
+  private long occupiedLo;  // cells covered by any ship
+  private long occupiedHi;
+  private long guessedLo;  // cells guessed so far
+  private long guessedHi;
+  private long hitLo;  // guessed cells that were hits
+  private long hitHi;
+
+  /**
+   * Constructor for a BitboardBattleshipModel of the default game with its own default random
+   * generator.
+   */
+  public BitboardBattleshipModel() {
+    this(RandomGenerator.getDefault());
+  }
+
+  /**
+   * Constructor for a BitboardBattleshipModel of the default game that places ships with the
+   * given random generator.
+   * The generator is owned by this model and should not be shared across threads. Two models
+   * given generators in the same state produce the same ship layout.
+   *
+   * @param random the random generator, e.g. a seeded SplittableRandom
+   * @throws IllegalArgumentException if random is null
+   */
+  public BitboardBattleshipModel(RandomGenerator random) throws IllegalArgumentException {
+    this(GameConfig.DEFAULT, random);
+  }
+
+  /**
+   * Constructor for a BitboardBattleshipModel of the given game that places ships with the given
+   * random generator.
+   *
+   * @param config the board size, guess limit and fleet
+   * @param random the random generator, e.g. a seeded SplittableRandom
+   * @throws IllegalArgumentException if config or random is null, or the board has more than 128
+   *                                  cells
+   */
+  public BitboardBattleshipModel(GameConfig config, RandomGenerator random)
+      throws IllegalArgumentException {
+    this(config, random, GameMetrics.NOOP);
+  }
+
+  /**
+   * Constructor for a BitboardBattleshipModel of the given game that places ships with the given
+   * random generator and reports its hot paths to the given metrics.
+   *
+   * @param config  the board size, guess limit and fleet
+   * @param random  the random generator, e.g. a seeded SplittableRandom
+   * @param metrics told how long each game start and guess took, or {@link GameMetrics#NOOP}
+   * @throws IllegalArgumentException if config, random or metrics is null, or the board has more
+   *                                  than 128 cells
+   */
+  public BitboardBattleshipModel(GameConfig config, RandomGenerator random, GameMetrics metrics)
+      throws IllegalArgumentException {
+    if (config == null) {
+      throw new IllegalArgumentException("Game configuration cannot be null.");
+    }
+    if (random == null) {
+      throw new IllegalArgumentException("Random generator cannot be null.");
+    }
+    if (metrics == null) {
+      throw new IllegalArgumentException("Metrics cannot be null.");
+    }
+    if (config.getHeight() * config.getWidth() > 128) {
+      throw new IllegalArgumentException("Bitboard engine supports at most 128 cells.");
+    }
+    this.height = config.getHeight();
+    this.width = config.getWidth();
+    this.maxGuesses = config.getMaxGuesses();
+    this.shipTypes = config.getFleet().toArray(new ShipType[0]);
+    this.shipLo = new long[shipTypes.length];
+    this.shipHi = new long[shipTypes.length];
+    this.placementMode = config.getPlacementMode();
+    this.layoutSlots = new int[shipTypes.length];
+    this.placer = new ShipPlacer(height, width);
+    this.random = random;
+    this.metrics = metrics;
+    this.timed = metrics.isEnabled();
+    this.emptySnapshot = GameSnapshot.empty(height, width, maxGuesses);
+  }
+
+  /**
+   * A snapshot and the version of the state it was built from.
+   */
+  private static final class Published {
+    private final long version;
+    private final GameSnapshot snapshot;
+
+    private Published(long version, GameSnapshot snapshot) {
+      this.version = version;
+      this.snapshot = snapshot;
+    }
+  }
+
+  /**
+   * Tests whether a cell is set in the given long pair.
+   *
+   * @param lo   low word (cells 0-63)
+   * @param hi   high word (cells 64-127)
+   * @param cell the cell index
+   * @return true if the cell's bit is set
+   */
+  private static boolean testBit(long lo, long hi, int cell) {
+    return cell < 64 ? (lo & (1L << cell)) != 0 : (hi & (1L << (cell - 64))) != 0;
+  }
+
+  /**
+   * Initializes the game by setting up the grids and randomly placing ships.
+   * Each ship picks an orientation at random, then a start cell uniformly among the legal ones.
+   * Ships are placed as the {@link PlacementMode} of the configuration says.
+   *
+   * @throws IllegalStateException if a ship has no legal place in its chosen orientation, or in
+   *                               UNIFORM mode the fleet has no legal layout at all
+   */
+  @Override
+  public void startGame() throws IllegalStateException {
+    if (!timed) {
+      placeFleet();
+      return;
+    }
+    placer.takeRetries();
+    long begin = System.nanoTime();
+    placeFleet();
+    metrics.onGameStarted(System.nanoTime() - begin, placer.takeRetries());
+  }
+
+  /**
+   * Reset the board and place the fleet as the placement mode says.
+   *
+   * @throws IllegalStateException if the fleet cannot be placed
+   */
+  private void placeFleet() throws IllegalStateException {
+    if (placementMode == PlacementMode.UNIFORM) {
+      if (!placer.randomLayout(shipTypes, random, layoutSlots)) {
+        throw new IllegalStateException("The fleet has no legal layout on this board.");
+      }
+      for (int slot = 0; slot < shipTypes.length; slot++) {
+        shipLo[slot] = placer.table(shipTypes[slot]).maskLo(layoutSlots[slot]);
+        shipHi[slot] = placer.table(shipTypes[slot]).maskHi(layoutSlots[slot]);
+      }
+      resetGame();
+      return;
+    }
+    placer.clear();
+    for (int slot = 0; slot < shipTypes.length; slot++) {
+      ShipType shipType = shipTypes[slot];
+      boolean isVertical = random.nextBoolean();
+      int placement = placer.randomPlacement(shipType, isVertical, random);
+      if (placement < 0) {
+        throw new IllegalStateException("No legal place for ship " + shipType);
+      }
+      placer.occupy(shipType, placement);
+      shipLo[slot] = placer.table(shipType).maskLo(placement);
+      shipHi[slot] = placer.table(shipType).maskHi(placement);
+    }
+    resetGame();
+  }
+
+  /**
+   * Starts a new game with the given ships at the given places.
+   *
+   * @param types  the type of each ship; together they must be the fleet, in any order
+   * @param layout the packed placement of each ship
+   * @throws IllegalArgumentException if the types do not match the fleet or a ship is off the
+   *                                  board or overlaps another; the current game is then kept
+   */
+  @Override
+  public void startGame(ShipType[] types, int[] layout) throws IllegalArgumentException {
+    if (layout.length != types.length) {
+      throw new IllegalArgumentException("Layout does not match the fleet.");
+    }
+    ReplayableModel.matchFleet(shipTypes, types, layoutSlots);
+    placer.clear();
+    for (int slot = 0; slot < shipTypes.length; slot++) {
+      int packed = layout[layoutSlots[slot]];
+      int placement = placer.placementOf(shipTypes[slot], ReplayableModel.start(packed),
+          ReplayableModel.isVertical(packed));
+      if (placement < 0 || !placer.fits(shipTypes[slot], placement)) {
+        throw new IllegalArgumentException("Illegal place for ship " + shipTypes[slot]);
+      }
+      placer.occupy(shipTypes[slot], placement);
+      // the current game is only replaced once the whole layout is known to be legal
+      layoutSlots[slot] = placement;
+    }
+    for (int slot = 0; slot < shipTypes.length; slot++) {
+      shipLo[slot] = placer.table(shipTypes[slot]).maskLo(layoutSlots[slot]);
+      shipHi[slot] = placer.table(shipTypes[slot]).maskHi(layoutSlots[slot]);
+    }
+    resetGame();
+  }
+
+  /**
+   * Clear the guesses of the previous game and take the occupied cells from the placer.
+   */
+  private void resetGame() {
+    beginWrite();
+    guessCount = 0;
+    guessedLo = 0;
+    guessedHi = 0;
+    hitLo = 0;
+    hitHi = 0;
+    occupiedLo = placer.occupiedWord(0);
+    occupiedHi = placer.occupiedWord(1);
+    endWrite();
+  }
+
+  /**
+   * Make the version odd before the state read by snapshots changes. Only the playing thread
+   * writes, so the version is read plainly here.
+   */
+  private void beginWrite() {
+    VERSION.setOpaque(this, version + 1);
+    VarHandle.storeStoreFence();  // the odd version is visible before any change
+  }
+
+  /**
+   * Make the version even again once the state is consistent.
+   */
+  private void endWrite() {
+    VERSION.setRelease(this, version + 1);
+  }
+
+  /**
+   * Processes the player's guess at the specified coordinate.
+   *
+   * @param row the row index (0-based)
+   * @param col the column index (0-based)
+   * @return true if the guess was a hit, false otherwise
+   * @throws IllegalArgumentException if the coordinates are out of bounds
+   * @throws IllegalStateException    if the game is already over
+   */
+  @Override
+  public boolean makeGuess(int row, int col)
+      throws IllegalArgumentException, IllegalStateException {
+    if (!Coordinates.inBounds(row, col, height, width)) {
+      throw GuessBatch.outOfBounds(height, width);
+    }
+
+    if (isGameOver()) {
+      throw new IllegalStateException("Game is already over.");
+    }
+
+    return guess(Coordinates.pack(row, col, width));
+  }
+
+  @Override
+  public int makeGuesses(int[] rows, int[] cols, boolean[] outHits)
+      throws IllegalArgumentException, IllegalStateException {
+    GuessBatch.checkCoordinates(rows, cols, outHits, height, width);
+    if (isGameOver()) {
+      throw new IllegalStateException("Game is already over.");
+    }
+    int made = 0;
+    while (made < rows.length && !isGameOver()) {
+      outHits[made] = guess(Coordinates.pack(rows[made], cols[made], width));
+      made++;
+    }
+    return made;
+  }
+
+  @Override
+  public int makeGuesses(int[] cells, boolean[] outHits)
+      throws IllegalArgumentException, IllegalStateException {
+    GuessBatch.checkCells(cells, outHits, height, width);
+    if (isGameOver()) {
+      throw new IllegalStateException("Game is already over.");
+    }
+    int made = 0;
+    while (made < cells.length && !isGameOver()) {
+      outHits[made] = guess(cells[made]);
+      made++;
+    }
+    return made;
+  }
+
+  /**
+   * Make a guess that has already been checked against the board and the game state.
+   *
+   * @param cell the cell index
+   * @return true if the guess was a hit, false otherwise
+   */
+  private boolean guess(int cell) {
+    long begin = timed ? System.nanoTime() : 0;
+    beginWrite();
+    guessCount++;
+
+    boolean hit;
+    boolean newHit;
+    if (cell < 64) {
+      long bit = 1L << cell;
+      guessedLo |= bit;
+      hit = (occupiedLo & bit) != 0;
+      newHit = hit && (hitLo & bit) == 0;
+      hitLo |= occupiedLo & bit;
+    } else {
+      long bit = 1L << (cell - 64);
+      guessedHi |= bit;
+      hit = (occupiedHi & bit) != 0;
+      newHit = hit && (hitHi & bit) == 0;
+      hitHi |= occupiedHi & bit;
+    }
+    endWrite();
+
+    if (!timed && listeners.isEmpty()) {
+      return hit;
+    }
+    ShipType sunk = newHit ? sunkShip(cell) : null;
+    if (!listeners.isEmpty()) {
+      listeners.fireGuess(Coordinates.row(cell, width), Coordinates.col(cell, width), hit, sunk,
+          isGameOver(), areAllShipsSunk(), guessCount);
+    }
+    if (timed) {
+      metrics.onGuess(System.nanoTime() - begin, hit, sunk != null);
+    }
+    return hit;
+  }
+
+  /**
+   * Returns the type of the ship covering a cell if every cell of that ship has been hit.
+   *
+   * @param cell the cell index
+   * @return the ship type, or null if the cell is water or its ship is still afloat
+   */
+  private ShipType sunkShip(int cell) {
+    for (int slot = 0; slot < shipTypes.length; slot++) {
+      if (testBit(shipLo[slot], shipHi[slot], cell)) {
+        boolean sunk = ((shipLo[slot] & ~hitLo) | (shipHi[slot] & ~hitHi)) == 0;
+        return sunk ? shipTypes[slot] : null;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Checks if the game is over.
+   *
+   * @return true if all ships are sunk or the maximum number of guesses is reached, false otherwise
+   */
+  @Override
+  public boolean isGameOver() {
+    return guessCount >= maxGuesses || areAllShipsSunk();
+  }
+
+  /**
+   * Checks if all ships have been sunk, i.e. every occupied cell has been hit.
+   *
+   * @return true if all ships are sunk, false otherwise
+   */
+  @Override
+  public boolean areAllShipsSunk() {
+    return ((occupiedLo & ~hitLo) | (occupiedHi & ~hitHi)) == 0;
+  }
+
+  /**
+   * Gets the number of guesses the player has made so far.
+   *
+   * @return the number of guesses made
+   */
+  @Override
+  public int getGuessCount() {
+    return guessCount;
+  }
+
+  /**
+   * Gets the maximum number of guesses allowed.
+   *
+   * @return the maximum number of guesses
+   */
+  @Override
+  public int getMaxGuesses() {
+    return maxGuesses;
+  }
+
+  /**
+   * Retrieves the current state of the cell grid for display purposes.
+   *
+   * @return a deep copy of the 2D array representing the cell grid state
+   */
+  @Override
+  public CellState[][] getCellGrid() {
+    CellState[][] cellGrid = new CellState[height][width];
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        int cell = i * width + j;
+        if (!testBit(guessedLo, guessedHi, cell)) {
+          cellGrid[i][j] = CellState.UNKNOWN;
+        } else if (testBit(hitLo, hitHi, cell)) {
+          cellGrid[i][j] = CellState.HIT;
+        } else {
+          cellGrid[i][j] = CellState.MISS;
+        }
+      }
+    }
+    return cellGrid;
+  }
+
+  /**
+   * Returns the latest snapshot of the game. It can be read from any thread without locking: the
+   * bitboards are copied between two reads of the same even version, and again if a guess
+   * changed them meanwhile. The snapshot is built by the first caller after a change and reused
+   * until the next one.
+   *
+   * @return the latest snapshot
+   */
+  @Override
+  public GameSnapshot getSnapshot() {
+    for (int attempt = 0; ; attempt++) {
+      long start = (long) VERSION.getAcquire(this);
+      if ((start & 1) == 0) {
+        Published last = published;
+        if (last != null && last.version == start) {
+          return last.snapshot;
+        }
+        int count = guessCount;
+        long gLo = guessedLo;
+        long gHi = guessedHi;
+        long hLo = hitLo;
+        long hHi = hitHi;
+        long oLo = occupiedLo;
+        long oHi = occupiedHi;
+        VarHandle.loadLoadFence();  // the copies are read before the version is checked again
+        if ((long) VERSION.getOpaque(this) == start) {
+          GameSnapshot snapshot = count == 0 ? emptySnapshot : GameSnapshot.of(height, width,
+              maxGuesses, count, ((oLo & ~hLo) | (oHi & ~hHi)) == 0, gLo, gHi, hLo, hHi);
+          published = new Published(start, snapshot);
+          return snapshot;
+        }
+      }
+      if (attempt < 100) {
+        Thread.onSpinWait();
+      } else {
+        Thread.yield();  // the player may have been descheduled in the middle of a guess
+      }
+    }
+  }
+
+  /**
+   * Retrieves the current state of the ship grid.
+   *
+   * @return a deep copy of the 2D array representing the ship grid state
+   */
+  @Override
+  public ShipType[][] getShipGrid() {
+    ShipType[][] shipGrid = new ShipType[height][width];
+    for (int slot = 0; slot < shipTypes.length; slot++) {
+      for (int cell = 0; cell < height * width; cell++) {
+        if (testBit(shipLo[slot], shipHi[slot], cell)) {
+          shipGrid[cell / width][cell % width] = shipTypes[slot];
+        }
+      }
+    }
+    return shipGrid;
+  }
+
+  /**
+   * Returns a read-only view of the board that reflects the game state without copying it.
+   *
+   * @return the board view
+   */
+  @Override
+  public BoardView getBoardView() {
+    return boardView;
+  }
+
+  /**
+   * Returns the index of a cell, checking that it is on the board.
+   */
+  private int cellIndex(int row, int col) {
+    if (!Coordinates.inBounds(row, col, height, width)) {
+      throw new IndexOutOfBoundsException("Cell (" + row + ", " + col + ") is off the board.");
+    }
+    return Coordinates.pack(row, col, width);
+  }
+
+  /**
+   * Registers a listener that is told about every guess, hit, miss, sunk ship and the end of
+   * the game.
+   *
+   * @param listener the listener
+   * @throws IllegalArgumentException if listener is null
+   */
+  @Override
+  public void addGameListener(GameListener listener) throws IllegalArgumentException {
+    listeners.add(listener);
+  }
+
+  /**
+   * Unregisters a listener. Does nothing if the listener is not registered.
+   *
+   * @param listener the listener
+   */
+  @Override
+  public void removeGameListener(GameListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Read-only view over the bitboards of this model.
+   */
+  private class View implements BoardView {
+    @Override
+    public int getHeight() {
+      return height;
+    }
+
+    @Override
+    public int getWidth() {
+      return width;
+    }
+
+    @Override
+    public CellState cellAt(int row, int col) {
+      int cell = cellIndex(row, col);
+      if (!testBit(guessedLo, guessedHi, cell)) {
+        return CellState.UNKNOWN;
+      }
+      return testBit(hitLo, hitHi, cell) ? CellState.HIT : CellState.MISS;
+    }
+
+    @Override
+    public ShipType shipAt(int row, int col) {
+      int cell = cellIndex(row, col);
+      for (int slot = 0; slot < shipTypes.length; slot++) {
+        if (testBit(shipLo[slot], shipHi[slot], cell)) {
+          return shipTypes[slot];
+        }
+      }
+      return null;
+    }
+  }
+}
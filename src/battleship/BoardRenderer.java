@@ -0,0 +1,246 @@
+package battleship;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Renders boards as text for the console. A frame is built in one reused buffer from symbols
+ * encoded once, then written with a single {@link #flush()}, instead of one synchronized stream
+ * write and one string concatenation per cell. Rendering a board therefore does not allocate
+ * once the buffer has grown to the size of a frame.
+ *
+ * <p>The text is the one of the original console front-end: a header of column numbers, then a
+ * row letter and one symbol per cell on each line, every item followed by a space. A renderer
+ * made by {@link #headless()} discards its frames and only counts their bytes, for benchmarks.
+ * A renderer is not thread-safe.
+ */
+public class BoardRenderer {
+
+  private static final byte[][] CELL_SYMBOLS =
+      new byte[CellState.values().length][];  // symbol of each cell state, by ordinal
+  private static final byte[][] SHIP_SYMBOLS =
+      new byte[ShipType.values().length][];  // symbol of each ship type, by ordinal
+  private static final byte[] WATER_SYMBOL = {'-'};  // ship grid cell without a ship
+  private static final int MAX_SYMBOL_LENGTH;  // bytes of the longest symbol
+  private static final byte[] CELL_GRID_TITLE = ascii("\nCurrent Grid State:\n");
+  private static final byte[] SHIP_GRID_TITLE = ascii("\nShip Grid:\n");
+
+  static {
+    int max = WATER_SYMBOL.length;
+    for (CellState state : CellState.values()) {
+      CELL_SYMBOLS[state.ordinal()] = state.getSymbol().getBytes(StandardCharsets.UTF_8);
+      max = Math.max(max, CELL_SYMBOLS[state.ordinal()].length);
+    }
+    for (ShipType type : ShipType.values()) {
+      SHIP_SYMBOLS[type.ordinal()] = type.getSymbol().getBytes(StandardCharsets.UTF_8);
+      max = Math.max(max, SHIP_SYMBOLS[type.ordinal()].length);
+    }
+    MAX_SYMBOL_LENGTH = max;
+  }
+
+  private final WritableByteChannel out;  // where frames are written
+  private ByteBuffer frame = ByteBuffer.allocate(1024);  // frame being built, grown as needed
+  private long bytesWritten;  // bytes flushed so far
+
+  /**
+   * Constructor for a BoardRenderer. To print to the console, wrap {@code System.out} with
+   * {@link java.nio.channels.Channels#newChannel(java.io.OutputStream)}, so frames stay in order
+   * with the rest of the output.
+   *
+   * @param out the channel frames are written to
+   * @throws IllegalArgumentException if out is null
+   */
+  public BoardRenderer(WritableByteChannel out) throws IllegalArgumentException {
+    if (out == null) {
+      throw new IllegalArgumentException("Output channel cannot be null.");
+    }
+    this.out = out;
+  }
+
+  /**
+   * Returns a renderer that builds frames as usual but discards them when flushed.
+   *
+   * @return a headless renderer
+   */
+  public static BoardRenderer headless() {
+    return new BoardRenderer(new WritableByteChannel() {
+      @Override
+      public int write(ByteBuffer src) {
+        int count = src.remaining();
+        src.position(src.limit());
+        return count;
+      }
+
+      @Override
+      public boolean isOpen() {
+        return true;
+      }
+
+      @Override
+      public void close() {
+      }
+    });
+  }
+
+  /**
+   * Encode a constant string.
+   */
+  private static byte[] ascii(String text) {
+    return text.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * Appends the cell grid of a board to the frame, as the player sees it.
+   *
+   * @param board the board
+   * @return this renderer
+   */
+  public BoardRenderer appendCellGrid(BoardView board) {
+    put(CELL_GRID_TITLE);
+    appendHeader(board.getWidth());
+    for (int i = 0; i < board.getHeight(); i++) {
+      appendRowLabel(i, board.getWidth());
+      for (int j = 0; j < board.getWidth(); j++) {
+        putSymbol(CELL_SYMBOLS[board.cellAt(i, j).ordinal()]);
+      }
+      frame.put((byte) '\n');
+    }
+    return this;
+  }
+
+  /**
+   * Appends the ship grid of a board to the frame, with a dash for every cell without a ship.
+   *
+   * @param board the board
+   * @return this renderer
+   */
+  public BoardRenderer appendShipGrid(BoardView board) {
+    put(SHIP_GRID_TITLE);
+    appendHeader(board.getWidth());
+    for (int i = 0; i < board.getHeight(); i++) {
+      appendRowLabel(i, board.getWidth());
+      for (int j = 0; j < board.getWidth(); j++) {
+        ShipType ship = board.shipAt(i, j);
+        putSymbol(ship == null ? WATER_SYMBOL : SHIP_SYMBOLS[ship.ordinal()]);
+      }
+      frame.put((byte) '\n');
+    }
+    return this;
+  }
+
+  /**
+   * Appends a line of text to the frame.
+   *
+   * @param text the text, without the line break
+   * @return this renderer
+   */
+  public BoardRenderer appendLine(String text) {
+    put(text.getBytes(StandardCharsets.UTF_8));
+    ensure(1);
+    frame.put((byte) '\n');
+    return this;
+  }
+
+  /**
+   * Append the line of column numbers.
+   */
+  private void appendHeader(int width) {
+    ensure(3 + 11 * width);
+    frame.put((byte) ' ').put((byte) ' ');
+    for (int j = 0; j < width; j++) {
+      putInt(j);
+      frame.put((byte) ' ');
+    }
+    frame.put((byte) '\n');
+  }
+
+  /**
+   * Append the letter of a row and make room for the rest of the row. Past Z the letter is the
+   * char 'A' + row, encoded in UTF-8 as the console printed it, up to 3 bytes.
+   */
+  private void appendRowLabel(int row, int width) {
+    ensure(5 + width * (1 + MAX_SYMBOL_LENGTH));
+    char label = (char) ('A' + row);
+    if (label < 0x80) {
+      frame.put((byte) label);
+    } else if (label < 0x800) {
+      frame.put((byte) (0xC0 | label >> 6)).put((byte) (0x80 | label & 0x3F));
+    } else if (Character.isSurrogate(label)) {
+      frame.put((byte) '?');  // a lone surrogate cannot be encoded
+    } else {
+      frame.put((byte) (0xE0 | label >> 12)).put((byte) (0x80 | label >> 6 & 0x3F))
+          .put((byte) (0x80 | label & 0x3F));
+    }
+    frame.put((byte) ' ');
+  }
+
+  /**
+   * Append a symbol and a space. The room must have been made.
+   */
+  private void putSymbol(byte[] symbol) {
+    frame.put(symbol).put((byte) ' ');
+  }
+
+  /**
+   * Append the decimal digits of a non-negative number. The room must have been made.
+   */
+  private void putInt(int value) {
+    int digits = 1;
+    for (int v = value; v >= 10; v /= 10) {
+      digits++;
+    }
+    int end = frame.position() + digits;
+    for (int p = end - 1; p >= frame.position(); p--) {
+      frame.put(p, (byte) ('0' + value % 10));
+      value /= 10;
+    }
+    frame.position(end);
+  }
+
+  /**
+   * Append bytes, growing the frame if needed.
+   */
+  private void put(byte[] bytes) {
+    ensure(bytes.length);
+    frame.put(bytes);
+  }
+
+  /**
+   * Make room for some more bytes in the frame.
+   */
+  private void ensure(int bytes) {
+    if (frame.remaining() >= bytes) {
+      return;
+    }
+    ByteBuffer grown = ByteBuffer.allocate(Math.max(frame.capacity() * 2,
+        frame.position() + bytes));
+    frame.flip();
+    grown.put(frame);
+    frame = grown;
+  }
+
+  /**
+   * Writes the frame built so far to the channel and starts a new one.
+   *
+   * @throws IOException if the channel cannot be written
+   */
+  public void flush() throws IOException {
+    frame.flip();
+    bytesWritten += frame.remaining();
+    while (frame.hasRemaining()) {
+      out.write(frame);
+    }
+    frame.clear();
+  }
+
+  /**
+   * Returns the number of bytes flushed so far.
+   *
+   * @return the number of bytes written to the channel
+   */
+  public long getBytesWritten() {
+    return bytesWritten;
+  }
+}
@@ -0,0 +1,44 @@
+package battleship;
+
+/**
+ * A read-only, live view of a game's board. Unlike {@link BattleshipModel#getCellGrid()} and
+ * {@link BattleshipModel#getShipGrid()}, a view copies nothing: every call reads the model's
+ * current state, so renderers and players can poll it every turn without allocating. A view is
+ * only as thread-safe as the model behind it.
+ */
+public interface BoardView {
+
+  /**
+   * Returns the number of rows of the board.
+   *
+   * @return the height of the board
+   */
+  int getHeight();
+
+  /**
+   * Returns the number of columns of the board.
+   *
+   * @return the width of the board
+   */
+  int getWidth();
+
+  /**
+   * Returns the current state of a cell.
+   *
+   * @param row the row index (0-based)
+   * @param col the column index (0-based)
+   * @return the state of the cell
+   * @throws IndexOutOfBoundsException if the cell is not on the board
+   */
+  CellState cellAt(int row, int col);
+
+  /**
+   * Returns the type of the ship covering a cell, as {@link BattleshipModel#getShipGrid()} would.
+   *
+   * @param row the row index (0-based)
+   * @param col the column index (0-based)
+   * @return the ship type, or null if no ship covers the cell
+   * @throws IndexOutOfBoundsException if the cell is not on the board
+   */
+  ShipType shipAt(int row, int col);
+}
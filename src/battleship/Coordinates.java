@@ -0,0 +1,60 @@
+package battleship;
+
+/**
+ * Static helpers for cells packed into a single int, row * width + col, the form the models,
+ * strategies and game records use internally instead of coordinate objects. Packed cells of a
+ * board are the consecutive ints 0 to height * width - 1, so they index flat arrays and bitsets
+ * directly.
+ */
+public final class Coordinates {
+
+  private Coordinates() {
+  }
+
+  /**
+   * Packs a coordinate into a cell.
+   *
+   * @param row   the row index (0-based)
+   * @param col   the column index (0-based)
+   * @param width width of the map
+   * @return the cell, row * width + col
+   */
+  public static int pack(int row, int col, int width) {
+    return row * width + col;
+  }
+
+  /**
+   * Returns the row of a cell.
+   *
+   * @param cell  the cell
+   * @param width width of the map
+   * @return the row index (0-based)
+   */
+  public static int row(int cell, int width) {
+    return cell / width;
+  }
+
+  /**
+   * Returns the column of a cell.
+   *
+   * @param cell  the cell
+   * @param width width of the map
+   * @return the column index (0-based)
+   */
+  public static int col(int cell, int width) {
+    return cell % width;
+  }
+
+  /**
+   * Checks whether a coordinate lies on a board.
+   *
+   * @param row    the row index
+   * @param col    the column index
+   * @param height height of the map
+   * @param width  width of the map
+   * @return true if the coordinate is on the board
+   */
+  public static boolean inBounds(int row, int col, int height, int width) {
+    return row >= 0 && row < height && col >= 0 && col < width;
+  }
+}
@@ -0,0 +1,398 @@
+package battleship;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * A strategy that fires at the cell covered by the most legal placements of the ships still
+ * afloat. A placement is legal while it covers no miss, and each placement through a known hit
+ * counts {@value #HIT_BONUS} times more per hit, so the strategy closes in on a ship once it has
+ * found it.
+ *
+ * <p>When a ship sinks, the hits of the shot that sank it are traced back to the ship: if a
+ * single placement of its size through that shot covers hits only, its cells stop counting as
+ * hits and block every other placement over them, like misses. If several placements could be
+ * the ship, its hits are kept until later shots tell them apart.
+ *
+ * <p>The density map is updated incrementally: a guess only revisits the placements that cover
+ * the guessed cell, and a sunk ship only the placements of its size. A tournament tree over the
+ * cells keeps the densest unguessed cell and how many cells share its density, so the next
+ * guess is found at the root and a tie is broken uniformly in one walk down. Before each guess,
+ * every cell changed since the last one climbs the tree once, only while it changes a subtree's
+ * best. Placement and cover tables are built once per board size and reused across games.
+ *
+ * <p>The strategy is also a {@link GameListener}: registered on the model it plays, it learns
+ * about each guess through {@link #onGuess} and about sunk ships through
+ * {@link #onShipSunk(ShipType)}.
+ */
+public class DensityGuessStrategy implements GuessStrategy, GameListener {
+
+  private static final int HIT_BONUS = 20;  // extra weight of a placement per hit it covers
+
+  private final ShipType[] fleet;  // ships at the start of each game
+  private int height;  // height of the map
+  private int width;  // width of the map
+
+  // tables, indexed by size slot, then by placement or cell
+  private int[] sizes = new int[0];  // distinct ship sizes
+  private int[][] starts;  // start cell of each placement, horizontal ones first
+  private int[] horizontalCounts;  // number of horizontal placements
+  private int[][] coverOffsets;  // covers[z][coverOffsets[z][c]..] are the placements over c
+  private int[][] covers;
+  private long[] initialDensity;  // density of an empty board
+  private int leaves;  // index of the first leaf of the tree, a power of two
+
+  // state of the current game
+  private int[] afloat;  // ships of each size not yet sunk
+  private boolean[][] dead;  // whether each placement covers a miss
+  private int[][] hits;  // number of hits covered by each placement
+  private long[] density;  // weighted number of placements over each cell
+  private boolean[] guessed;  // whether each cell has been guessed
+  private int lastHit;  // cell of the last hit, or -1
+  private long[] bestDensity;  // tree: highest density of an unguessed cell, else -1
+  private int[] bestCount;  // tree: number of unguessed cells with that density
+  private int[] changed;  // cells whose leaf is out of date, in the first changedCount entries
+  private int changedCount;
+  private boolean[] stale;  // whether each cell is in changed
+  private RandomGenerator random;
+
+  /**
+   * Constructor for a DensityGuessStrategy against the default fleet.
+   */
+  public DensityGuessStrategy() {
+    this(GameConfig.DEFAULT.getFleet());
+  }
+
+  /**
+   * Constructor for a DensityGuessStrategy against the given fleet.
+   *
+   * @param fleet the ships placed at the start of each game, one entry per ship
+   * @throws IllegalArgumentException if the fleet is null or empty
+   */
+  public DensityGuessStrategy(List<ShipType> fleet) throws IllegalArgumentException {
+    if (fleet == null || fleet.isEmpty()) {
+      throw new IllegalArgumentException("Fleet must contain at least one ship.");
+    }
+    this.fleet = fleet.toArray(new ShipType[0]);
+  }
+
+  @Override
+  public void newGame(int height, int width, RandomGenerator random) {
+    if (height != this.height || width != this.width || density == null) {
+      buildTables(height, width);
+    }
+    this.random = random;
+    Arrays.fill(afloat, 0);
+    for (ShipType type : fleet) {
+      afloat[sizeSlot(type.getSize())]++;
+    }
+    for (int z = 0; z < sizes.length; z++) {
+      Arrays.fill(dead[z], false);
+      Arrays.fill(hits[z], 0);
+    }
+    System.arraycopy(initialDensity, 0, density, 0, density.length);
+    Arrays.fill(guessed, false);
+    lastHit = -1;
+    Arrays.fill(stale, false);
+    changedCount = 0;
+    for (int c = 0; c < leaves; c++) {
+      bestDensity[leaves + c] = c < density.length ? density[c] : -1;
+      bestCount[leaves + c] = c < density.length ? 1 : 0;
+    }
+    for (int node = leaves - 1; node > 0; node--) {
+      pull(node);
+    }
+  }
+
+  /**
+   * Build the placement and cover tables of a board.
+   *
+   * @param height height of the map
+   * @param width  width of the map
+   */
+  private void buildTables(int height, int width) {
+    this.height = height;
+    this.width = width;
+    int cells = height * width;
+    sizes = Arrays.stream(fleet).mapToInt(ShipType::getSize).distinct().sorted().toArray();
+    starts = new int[sizes.length][];
+    horizontalCounts = new int[sizes.length];
+    coverOffsets = new int[sizes.length][];
+    covers = new int[sizes.length][];
+    afloat = new int[sizes.length];
+    dead = new boolean[sizes.length][];
+    hits = new int[sizes.length][];
+    density = new long[cells];
+    guessed = new boolean[cells];
+    leaves = Integer.highestOneBit(Math.max(1, cells - 1)) << 1;
+    bestDensity = new long[2 * leaves];
+    bestCount = new int[2 * leaves];
+    changed = new int[cells];
+    stale = new boolean[cells];
+
+    for (int z = 0; z < sizes.length; z++) {
+      int size = sizes[z];
+      int horizontal = width >= size ? height * (width - size + 1) : 0;
+      int vertical = height >= size ? (height - size + 1) * width : 0;
+      horizontalCounts[z] = horizontal;
+      starts[z] = new int[horizontal + vertical];
+      int p = 0;
+      for (int i = 0; i < height; i++) {
+        for (int j = 0; j + size <= width; j++) {
+          starts[z][p++] = i * width + j;
+        }
+      }
+      for (int i = 0; i + size <= height; i++) {
+        for (int j = 0; j < width; j++) {
+          starts[z][p++] = i * width + j;
+        }
+      }
+      dead[z] = new boolean[p];
+      hits[z] = new int[p];
+
+      // cover lists in compressed rows: count per cell, prefix sums, then fill
+      int[] offsets = new int[cells + 1];
+      for (int q = 0; q < p; q++) {
+        for (int k = 0, c = starts[z][q]; k < size; k++, c += step(z, q)) {
+          offsets[c + 1]++;
+        }
+      }
+      for (int c = 0; c < cells; c++) {
+        offsets[c + 1] += offsets[c];
+      }
+      int[] fill = Arrays.copyOf(offsets, cells);
+      covers[z] = new int[offsets[cells]];
+      for (int q = 0; q < p; q++) {
+        for (int k = 0, c = starts[z][q]; k < size; k++, c += step(z, q)) {
+          covers[z][fill[c]++] = q;
+        }
+      }
+      coverOffsets[z] = offsets;
+    }
+
+    initialDensity = new long[cells];
+    for (ShipType type : fleet) {
+      int z = sizeSlot(type.getSize());
+      for (int c = 0; c < cells; c++) {
+        initialDensity[c] += coverOffsets[z][c + 1] - coverOffsets[z][c];
+      }
+    }
+  }
+
+  /**
+   * Returns the slot of a ship size in the tables.
+   */
+  private int sizeSlot(int size) {
+    return Arrays.binarySearch(sizes, size);
+  }
+
+  /**
+   * Returns the distance between consecutive cells of a placement.
+   */
+  private int step(int z, int placement) {
+    return placement < horizontalCounts[z] ? 1 : width;
+  }
+
+  /**
+   * Returns the weight of a placement covering the given number of hits.
+   */
+  private static long weight(int hitCount) {
+    return 1 + (long) HIT_BONUS * hitCount;
+  }
+
+  /**
+   * Add a value to the density of every cell of a placement.
+   */
+  private void addToPlacement(int z, int placement, long delta) {
+    int step = step(z, placement);
+    for (int k = 0, c = starts[z][placement]; k < sizes[z]; k++, c += step) {
+      density[c] += delta;
+      markChanged(c);
+    }
+  }
+
+  /**
+   * Note that the leaf of a cell is out of date. A cell is covered by many placements, so its
+   * leaf is set once before the next guess rather than on every change.
+   */
+  private void markChanged(int cell) {
+    if (!stale[cell]) {
+      stale[cell] = true;
+      changed[changedCount++] = cell;
+    }
+  }
+
+  /**
+   * Recompute a node of the tree from its two children.
+   */
+  private void pull(int node) {
+    long left = bestDensity[2 * node];
+    long right = bestDensity[2 * node + 1];
+    bestDensity[node] = Math.max(left, right);
+    bestCount[node] = (left >= right ? bestCount[2 * node] : 0)
+        + (right >= left ? bestCount[2 * node + 1] : 0);
+  }
+
+  /**
+   * Set the density of a cell in the tree, -1 once it is guessed, and update the nodes above it
+   * up to the first one left unchanged.
+   */
+  private void setLeaf(int cell, long value) {
+    int node = leaves + cell;
+    bestDensity[node] = value;
+    bestCount[node] = value < 0 ? 0 : 1;
+    for (node >>>= 1; node > 0; node >>>= 1) {
+      long oldDensity = bestDensity[node];
+      int oldCount = bestCount[node];
+      pull(node);
+      if (bestDensity[node] == oldDensity && bestCount[node] == oldCount) {
+        break;
+      }
+    }
+  }
+
+  @Override
+  public int nextGuess() {
+    for (int i = 0; i < changedCount; i++) {
+      int cell = changed[i];
+      stale[cell] = false;
+      setLeaf(cell, guessed[cell] ? -1 : density[cell]);
+    }
+    changedCount = 0;
+    if (bestDensity[1] < 0) {
+      throw new IllegalStateException("Every cell has already been guessed.");
+    }
+    // walk down to the k-th densest cell, counting from the left
+    int k = random.nextInt(bestCount[1]);
+    int node = 1;
+    while (node < leaves) {
+      int left = 2 * node;
+      if (bestDensity[left] == bestDensity[node] && k < bestCount[left]) {
+        node = left;
+      } else {
+        if (bestDensity[left] == bestDensity[node]) {
+          k -= bestCount[left];
+        }
+        node = left + 1;
+      }
+    }
+    return node - leaves;
+  }
+
+  @Override
+  public void guessResult(int row, int col, boolean hit) {
+    int cell = row * width + col;
+    if (guessed[cell]) {
+      return;
+    }
+    guessed[cell] = true;
+    markChanged(cell);
+    if (!hit) {
+      block(cell);
+      return;
+    }
+    lastHit = cell;
+    for (int z = 0; z < sizes.length; z++) {
+      int ships = afloat[z];
+      for (int i = coverOffsets[z][cell]; i < coverOffsets[z][cell + 1]; i++) {
+        int p = covers[z][i];
+        if (!dead[z][p]) {
+          hits[z][p]++;
+          addToPlacement(z, p, (long) HIT_BONUS * ships);
+        }
+      }
+    }
+  }
+
+  /**
+   * Remove every live placement over a cell that no ship afloat can occupy.
+   */
+  private void block(int cell) {
+    for (int z = 0; z < sizes.length; z++) {
+      int ships = afloat[z];
+      for (int i = coverOffsets[z][cell]; i < coverOffsets[z][cell + 1]; i++) {
+        int p = covers[z][i];
+        if (!dead[z][p]) {
+          dead[z][p] = true;
+          addToPlacement(z, p, -weight(hits[z][p]) * ships);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void onGuess(int row, int col, boolean hit) {
+    // the model reports a sinking after the guess, before the player hears of its result
+    guessResult(row, col, hit);
+  }
+
+  /**
+   * Informs the strategy that the last hit sank a ship, removing the placements of one ship of
+   * that size from the density map, and the ship's cells from the hits if they can be told.
+   *
+   * @param type the type of the sunk ship
+   * @throws IllegalStateException if no ship of that size is still afloat
+   */
+  public void shipSunk(ShipType type) throws IllegalStateException {
+    int z = sizeSlot(type.getSize());
+    if (z < 0 || afloat[z] == 0) {
+      throw new IllegalStateException("No ship of size " + type.getSize() + " is afloat.");
+    }
+    int wreck = -1;  // the only placement through the last hit that is all hits, else -1
+    if (lastHit >= 0) {
+      for (int i = coverOffsets[z][lastHit]; i < coverOffsets[z][lastHit + 1]; i++) {
+        int p = covers[z][i];
+        if (!dead[z][p] && hits[z][p] == sizes[z]) {
+          wreck = wreck == -1 ? p : -2;
+        }
+      }
+    }
+    afloat[z]--;
+    for (int p = 0; p < starts[z].length; p++) {
+      if (!dead[z][p]) {
+        addToPlacement(z, p, -weight(hits[z][p]));
+      }
+    }
+    if (wreck >= 0) {
+      int step = step(z, wreck);
+      for (int k = 0, c = starts[z][wreck]; k < sizes[z]; k++, c += step) {
+        block(c);
+      }
+    }
+    lastHit = -1;
+  }
+
+  @Override
+  public void onShipSunk(ShipType type) {
+    shipSunk(type);
+  }
+
+  /**
+   * Brings the strategy up to date with a cell grid, as returned by
+   * {@link BattleshipModel#getCellGrid()}. Only cells guessed since the strategy last saw them are
+   * applied, so a player can poll the grid of a model it does not drive itself.
+   *
+   * @param cellGrid the current cell grid
+   */
+  public void observe(CellState[][] cellGrid) {
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        if (cellGrid[i][j] != CellState.UNKNOWN && !guessed[i * width + j]) {
+          guessResult(i, j, cellGrid[i][j] == CellState.HIT);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the current density of a cell.
+   *
+   * @param row the row index (0-based)
+   * @param col the column index (0-based)
+   * @return the weighted number of legal placements covering the cell
+   */
+  public long getDensity(int row, int col) {
+    return density[row * width + col];
+  }
+}
@@ -0,0 +1,262 @@
+package battleship;
+
+import java.util.function.LongFunction;
+
+/**
+ * Bounded least-recently-used cache from 64-bit fingerprints, such as those of
+ * {@link LayoutCanonicalizer}, to values computed once per key, such as per-layout statistics.
+ *
+ * <p>Keys are kept unboxed in an open-addressing table with linear probing, and the recency
+ * order is a doubly linked list threaded through int arrays, so a lookup that hits costs a few
+ * array reads and allocates nothing. When the cache is full, adding a key evicts the least
+ * recently used one. A cache is not thread-safe; share one between threads only under a lock.
+ *
+ * @param <V> the type of the values
+ */
+public class FingerprintCache<V> {
+
+  private static final int NONE = -1;  // no entry
+
+  private final int capacity;  // most entries held
+  private final long[] keys;  // key of each entry slot
+  private final Object[] values;  // value of each entry slot
+  private final int[] newer;  // next more recently used entry, or NONE
+  private final int[] older;  // next less recently used entry, or NONE
+  private final int[] table;  // entry slot + 1 of each hash bucket, 0 for empty
+  private final int mask;  // table length - 1
+  private int size;  // entries held
+  private int newest = NONE;  // most recently used entry
+  private int oldest = NONE;  // least recently used entry
+  private long hits;  // lookups that found their key
+  private long misses;  // lookups that did not
+
+  /**
+   * Constructor for a FingerprintCache.
+   *
+   * @param capacity most entries held
+   * @throws IllegalArgumentException if capacity is not positive or above 2^29
+   */
+  public FingerprintCache(int capacity) throws IllegalArgumentException {
+    if (capacity <= 0 || capacity > 1 << 29) {
+      throw new IllegalArgumentException("Capacity must be between 1 and 2^29.");
+    }
+    this.capacity = capacity;
+    this.keys = new long[capacity];
+    this.values = new Object[capacity];
+    this.newer = new int[capacity];
+    this.older = new int[capacity];
+    this.table = new int[Integer.highestOneBit(capacity) * 4];
+    this.mask = table.length - 1;
+  }
+
+  /**
+   * Returns the value of a key, marking it as the most recently used.
+   *
+   * @param key the fingerprint
+   * @return the value, or null if the key is not cached
+   */
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    int entry = find(key);
+    if (entry == NONE) {
+      misses++;
+      return null;
+    }
+    hits++;
+    touch(entry);
+    return (V) values[entry];
+  }
+
+  /**
+   * Returns the value of a key, computing and caching it first if the key is not cached.
+   *
+   * @param key    the fingerprint
+   * @param loader computes the value of a key
+   * @return the value
+   * @throws IllegalArgumentException if the loader returns null
+   */
+  @SuppressWarnings("unchecked")
+  public V computeIfAbsent(long key, LongFunction<? extends V> loader)
+      throws IllegalArgumentException {
+    int entry = find(key);
+    if (entry != NONE) {
+      hits++;
+      touch(entry);
+      return (V) values[entry];
+    }
+    misses++;
+    V value = loader.apply(key);
+    insert(key, value);
+    return value;
+  }
+
+  /**
+   * Caches a value, replacing the value of the key if it is already cached.
+   *
+   * @param key   the fingerprint
+   * @param value the value
+   * @throws IllegalArgumentException if value is null
+   */
+  public void put(long key, V value) throws IllegalArgumentException {
+    int entry = find(key);
+    if (entry != NONE) {
+      if (value == null) {
+        throw new IllegalArgumentException("Value cannot be null.");
+      }
+      values[entry] = value;
+      touch(entry);
+      return;
+    }
+    insert(key, value);
+  }
+
+  /**
+   * Returns whether a key is cached, without marking it as used.
+   *
+   * @param key the fingerprint
+   * @return true if the key is cached
+   */
+  public boolean containsKey(long key) {
+    return find(key) != NONE;
+  }
+
+  /**
+   * Returns the entry slot of a key, or NONE.
+   */
+  private int find(long key) {
+    for (int bucket = bucketOf(key); table[bucket] != 0; bucket = (bucket + 1) & mask) {
+      int entry = table[bucket] - 1;
+      if (keys[entry] == key) {
+        return entry;
+      }
+    }
+    return NONE;
+  }
+
+  /**
+   * Returns the first bucket to probe for a key. Fingerprints are already well mixed, but other
+   * keys may not be, so the high bits are folded in.
+   *
+   * @param key the fingerprint
+   * @return the home bucket of the key
+   */
+  int bucketOf(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h >>> 32) & mask;
+  }
+
+  /**
+   * Add a key that is not cached, evicting the least recently used entry if the cache is full.
+   */
+  private void insert(long key, V value) throws IllegalArgumentException {
+    if (value == null) {
+      throw new IllegalArgumentException("Value cannot be null.");
+    }
+    int entry;
+    if (size < capacity) {
+      entry = size++;
+    } else {
+      entry = oldest;
+      removeFromTable(entry);
+      unlink(entry);
+    }
+    keys[entry] = key;
+    values[entry] = value;
+    int bucket = bucketOf(key);
+    while (table[bucket] != 0) {
+      bucket = (bucket + 1) & mask;
+    }
+    table[bucket] = entry + 1;
+    linkNewest(entry);
+  }
+
+  /**
+   * Remove an entry from the hash table, shifting back the entries probed past it.
+   */
+  private void removeFromTable(int entry) {
+    int bucket = bucketOf(keys[entry]);
+    while (table[bucket] != entry + 1) {
+      bucket = (bucket + 1) & mask;
+    }
+    int hole = bucket;
+    for (int next = (hole + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+      int home = bucketOf(keys[table[next] - 1]);
+      // move the entry back if its home is not cyclically within (hole, next]
+      if (((next - home) & mask) >= ((next - hole) & mask)) {
+        table[hole] = table[next];
+        hole = next;
+      }
+    }
+    table[hole] = 0;
+  }
+
+  /**
+   * Make an entry the most recently used.
+   */
+  private void touch(int entry) {
+    if (entry != newest) {
+      unlink(entry);
+      linkNewest(entry);
+    }
+  }
+
+  private void unlink(int entry) {
+    if (newer[entry] != NONE) {
+      older[newer[entry]] = older[entry];
+    } else {
+      newest = older[entry];
+    }
+    if (older[entry] != NONE) {
+      newer[older[entry]] = newer[entry];
+    } else {
+      oldest = newer[entry];
+    }
+  }
+
+  private void linkNewest(int entry) {
+    newer[entry] = NONE;
+    older[entry] = newest;
+    if (newest != NONE) {
+      newer[newest] = entry;
+    } else {
+      oldest = entry;
+    }
+    newest = entry;
+  }
+
+  /**
+   * Returns the number of cached entries.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the most entries the cache holds.
+   *
+   * @return the capacity
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns the number of lookups that found their key.
+   *
+   * @return the number of hits
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of lookups that did not find their key.
+   *
+   * @return the number of misses
+   */
+  public long getMisses() {
+    return misses;
+  }
+}
@@ -0,0 +1,139 @@
+package battleship;
+
+import java.util.List;
+
+/**
+ * Immutable configuration of a game: board dimensions, guess limit, fleet and how the fleet is
+ * placed. The fleet is a multiset of ship types, so a configuration may hold several ships of one
+ * type.
+ */
+public final class GameConfig {
+
+  /**
+   * The largest number of cells a board may have.
+   */
+  public static final int MAX_CELLS = 1 << 24;
+
+  /**
+   * The classic game: a 10x10 board, 10 guesses and one ship of every type.
+   */
+  public static final GameConfig DEFAULT = new GameConfig(10, 10, 10, List.of(ShipType.values()));
+
+  private final int height;  // height of the map
+  private final int width;  // width of the map
+  private final int maxGuesses;  // maximum number of guesses
+  private final List<ShipType> fleet;  // ships placed at the start of each game
+  private final PlacementMode placementMode;  // how the fleet is placed
+
+  /**
+   * Constructor for a GameConfig whose ships are placed {@link PlacementMode#ORIENTATION_FIRST}.
+   *
+   * @param height     number of rows of the board
+   * @param width      number of columns of the board
+   * @param maxGuesses maximum number of guesses
+   * @param fleet      ships to place, one entry per ship
+   * @throws IllegalArgumentException if a dimension or the guess limit is not positive, the board
+   *                                  has more than {@link #MAX_CELLS} cells, the fleet is empty
+   *                                  or contains null, or the ships have more cells than the board
+   */
+  public GameConfig(int height, int width, int maxGuesses, List<ShipType> fleet)
+      throws IllegalArgumentException {
+    this(height, width, maxGuesses, fleet, PlacementMode.ORIENTATION_FIRST);
+  }
+
+  /**
+   * Constructor for a GameConfig.
+   *
+   * @param height     number of rows of the board
+   * @param width      number of columns of the board
+   * @param maxGuesses maximum number of guesses
+   * @param fleet      ships to place, one entry per ship
+   * @param mode       how the fleet is placed
+   * @throws IllegalArgumentException if a dimension or the guess limit is not positive, the board
+   *                                  has more than {@link #MAX_CELLS} cells, the fleet is empty
+   *                                  or contains null, the ships have more cells than the board,
+   *                                  or mode is null
+   */
+  public GameConfig(int height, int width, int maxGuesses, List<ShipType> fleet,
+                    PlacementMode mode) throws IllegalArgumentException {
+    if (height <= 0 || width <= 0 || (long) height * width > MAX_CELLS) {
+      throw new IllegalArgumentException(
+          "Board must be at least 1x1 and have at most " + MAX_CELLS + " cells.");
+    }
+    if (maxGuesses <= 0) {
+      throw new IllegalArgumentException("Maximum number of guesses must be positive.");
+    }
+    if (fleet == null || fleet.isEmpty()) {
+      throw new IllegalArgumentException("Fleet must contain at least one ship.");
+    }
+    long shipCells = 0;
+    for (ShipType type : fleet) {
+      if (type == null) {
+        throw new IllegalArgumentException("Fleet cannot contain null.");
+      }
+      shipCells += type.getSize();
+    }
+    if (shipCells > (long) height * width) {
+      throw new IllegalArgumentException("Fleet does not fit on the board.");
+    }
+    if (mode == null) {
+      throw new IllegalArgumentException("Placement mode cannot be null.");
+    }
+    this.height = height;
+    this.width = width;
+    this.maxGuesses = maxGuesses;
+    this.fleet = List.copyOf(fleet);
+    this.placementMode = mode;
+  }
+
+  /**
+   * Returns the number of rows of the board.
+   *
+   * @return the height of the board
+   */
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * Returns the number of columns of the board.
+   *
+   * @return the width of the board
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * Returns the maximum number of guesses.
+   *
+   * @return the maximum number of guesses
+   */
+  public int getMaxGuesses() {
+    return maxGuesses;
+  }
+
+  /**
+   * Returns the fleet, one entry per ship.
+   *
+   * @return an unmodifiable list of the ships' types
+   */
+  public List<ShipType> getFleet() {
+    return fleet;
+  }
+
+  /**
+   * Returns how the fleet is placed at the start of each game.
+   *
+   * @return the placement mode
+   */
+  public PlacementMode getPlacementMode() {
+    return placementMode;
+  }
+
+  @Override
+  public String toString() {
+    return height + "x" + width + ", " + maxGuesses + " guesses, fleet " + fleet + ", "
+        + placementMode;
+  }
+}
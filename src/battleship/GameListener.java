@@ -0,0 +1,59 @@
+package battleship;
+
+/**
+ * Receives the events of a game as they happen, so consumers do not have to poll the model after
+ * every guess. Events carry primitives and enum constants only, so dispatching them allocates
+ * nothing. For one guess the events arrive in this order: {@link #onGuess}, then {@link #onHit}
+ * or {@link #onMiss}, then {@link #onShipSunk} if the hit sank a ship, then {@link #onGameOver}
+ * if the guess ended the game.
+ *
+ * <p>Every method does nothing by default, so listeners only override the events they need.
+ * Listeners are called on the thread making the guess and should return quickly.
+ */
+public interface GameListener {
+
+  /**
+   * Called for every guess.
+   *
+   * @param row the row index (0-based)
+   * @param col the column index (0-based)
+   * @param hit true if the guess was a hit
+   */
+  default void onGuess(int row, int col, boolean hit) {
+  }
+
+  /**
+   * Called when a guess hits a ship.
+   *
+   * @param row the row index (0-based)
+   * @param col the column index (0-based)
+   */
+  default void onHit(int row, int col) {
+  }
+
+  /**
+   * Called when a guess misses.
+   *
+   * @param row the row index (0-based)
+   * @param col the column index (0-based)
+   */
+  default void onMiss(int row, int col) {
+  }
+
+  /**
+   * Called when a guess sinks a ship.
+   *
+   * @param type the type of the sunk ship
+   */
+  default void onShipSunk(ShipType type) {
+  }
+
+  /**
+   * Called when a guess ends the game.
+   *
+   * @param allShipsSunk true if every ship was sunk, false if the guesses ran out
+   * @param guessCount   the number of guesses made
+   */
+  default void onGameOver(boolean allShipsSunk, int guessCount) {
+  }
+}
@@ -0,0 +1,82 @@
+package battleship;
+
+import java.util.Arrays;
+
+/**
+ * The listeners registered on a model. The listeners are kept in an array that is replaced on
+ * every change, so dispatching an event is a plain loop that neither locks nor allocates, and a
+ * listener may add or remove listeners while an event is being dispatched.
+ */
+class GameListeners {
+
+  private GameListener[] listeners = new GameListener[0];
+
+  /**
+   * Register a listener.
+   *
+   * @param listener the listener
+   * @throws IllegalArgumentException if listener is null
+   */
+  void add(GameListener listener) throws IllegalArgumentException {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null.");
+    }
+    GameListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+    updated[listeners.length] = listener;
+    listeners = updated;
+  }
+
+  /**
+   * Unregister a listener. Does nothing if the listener is not registered.
+   *
+   * @param listener the listener
+   */
+  void remove(GameListener listener) {
+    for (int i = 0; i < listeners.length; i++) {
+      if (listeners[i] == listener) {
+        GameListener[] updated = new GameListener[listeners.length - 1];
+        System.arraycopy(listeners, 0, updated, 0, i);
+        System.arraycopy(listeners, i + 1, updated, i, listeners.length - i - 1);
+        listeners = updated;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns whether no listener is registered, so callers can skip preparing events.
+   */
+  boolean isEmpty() {
+    return listeners.length == 0;
+  }
+
+  /**
+   * Dispatch the events of one guess.
+   *
+   * @param row      the row index (0-based)
+   * @param col      the column index (0-based)
+   * @param hit      whether the guess was a hit
+   * @param sunk     the type of the ship the guess sank, or null
+   * @param gameOver whether the guess ended the game
+   * @param allSunk  whether every ship is sunk
+   * @param guesses  the number of guesses made
+   */
+  void fireGuess(int row, int col, boolean hit, ShipType sunk, boolean gameOver, boolean allSunk,
+                 int guesses) {
+    GameListener[] current = listeners;
+    for (GameListener listener : current) {
+      listener.onGuess(row, col, hit);
+      if (hit) {
+        listener.onHit(row, col);
+      } else {
+        listener.onMiss(row, col);
+      }
+      if (sunk != null) {
+        listener.onShipSunk(sunk);
+      }
+      if (gameOver) {
+        listener.onGameOver(allSunk, guesses);
+      }
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package battleship;
+
+/**
+ * Receives measurements of a model's hot paths: how long {@link BattleshipModel#startGame()}
+ * took to place the fleet and how many draws it rejected, and how long each guess took and what
+ * it hit. A model is given its metrics when it is built and calls them on the thread playing.
+ *
+ * <p>{@link #NOOP} is the default. Models skip reading the clock altogether when they are given
+ * it, so a model without metrics pays one predictable branch per call, and once the JIT sees
+ * that the calls do nothing they are inlined away.
+ */
+public interface GameMetrics {
+
+  /**
+   * Metrics that record nothing.
+   */
+  GameMetrics NOOP = new GameMetrics() {
+    @Override
+    public boolean isEnabled() {
+      return false;
+    }
+  };
+
+  /**
+   * Returns whether the model should measure its calls. Models read it once, when they are built.
+   *
+   * @return false to skip timing altogether
+   */
+  default boolean isEnabled() {
+    return true;
+  }
+
+  /**
+   * Called when {@link BattleshipModel#startGame()} has placed a new fleet.
+   *
+   * @param placementNanos time taken to reset the board and place the fleet, in nanoseconds
+   * @param retries        random placements rejected because they overlapped another ship or,
+   *                       in {@link PlacementMode#UNIFORM}, fleet draws started over
+   */
+  default void onGameStarted(long placementNanos, int retries) {
+  }
+
+  /**
+   * Called for every guess, after the model has been updated.
+   *
+   * @param guessNanos time taken by the guess, in nanoseconds
+   * @param hit        true if the guess was a hit
+   * @param sunk       true if the guess sank a ship
+   */
+  default void onGuess(long guessNanos, boolean hit, boolean sunk) {
+  }
+}
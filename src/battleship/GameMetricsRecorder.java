@@ -0,0 +1,121 @@
+package battleship;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics that count games, guesses, hits, sunk ships and placement retries, and keep latency
+ * histograms of fleet placement and guesses. Counters are striped, so one recorder can be shared
+ * by every model of a server and read at any time from a monitoring thread.
+ */
+public class GameMetricsRecorder implements GameMetrics {
+
+  private final LongAdder gamesStarted = new LongAdder();  // fleets placed by startGame
+  private final LongAdder guesses = new LongAdder();  // guesses made
+  private final LongAdder hits = new LongAdder();  // guesses that hit a ship
+  private final LongAdder sinks = new LongAdder();  // guesses that sank a ship
+  private final LongAdder placementRetries = new LongAdder();  // rejected placement draws
+  private final LatencyHistogram placementLatency = new LatencyHistogram();
+  private final LatencyHistogram guessLatency = new LatencyHistogram();
+
+  @Override
+  public void onGameStarted(long placementNanos, int retries) {
+    gamesStarted.increment();
+    placementRetries.add(retries);
+    placementLatency.record(placementNanos);
+  }
+
+  @Override
+  public void onGuess(long guessNanos, boolean hit, boolean sunk) {
+    guesses.increment();
+    if (hit) {
+      hits.increment();
+    }
+    if (sunk) {
+      sinks.increment();
+    }
+    guessLatency.record(guessNanos);
+  }
+
+  /**
+   * Returns the number of games started.
+   *
+   * @return the number of fleets placed by startGame
+   */
+  public long getGamesStarted() {
+    return gamesStarted.sum();
+  }
+
+  /**
+   * Returns the number of guesses made.
+   *
+   * @return the number of guesses
+   */
+  public long getGuesses() {
+    return guesses.sum();
+  }
+
+  /**
+   * Returns the number of guesses that hit a ship.
+   *
+   * @return the number of hits
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the number of guesses that sank a ship.
+   *
+   * @return the number of sunk ships
+   */
+  public long getSinks() {
+    return sinks.sum();
+  }
+
+  /**
+   * Returns the number of placement draws rejected while starting games.
+   *
+   * @return the number of retries
+   */
+  public long getPlacementRetries() {
+    return placementRetries.sum();
+  }
+
+  /**
+   * Returns the histogram of the time taken to place a fleet.
+   *
+   * @return the live histogram
+   */
+  public LatencyHistogram getPlacementLatency() {
+    return placementLatency;
+  }
+
+  /**
+   * Returns the histogram of the time taken by a guess.
+   *
+   * @return the live histogram
+   */
+  public LatencyHistogram getGuessLatency() {
+    return guessLatency;
+  }
+
+  /**
+   * Clears every counter and histogram.
+   */
+  public void reset() {
+    gamesStarted.reset();
+    guesses.reset();
+    hits.reset();
+    sinks.reset();
+    placementRetries.reset();
+    placementLatency.reset();
+    guessLatency.reset();
+  }
+
+  @Override
+  public String toString() {
+    return "games=" + getGamesStarted() + " guesses=" + getGuesses() + " hits=" + getHits()
+        + " sinks=" + getSinks() + " placementRetries=" + getPlacementRetries()
+        + "\nplacement: " + placementLatency + "\nguess: " + guessLatency;
+  }
+}
@@ -0,0 +1,207 @@
+package battleship;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads the games of a segment written by {@link GameRecordWriter}. The segment is memory-mapped
+ * and each call to {@link #next()} decodes one record into fields and arrays that are reused
+ * from record to record, so reading and replaying allocate nothing per game.
+ */
+public class GameRecordReader implements Closeable {
+
+  private static final ShipType[] TYPES = ShipType.values();
+
+  private final FileChannel channel;  // the segment
+  private final MappedByteBuffer buffer;  // the mapped segment, positioned at the next record
+
+  // the current record
+  private int height;  // height of the map
+  private int width;  // width of the map
+  private long seed;  // seed of the game
+  private ShipType[] types = new ShipType[0];  // type of each ship
+  private int[] layout = new int[0];  // packed placement of each ship
+  private int guessCount;  // number of guesses
+  private int guessOffset;  // position of the first guess in the buffer
+
+  /**
+   * Constructor for a GameRecordReader.
+   *
+   * @param segment the segment file
+   * @throws IOException if the file cannot be mapped or does not start with the segment header
+   */
+  public GameRecordReader(Path segment) throws IOException {
+    channel = FileChannel.open(segment, StandardOpenOption.READ);
+    try {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.remaining() < 4 || buffer.getInt() != GameRecordWriter.MAGIC) {
+        throw new IOException("Not a game record segment: " + segment);
+      }
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the segment files of a directory in the order they were written.
+   *
+   * @param directory directory of the segments
+   * @return the segment paths, empty if the directory does not exist
+   * @throws IOException if the directory cannot be listed
+   */
+  public static List<Path> segments(Path directory) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(p -> p.getFileName().toString().matches("games-\\d{6}\\.seg"))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Moves to the next record.
+   *
+   * @return true if a record was read, false at the end of the segment
+   * @throws IllegalStateException if the record is truncated or malformed
+   */
+  public boolean next() throws IllegalStateException {
+    if (!buffer.hasRemaining()) {
+      return false;
+    }
+    try {
+      height = Byte.toUnsignedInt(buffer.get());
+      width = Byte.toUnsignedInt(buffer.get());
+      int shipCount = Byte.toUnsignedInt(buffer.get());
+      if (height == 0 || width == 0 || height * width > 128) {
+        throw new IllegalStateException("Malformed game record at " + (buffer.position() - 3));
+      }
+      seed = buffer.getLong();
+      if (types.length != shipCount) {
+        types = new ShipType[shipCount];
+        layout = new int[shipCount];
+      }
+      for (int s = 0; s < shipCount; s++) {
+        int type = Byte.toUnsignedInt(buffer.get());
+        int place = Byte.toUnsignedInt(buffer.get());
+        if (type >= TYPES.length) {
+          throw new IllegalStateException("Unknown ship type " + type);
+        }
+        types[s] = TYPES[type];
+        layout[s] = ReplayableModel.pack(place & 0x7F, (place & 0x80) != 0);
+      }
+      guessCount = Short.toUnsignedInt(buffer.getShort());
+      guessOffset = buffer.position();
+      buffer.position(guessOffset + guessCount);
+    } catch (BufferUnderflowException | IllegalArgumentException e) {
+      throw new IllegalStateException("Truncated game record.", e);
+    }
+    return true;
+  }
+
+  /**
+   * Replays the current record into a model: starts a game with the recorded layout and makes the
+   * recorded guesses until the game is over.
+   *
+   * @param model the model, which must be one of this package's models with the recorded fleet
+   *              and board size
+   * @throws IllegalArgumentException if the model cannot replay games or does not match the record
+   */
+  public void replay(BattleshipModel model) throws IllegalArgumentException {
+    if (!(model instanceof ReplayableModel)) {
+      throw new IllegalArgumentException("Model cannot replay games: " + model.getClass());
+    }
+    BoardView view = model.getBoardView();
+    if (view.getHeight() != height || view.getWidth() != width) {
+      throw new IllegalArgumentException("Model board does not match the record.");
+    }
+    ((ReplayableModel) model).startGame(types, layout);
+    for (int i = 0; i < guessCount && !model.isGameOver(); i++) {
+      int cell = Byte.toUnsignedInt(buffer.get(guessOffset + i));
+      model.makeGuess(cell / width, cell % width);
+    }
+  }
+
+  /**
+   * Returns the height of the current record's board.
+   */
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * Returns the width of the current record's board.
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * Returns the seed of the current record.
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Returns the number of ships of the current record.
+   */
+  public int getShipCount() {
+    return types.length;
+  }
+
+  /**
+   * Returns the type of a ship of the current record.
+   *
+   * @param index the ship index
+   * @return the ship's type
+   */
+  public ShipType getShipType(int index) {
+    return types[index];
+  }
+
+  /**
+   * Returns the placement of a ship of the current record, packed as described in
+   * {@link LayoutVisitor#visit}.
+   *
+   * @param index the ship index
+   * @return the ship's start cell shifted left by one, with the low bit set if it is vertical
+   */
+  public int getShipPlacement(int index) {
+    return layout[index];
+  }
+
+  /**
+   * Returns the number of guesses of the current record.
+   */
+  public int getGuessCount() {
+    return guessCount;
+  }
+
+  /**
+   * Returns a guess of the current record.
+   *
+   * @param index the guess index
+   * @return the guessed cell, row * width + col
+   */
+  public int getGuess(int index) {
+    return Byte.toUnsignedInt(buffer.get(guessOffset + index));
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
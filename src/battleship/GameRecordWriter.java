@@ -0,0 +1,325 @@
+package battleship;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Appends games to segment files in a compact binary format, for boards of at most 128 cells.
+ *
+ * <p>A segment starts with the 4-byte {@link #MAGIC} and holds records back to back:
+ * <pre>
+ *   height      1 byte
+ *   width       1 byte
+ *   ship count  1 byte (n)
+ *   seed        8 bytes
+ *   ships       n * 2 bytes: type ordinal, then start cell with bit 7 set if vertical
+ *   guess count 2 bytes, unsigned (g)
+ *   guesses     g bytes: cell row * width + col
+ * </pre>
+ * A classic game of 10 guesses therefore takes 35 bytes. Segments are named
+ * {@code games-000000.seg}, {@code games-000001.seg}, ... and a new one is started once the
+ * current one would grow past the segment size; a record is never split across segments.
+ * Records are staged in a reused buffer, so appending does not allocate.
+ */
+public class GameRecordWriter implements Closeable {
+
+  /**
+   * First four bytes of every segment file.
+   */
+  public static final int MAGIC = 0x42535231;  // "BSR1"
+
+  private static final int BUFFER_SIZE = 1 << 17;  // holds the largest record
+
+  private final Path directory;  // directory holding the segments
+  private final long segmentSize;  // size past which a new segment is started
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+  private FileChannel channel;  // current segment, null before the first record
+  private int segmentIndex = -1;  // number of the current segment
+  private long segmentBytes;  // bytes of the current segment, buffered ones included
+
+  // scratch space to decode a ship grid
+  private boolean[] assigned = new boolean[0];  // whether each cell belongs to a decoded ship
+  private final int[] shipTypes = new int[128];  // type ordinal of each decoded ship
+  private final int[] shipPlaces = new int[128];  // start | 0x80 if vertical of each decoded ship
+
+  /**
+   * Constructor for a GameRecordWriter. Segments are numbered after the last one already in the
+   * directory, so a new writer never overwrites earlier records.
+   *
+   * @param directory   directory of the segments, created if missing
+   * @param segmentSize size in bytes past which a new segment is started
+   * @throws IOException              if the directory cannot be created or listed
+   * @throws IllegalArgumentException if the segment size is not positive
+   */
+  public GameRecordWriter(Path directory, long segmentSize)
+      throws IOException, IllegalArgumentException {
+    if (segmentSize <= 0) {
+      throw new IllegalArgumentException("Segment size must be positive.");
+    }
+    this.directory = Files.createDirectories(directory);
+    this.segmentSize = segmentSize;
+    for (Path segment : GameRecordReader.segments(directory)) {
+      String name = segment.getFileName().toString();
+      segmentIndex = Math.max(segmentIndex, Integer.parseInt(name.substring(6, 12)));
+    }
+  }
+
+  /**
+   * Returns the name of a segment file.
+   *
+   * @param index the segment number
+   * @return the file name
+   */
+  static String segmentName(int index) {
+    return String.format("games-%06d.seg", index);
+  }
+
+  /**
+   * Appends a game.
+   *
+   * @param seed       seed of the game, as chosen by the caller
+   * @param shipGrid   ship grid of the game, as returned by {@link BattleshipModel#getShipGrid()}
+   * @param guessCells cell row * width + col of each guess, in order
+   * @param guessCount number of guesses
+   * @throws IOException              if the segment cannot be written
+   * @throws IllegalArgumentException if the board has more than 128 cells, the guesses are out of
+   *                                  bounds or too many, or the grid is not made of straight ships
+   */
+  public void append(long seed, ShipType[][] shipGrid, int[] guessCells, int guessCount)
+      throws IOException, IllegalArgumentException {
+    int height = shipGrid.length;
+    int width = height == 0 ? 0 : shipGrid[0].length;
+    checkGame(height, width, guessCells, guessCount);
+    int shipCount = decodeShips(shipGrid, height, width);
+    write(seed, height, width, shipCount, guessCells, guessCount);
+  }
+
+  /**
+   * Appends a game given its layout, as {@link LayoutSpace} samples it and
+   * {@link ReplayableModel#startGame(ShipType[], int[])} takes it. Unlike a ship grid, a layout
+   * needs no decoding.
+   *
+   * @param seed       seed of the game, as chosen by the caller
+   * @param height     height of the map
+   * @param width      width of the map
+   * @param types      the type of each ship
+   * @param layout     the placement of each ship, packed by {@link ReplayableModel#pack}
+   * @param guessCells cell row * width + col of each guess, in order
+   * @param guessCount number of guesses
+   * @throws IOException              if the segment cannot be written
+   * @throws IllegalArgumentException if the board has more than 128 cells, the guesses are out of
+   *                                  bounds or too many, or the ships are too many, off the board
+   *                                  or overlapping
+   */
+  public void append(long seed, int height, int width, ShipType[] types, int[] layout,
+                     int[] guessCells, int guessCount)
+      throws IOException, IllegalArgumentException {
+    checkGame(height, width, guessCells, guessCount);
+    if (types.length != layout.length || types.length > shipTypes.length) {
+      throw new IllegalArgumentException("Layout does not match its ship types.");
+    }
+    long occupiedLo = 0;  // cells of the ships so far
+    long occupiedHi = 0;
+    for (int s = 0; s < types.length; s++) {
+      int start = ReplayableModel.start(layout[s]);
+      boolean isVertical = ReplayableModel.isVertical(layout[s]);
+      int size = types[s].getSize();
+      int step = isVertical ? width : 1;
+      if (start >= height * width
+          || (isVertical ? start / width + size > height : start % width + size > width)) {
+        throw new IllegalArgumentException("Illegal place for ship " + types[s]);
+      }
+      for (int k = 0, c = start; k < size; k++, c += step) {
+        long bit = 1L << c;
+        if (((c < 64 ? occupiedLo : occupiedHi) & bit) != 0) {
+          throw new IllegalArgumentException("Illegal place for ship " + types[s]);
+        }
+        if (c < 64) {
+          occupiedLo |= bit;
+        } else {
+          occupiedHi |= bit;
+        }
+      }
+      shipTypes[s] = types[s].ordinal();
+      shipPlaces[s] = start | (isVertical ? 0x80 : 0);
+    }
+    write(seed, height, width, types.length, guessCells, guessCount);
+  }
+
+  /**
+   * Check the board size and guesses of a game.
+   *
+   * @throws IllegalArgumentException if the board has more than 128 cells, or the guesses are out
+   *                                  of bounds or too many
+   */
+  private static void checkGame(int height, int width, int[] guessCells, int guessCount)
+      throws IllegalArgumentException {
+    if (height <= 0 || width <= 0 || height * width > 128) {
+      throw new IllegalArgumentException("Board must have between 1 and 128 cells.");
+    }
+    if (guessCount < 0 || guessCount > 0xFFFF || guessCount > guessCells.length) {
+      throw new IllegalArgumentException("Illegal guess count: " + guessCount);
+    }
+    for (int i = 0; i < guessCount; i++) {
+      if (guessCells[i] < 0 || guessCells[i] >= height * width) {
+        throw new IllegalArgumentException("Guess out of bounds: " + guessCells[i]);
+      }
+    }
+  }
+
+  /**
+   * Append a checked record whose ships are in the scratch arrays.
+   */
+  private void write(long seed, int height, int width, int shipCount, int[] guessCells,
+                     int guessCount) throws IOException {
+    int recordSize = 3 + 8 + 2 * shipCount + 2 + guessCount;
+    if (channel == null || (segmentBytes > 4 && segmentBytes + recordSize > segmentSize)) {
+      nextSegment();
+    }
+    if (buffer.remaining() < recordSize) {
+      drain();
+    }
+    buffer.put((byte) height).put((byte) width).put((byte) shipCount).putLong(seed);
+    for (int s = 0; s < shipCount; s++) {
+      buffer.put((byte) shipTypes[s]).put((byte) shipPlaces[s]);
+    }
+    buffer.putShort((short) guessCount);
+    for (int i = 0; i < guessCount; i++) {
+      buffer.put((byte) guessCells[i]);
+    }
+    segmentBytes += recordSize;
+  }
+
+  /**
+   * Split a ship grid into straight ships, scanning cells row by row and trying at each unclaimed
+   * ship cell a horizontal then a vertical ship, backtracking when the rest cannot be split.
+   * Ships of one type lying side by side may come out split the other way, which covers the same
+   * cells.
+   *
+   * @return the number of ships
+   * @throws IllegalArgumentException if the grid cannot be split into straight ships
+   */
+  private int decodeShips(ShipType[][] shipGrid, int height, int width)
+      throws IllegalArgumentException {
+    if (assigned.length != height * width) {
+      assigned = new boolean[height * width];
+    } else {
+      Arrays.fill(assigned, false);
+    }
+    int count = decodeFrom(shipGrid, height, width, 0, 0);
+    if (count < 0) {
+      throw new IllegalArgumentException("Ship grid is not made of straight ships.");
+    }
+    return count;
+  }
+
+  /**
+   * Split the unclaimed ship cells from a cell on, given the number of ships found so far.
+   *
+   * @return the total number of ships, or -1 if the cells cannot be split
+   */
+  private int decodeFrom(ShipType[][] shipGrid, int height, int width, int cell, int count) {
+    while (cell < height * width
+        && (assigned[cell] || shipGrid[cell / width][cell % width] == null)) {
+      cell++;
+    }
+    if (cell == height * width) {
+      return count;
+    }
+    if (count == shipTypes.length) {
+      return -1;
+    }
+    ShipType type = shipGrid[cell / width][cell % width];
+    for (int vertical = 0; vertical < 2; vertical++) {
+      int step = vertical == 1 ? width : 1;
+      if (!claim(shipGrid, height, width, cell, step, type, true)) {
+        continue;
+      }
+      shipTypes[count] = type.ordinal();
+      shipPlaces[count] = cell | (vertical << 7);
+      int total = decodeFrom(shipGrid, height, width, cell + 1, count + 1);
+      if (total >= 0) {
+        return total;
+      }
+      claim(shipGrid, height, width, cell, step, type, false);
+    }
+    return -1;
+  }
+
+  /**
+   * Claim or release the cells of a ship. Claiming fails, leaving the cells as they were, if the
+   * ship would leave the board or cross a cell that is claimed or of another type.
+   *
+   * @return true if the cells were updated
+   */
+  private boolean claim(ShipType[][] shipGrid, int height, int width, int start, int step,
+                        ShipType type, boolean claim) {
+    int size = type.getSize();
+    if (claim) {
+      if (step == 1 ? start % width + size > width : start / width + size > height) {
+        return false;
+      }
+      for (int k = 0, c = start; k < size; k++, c += step) {
+        if (assigned[c] || shipGrid[c / width][c % width] != type) {
+          return false;
+        }
+      }
+    }
+    for (int k = 0, c = start; k < size; k++, c += step) {
+      assigned[c] = claim;
+    }
+    return true;
+  }
+
+  /**
+   * Close the current segment and start the next one.
+   */
+  private void nextSegment() throws IOException {
+    if (channel != null) {
+      drain();
+      channel.close();
+    }
+    segmentIndex++;
+    channel = FileChannel.open(directory.resolve(segmentName(segmentIndex)),
+        StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    buffer.putInt(MAGIC);
+    segmentBytes = 4;
+  }
+
+  /**
+   * Write the buffered bytes to the current segment.
+   */
+  private void drain() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Writes the buffered records to the current segment.
+   *
+   * @throws IOException if the segment cannot be written
+   */
+  public void flush() throws IOException {
+    if (channel != null) {
+      drain();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (channel != null) {
+      drain();
+      channel.close();
+      channel = null;
+    }
+  }
+}
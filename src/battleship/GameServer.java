@@ -0,0 +1,615 @@
+package battleship;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking TCP server hosting one game per connection, for many players at once.
+ *
+ * <p>Clients send ASCII lines ending with {@code \n} and get one line back for each:
+ * <pre>
+ *   NEW          OK height width maxGuesses     starts a new game, ending the previous one
+ *   G row col    HIT guesses | MISS guesses     makes a guess, 0-based; the reply ends with
+ *                                               " WON" or " LOST" if the guess ended the game
+ *   B            BOARD cells                    one symbol per cell, row by row: _ H M
+ *   Q            BYE                            the server then closes the connection
+ * </pre>
+ * A request that fails gets {@code ERR message}. Requests may be pipelined; replies come back in
+ * order.
+ *
+ * <p>A few event loops, each a thread with its own selector, share the connections, and the
+ * games live in a {@link GameSessionRegistry}. Each connection has a request buffer of
+ * {@value #MAX_LINE} bytes and a reply buffer of {@value #REPLY_BUFFER} bytes, whatever the
+ * board size: a longer board is written in pieces as the client reads it. While a client does
+ * not read its replies, the server stops reading its requests, so a slow client costs a fixed
+ * amount of memory. Sessions idle for longer than the idle timeout are evicted, after which their
+ * connection gets an error until it sends NEW. When accepting fails, for instance because the
+ * process is out of file descriptors, the server stops accepting for
+ * {@value #ACCEPT_BACKOFF_MILLIS} ms or until a connection closes, instead of retrying at once.
+ */
+public class GameServer implements Closeable {
+
+  /**
+   * Longest request line, line break included.
+   */
+  public static final int MAX_LINE = 64;
+
+  private static final long EVICTION_INTERVAL_MILLIS = 1000;  // time between idle evictions
+  private static final long ACCEPT_BACKOFF_MILLIS = 100;  // pause in accepting after a failure
+  private static final int MAX_ERROR = 200;  // longest error message sent
+  private static final int REPLY_BUFFER = 8192;  // bytes of the reply buffer of a connection
+  private static final byte[] OK = ascii("OK ");
+  private static final byte[] HIT = ascii("HIT ");
+  private static final byte[] MISS = ascii("MISS ");
+  private static final byte[] WON = ascii(" WON");
+  private static final byte[] LOST = ascii(" LOST");
+  private static final byte[] BOARD = ascii("BOARD ");
+  private static final byte[] BYE = ascii("BYE");
+  private static final byte[] ERR = ascii("ERR ");
+  private static final byte[] NEW_COMMAND = ascii("NEW");
+  private static final int MAX_REPLY = ERR.length + MAX_ERROR + 1;  // longest but for BOARD
+  private static final byte[] CELL_SYMBOLS = new byte[CellState.values().length];  // by ordinal
+
+  static {
+    for (CellState state : CellState.values()) {
+      CELL_SYMBOLS[state.ordinal()] = (byte) state.getSymbol().charAt(0);
+    }
+  }
+
+  private final GameConfig config;  // the game every session plays
+  private final GameSessionRegistry registry;  // the games of the connections
+  private final EventLoop[] loops;  // the first one also accepts connections
+  private final AtomicInteger connectionCount = new AtomicInteger();  // open connections
+  private ServerSocketChannel serverChannel;  // listening socket, null before start
+  private int nextLoop;  // loop given the next accepted connection, used by the first loop
+  private volatile boolean acceptPaused;  // whether accepting stopped after a failure
+  private volatile boolean running;  // cleared by close
+
+  /**
+   * Constructor for a GameServer. Games are played on the bitboard engine when the board has at
+   * most 128 cells, else on {@link BattleshipModelImpl}.
+   *
+   * @param config           the game of every session
+   * @param maxSessions      most games hosted at once
+   * @param idleTimeoutNanos idle time in nanoseconds after which a game may be evicted
+   * @param loopCount        number of event loop threads
+   * @throws IllegalArgumentException if config is null, or a limit or the loop count is not
+   *                                  positive
+   */
+  public GameServer(GameConfig config, int maxSessions, long idleTimeoutNanos, int loopCount)
+      throws IllegalArgumentException {
+    if (config == null) {
+      throw new IllegalArgumentException("Game configuration cannot be null.");
+    }
+    if (loopCount <= 0) {
+      throw new IllegalArgumentException("Loop count must be positive.");
+    }
+    boolean bitboard = config.getHeight() * config.getWidth() <= 128;
+    this.config = config;
+    this.registry = new GameSessionRegistry(() -> bitboard
+        ? new BitboardBattleshipModel(config, new SplittableRandom())
+        : new BattleshipModelImpl(config, new SplittableRandom()),
+        maxSessions, idleTimeoutNanos);
+    this.loops = new EventLoop[loopCount];
+  }
+
+  /**
+   * Encode a constant string.
+   */
+  private static byte[] ascii(String text) {
+    return text.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * Binds the server and starts its event loops.
+   *
+   * @param address the address to listen on, with port 0 for any free port
+   * @return the address the server listens on
+   * @throws IOException           if the address cannot be bound
+   * @throws IllegalStateException if the server has already been started
+   */
+  public synchronized InetSocketAddress start(InetSocketAddress address)
+      throws IOException, IllegalStateException {
+    if (serverChannel != null) {
+      throw new IllegalStateException("Server already started.");
+    }
+    serverChannel = ServerSocketChannel.open();
+    try {
+      serverChannel.bind(address, 1024);
+      serverChannel.configureBlocking(false);
+      for (int i = 0; i < loops.length; i++) {
+        loops[i] = new EventLoop(Selector.open());
+      }
+      serverChannel.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+    } catch (IOException e) {
+      serverChannel.close();
+      for (EventLoop loop : loops) {
+        if (loop != null) {
+          loop.selector.close();
+        }
+      }
+      throw e;
+    }
+    running = true;
+    for (int i = 0; i < loops.length; i++) {
+      Thread thread = new Thread(loops[i], "game-server-" + i);
+      loops[i].thread = thread;
+      thread.start();
+    }
+    return (InetSocketAddress) serverChannel.getLocalAddress();
+  }
+
+  /**
+   * Stops the event loops, closing every connection and ending their games.
+   *
+   * @throws IOException if the listening socket cannot be closed
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (!running) {
+      return;
+    }
+    running = false;
+    for (EventLoop loop : loops) {
+      loop.selector.wakeup();
+    }
+    for (EventLoop loop : loops) {
+      try {
+        loop.thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    serverChannel.close();
+  }
+
+  /**
+   * Returns the number of open connections.
+   *
+   * @return the number of connections
+   */
+  public int getConnectionCount() {
+    return connectionCount.get();
+  }
+
+  /**
+   * Returns the number of games being played.
+   *
+   * @return the number of sessions
+   */
+  public int getSessionCount() {
+    return registry.size();
+  }
+
+  /**
+   * A thread serving the connections registered with its selector.
+   */
+  private final class EventLoop implements Runnable {
+    private final Selector selector;
+    private final ConcurrentLinkedQueue<SocketChannel> accepted =
+        new ConcurrentLinkedQueue<>();  // connections handed over by the first loop
+    private Thread thread;
+    private long acceptResume;  // when to accept again after a failure, used by the first loop
+
+    private EventLoop(Selector selector) {
+      this.selector = selector;
+    }
+
+    @Override
+    public void run() {
+      long lastEviction = System.nanoTime();
+      try {
+        while (running) {
+          selector.select(acceptPaused ? ACCEPT_BACKOFF_MILLIS : EVICTION_INTERVAL_MILLIS);
+          Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+          while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (key.isValid() && key.isAcceptable()) {
+              accept(key);
+            } else if (key.isValid()) {
+              ((Connection) key.attachment()).serve(key);
+            }
+          }
+          registerAccepted();
+          long now = System.nanoTime();
+          if (this == loops[0]) {
+            resumeAccept(now);
+          }
+          if (this == loops[0]
+              && now - lastEviction >= TimeUnit.MILLISECONDS.toNanos(EVICTION_INTERVAL_MILLIS)) {
+            registry.evictIdle();
+            lastEviction = now;
+          }
+        }
+      } catch (IOException e) {
+        // the selector failed; the connections of this loop are closed below
+      } finally {
+        for (SelectionKey key : selector.keys()) {
+          if (key.attachment() instanceof Connection) {
+            ((Connection) key.attachment()).close();
+          }
+        }
+        SocketChannel channel;
+        while ((channel = accepted.poll()) != null) {
+          closeQuietly(channel);
+        }
+        closeQuietly(selector);
+      }
+    }
+
+    /**
+     * Accept the pending connections and hand them to the loops in turn. A failure, such as
+     * running out of file descriptors, would fail again at once, so it pauses accepting and
+     * leaves the rest pending.
+     */
+    private void accept(SelectionKey key) {
+      SocketChannel channel;
+      while (true) {
+        try {
+          channel = serverChannel.accept();
+        } catch (IOException e) {
+          key.interestOps(0);
+          acceptResume = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ACCEPT_BACKOFF_MILLIS);
+          acceptPaused = true;
+          return;
+        }
+        if (channel == null) {
+          return;
+        }
+        EventLoop loop = loops[nextLoop];
+        nextLoop = (nextLoop + 1) % loops.length;
+        connectionCount.incrementAndGet();
+        loop.accepted.add(channel);
+        if (loop != this) {
+          loop.selector.wakeup();
+        }
+      }
+    }
+
+    /**
+     * Accept again once the pause after a failure is over, or a connection has closed and
+     * cleared it.
+     */
+    private void resumeAccept(long now) {
+      SelectionKey key = serverChannel.keyFor(selector);
+      if (key.interestOps() == 0 && (!acceptPaused || now - acceptResume >= 0)) {
+        acceptPaused = false;
+        key.interestOps(SelectionKey.OP_ACCEPT);
+      }
+    }
+
+    /**
+     * Register the connections handed over since the last select.
+     */
+    private void registerAccepted() {
+      SocketChannel channel;
+      while ((channel = accepted.poll()) != null) {
+        try {
+          channel.configureBlocking(false);
+          channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+          channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+        } catch (IOException e) {
+          connectionCount.decrementAndGet();
+          closeQuietly(channel);
+        }
+      }
+    }
+  }
+
+  /**
+   * Close a channel or selector, ignoring failures.
+   */
+  private static void closeQuietly(Closeable closeable) {
+    try {
+      closeable.close();
+    } catch (IOException e) {
+      // nothing more can be done with it
+    }
+  }
+
+  /**
+   * A client connection and its game. Only its event loop touches it.
+   */
+  private final class Connection {
+    private final SocketChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocate(MAX_LINE);  // unread requests
+    private final ByteBuffer out = ByteBuffer.allocate(REPLY_BUFFER);  // unsent replies
+    private SelectionKey key;  // key of the channel, set when first served
+    private GameSnapshot board;  // board being written, or null
+    private int boardCell;  // next cell of the board to write
+    private long session = -1;  // id of the game, or -1 before NEW
+    private boolean closing;  // whether to close once the replies are sent
+    private boolean closed;
+
+    private Connection(SocketChannel channel) {
+      this.channel = channel;
+    }
+
+    /**
+     * Read the requests that arrived, answer them and send the replies the channel takes.
+     * While replies are waiting to be sent, requests are not read.
+     */
+    private void serve(SelectionKey key) {
+      this.key = key;
+      try {
+        if (key.isReadable() && channel.read(in) < 0) {
+          close();
+          return;
+        }
+        do {
+          send();
+          putBoard();
+          answer();
+          send();
+        } while (out.position() == 0 && !closing && (board != null || hasLine()));
+      } catch (IOException e) {
+        close();
+        return;
+      }
+      if (out.position() > 0) {
+        key.interestOps(SelectionKey.OP_WRITE);
+      } else if (closing) {
+        close();
+      } else {
+        key.interestOps(SelectionKey.OP_READ);
+      }
+    }
+
+    /**
+     * Write the pending replies the channel takes.
+     */
+    private void send() throws IOException {
+      if (out.position() == 0) {
+        return;
+      }
+      out.flip();
+      channel.write(out);
+      out.compact();
+    }
+
+    /**
+     * Returns whether a complete request line is waiting.
+     */
+    private boolean hasLine() {
+      for (int i = 0; i < in.position(); i++) {
+        if (in.get(i) == '\n') {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Answer the complete request lines while there is room for their replies.
+     */
+    private void answer() {
+      in.flip();
+      while (!closing && board == null && out.remaining() >= MAX_REPLY) {
+        int end = in.position();
+        while (end < in.limit() && in.get(end) != '\n') {
+          end++;
+        }
+        if (end == in.limit()) {
+          if (in.remaining() == in.capacity()) {
+            error("Request too long.");
+            closing = true;
+          }
+          break;
+        }
+        int lineEnd = end > in.position() && in.get(end - 1) == '\r' ? end - 1 : end;
+        handle(in.position(), lineEnd);
+        in.position(end + 1);
+      }
+      in.compact();
+    }
+
+    /**
+     * Answer one request.
+     */
+    private void handle(int start, int end) {
+      if (end - start == 1 && in.get(start) == 'B') {
+        board();
+      } else if (end - start == 1 && in.get(start) == 'Q') {
+        out.put(BYE).put((byte) '\n');
+        closing = true;
+      } else if (end - start > 1 && in.get(start) == 'G' && in.get(start + 1) == ' ') {
+        guess(start + 2, end);
+      } else if (isNew(start, end)) {
+        newGame();
+      } else {
+        error("Unknown request.");
+      }
+    }
+
+    /**
+     * Returns whether a request is NEW.
+     */
+    private boolean isNew(int start, int end) {
+      if (end - start != NEW_COMMAND.length) {
+        return false;
+      }
+      for (int i = 0; i < NEW_COMMAND.length; i++) {
+        if (in.get(start + i) != NEW_COMMAND[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private void newGame() {
+      endGame();
+      try {
+        session = registry.createSession();
+      } catch (IllegalStateException e) {
+        error(e.getMessage());
+        return;
+      }
+      out.put(OK);
+      putInt(config.getHeight());
+      out.put((byte) ' ');
+      putInt(config.getWidth());
+      out.put((byte) ' ');
+      putInt(config.getMaxGuesses());
+      out.put((byte) '\n');
+    }
+
+    /**
+     * Make the guess whose row and column are between start and end.
+     */
+    private void guess(int start, int end) {
+      int space = start;
+      while (space < end && in.get(space) != ' ') {
+        space++;
+      }
+      int row = parseInt(start, space);
+      int col = space < end ? parseInt(space + 1, end) : -1;
+      if (row < 0 || col < 0) {
+        error("Expected G row col.");
+        return;
+      }
+      if (session < 0) {
+        error("No game, send NEW first.");
+        return;
+      }
+      GameSnapshot snapshot;
+      try {
+        // one lock for both, so the reply reflects this guess and no later one
+        snapshot = registry.withSession(session, model -> {
+          model.makeGuess(row, col);
+          return model.getSnapshot();
+        });
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        error(e.getMessage());
+        return;
+      }
+      out.put(snapshot.cellAt(row, col) == CellState.HIT ? HIT : MISS);
+      putInt(snapshot.getGuessCount());
+      if (snapshot.isGameOver()) {
+        out.put(snapshot.areAllShipsSunk() ? WON : LOST);
+      }
+      out.put((byte) '\n');
+    }
+
+    private void board() {
+      if (session < 0) {
+        error("No game, send NEW first.");
+        return;
+      }
+      GameSnapshot snapshot;
+      try {
+        snapshot = registry.withSession(session, BattleshipModel::getSnapshot);
+      } catch (IllegalArgumentException e) {
+        error(e.getMessage());
+        return;
+      }
+      out.put(BOARD);
+      board = snapshot;
+      boardCell = 0;
+      putBoard();
+    }
+
+    /**
+     * Append as much of the board being written as the replies have room for.
+     */
+    private void putBoard() {
+      if (board == null) {
+        return;
+      }
+      int width = board.getWidth();
+      int cells = board.getHeight() * width;
+      while (boardCell < cells && out.hasRemaining()) {
+        out.put(CELL_SYMBOLS[board.cellAt(boardCell / width, boardCell % width).ordinal()]);
+        boardCell++;
+      }
+      if (boardCell == cells && out.hasRemaining()) {
+        out.put((byte) '\n');
+        board = null;
+      }
+    }
+
+    /**
+     * Returns the number written in decimal between start and end, or -1 if there is none or it
+     * has more than 9 digits.
+     */
+    private int parseInt(int start, int end) {
+      if (start == end || end - start > 9) {
+        return -1;
+      }
+      int value = 0;
+      for (int i = start; i < end; i++) {
+        int digit = in.get(i) - '0';
+        if (digit < 0 || digit > 9) {
+          return -1;
+        }
+        value = value * 10 + digit;
+      }
+      return value;
+    }
+
+    /**
+     * Append the decimal digits of a non-negative number to the replies.
+     */
+    private void putInt(int value) {
+      int digits = 1;
+      for (int v = value; v >= 10; v /= 10) {
+        digits++;
+      }
+      int end = out.position() + digits;
+      for (int p = end - 1; p >= out.position(); p--) {
+        out.put(p, (byte) ('0' + value % 10));
+        value /= 10;
+      }
+      out.position(end);
+    }
+
+    private void error(String message) {
+      byte[] text = String.valueOf(message).getBytes(StandardCharsets.US_ASCII);
+      out.put(ERR).put(text, 0, Math.min(text.length, MAX_ERROR)).put((byte) '\n');
+    }
+
+    /**
+     * End the game of the connection, if any.
+     */
+    private void endGame() {
+      if (session >= 0) {
+        registry.removeSession(session);
+        session = -1;
+      }
+    }
+
+    /**
+     * Close the connection and end its game.
+     */
+    private void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      endGame();
+      if (key != null) {
+        key.cancel();
+      }
+      closeQuietly(channel);
+      connectionCount.decrementAndGet();
+      if (acceptPaused) {
+        acceptPaused = false;  // a file descriptor is free again
+        loops[0].selector.wakeup();
+      }
+    }
+  }
+}
@@ -0,0 +1,278 @@
+package battleship;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe registry of live games for a server hosting many sessions at once.
+ *
+ * <p>Sessions are found through a concurrent map, so lookups never block each other. Operations on
+ * one session are serialized by locking that session alone, so threads playing different sessions
+ * never wait for each other. The models are not thread-safe themselves and must only be touched
+ * through {@link #withSession} or {@link #makeGuess}.
+ *
+ * <p>The registry holds at most a fixed number of sessions. Sessions not used for longer than the
+ * idle timeout are removed by {@link #evictIdle()}, which a server calls periodically and which
+ * also runs when a new session would exceed the limit. Each scan notes when the first of the
+ * sessions it kept can turn idle; a full registry does not scan again before then, so rejecting
+ * new sessions at capacity costs no more than a clock read.
+ */
+public class GameSessionRegistry {
+
+  private final Supplier<? extends BattleshipModel> factory;  // creates the model of a session
+  private final int maxSessions;  // most sessions held at once
+  private final long idleTimeoutNanos;  // idle time after which a session may be evicted
+  private final LongSupplier clock;  // current time in nanoseconds
+  private final ConcurrentHashMap<Long, Session> sessions = new ConcurrentHashMap<>();
+  private final AtomicInteger sessionCount = new AtomicInteger();  // sessions held or reserved
+  private final AtomicLong nextId = new AtomicLong();  // id of the next session
+  private volatile long nextIdleNanos;  // no session can be idle before this time
+
+  /**
+   * A live game. Its monitor serializes every operation on the game.
+   */
+  private static final class Session {
+    private final BattleshipModel model;
+    private volatile long lastAccess;  // time of the last operation, in nanoseconds
+    private boolean closed;  // whether the session has been removed, guarded by the monitor
+
+    private Session(BattleshipModel model, long now) {
+      this.model = model;
+      this.lastAccess = now;
+    }
+  }
+
+  /**
+   * Constructor for a GameSessionRegistry.
+   *
+   * @param factory          creates the model of each new session
+   * @param maxSessions      most sessions held at once
+   * @param idleTimeoutNanos idle time in nanoseconds after which a session may be evicted
+   * @throws IllegalArgumentException if factory is null, or maxSessions or the timeout is not
+   *                                  positive
+   */
+  public GameSessionRegistry(Supplier<? extends BattleshipModel> factory, int maxSessions,
+                             long idleTimeoutNanos) throws IllegalArgumentException {
+    this(factory, maxSessions, idleTimeoutNanos, System::nanoTime);
+  }
+
+  /**
+   * Constructor for a GameSessionRegistry with its own clock, for tests.
+   *
+   * @param clock current time in nanoseconds
+   */
+  GameSessionRegistry(Supplier<? extends BattleshipModel> factory, int maxSessions,
+                      long idleTimeoutNanos, LongSupplier clock) throws IllegalArgumentException {
+    if (factory == null) {
+      throw new IllegalArgumentException("Model factory cannot be null.");
+    }
+    if (maxSessions <= 0 || idleTimeoutNanos <= 0) {
+      throw new IllegalArgumentException("Session limit and idle timeout must be positive.");
+    }
+    this.factory = factory;
+    this.maxSessions = maxSessions;
+    this.idleTimeoutNanos = idleTimeoutNanos;
+    this.clock = clock;
+    this.nextIdleNanos = clock.getAsLong();
+  }
+
+  /**
+   * Creates a session and starts its game. Idle sessions are evicted first if the registry is
+   * full and one of them may have turned idle since the last scan.
+   *
+   * @return the id of the new session
+   * @throws IllegalStateException if the registry is full of sessions that are not idle
+   */
+  public long createSession() throws IllegalStateException {
+    if (!reserve()) {
+      if (clock.getAsLong() - nextIdleNanos >= 0) {
+        evictIdle();
+      }
+      if (!reserve()) {
+        throw new IllegalStateException("Too many sessions: " + maxSessions);
+      }
+    }
+    try {
+      BattleshipModel model = factory.get();
+      model.startGame();
+      long id = nextId.getAndIncrement();
+      sessions.put(id, new Session(model, clock.getAsLong()));
+      return id;
+    } catch (RuntimeException e) {
+      sessionCount.decrementAndGet();
+      throw e;
+    }
+  }
+
+  /**
+   * Reserve room for one more session.
+   *
+   * @return true if there was room
+   */
+  private boolean reserve() {
+    int count;
+    do {
+      count = sessionCount.get();
+      if (count >= maxSessions) {
+        return false;
+      }
+    } while (!sessionCount.compareAndSet(count, count + 1));
+    return true;
+  }
+
+  /**
+   * Runs an action on the model of a session, while no other thread can touch that session.
+   * The action must not keep the model for use after it returns.
+   *
+   * @param id     the session id
+   * @param action the action
+   * @param <T>    the result type of the action
+   * @return the result of the action
+   * @throws IllegalArgumentException if the session does not exist or has been removed
+   */
+  public <T> T withSession(long id, Function<? super BattleshipModel, T> action)
+      throws IllegalArgumentException {
+    Session session = find(id);
+    synchronized (session) {
+      checkOpen(session, id);
+      session.lastAccess = clock.getAsLong();
+      return action.apply(session.model);
+    }
+  }
+
+  /**
+   * Makes a guess in a session, like {@link BattleshipModel#makeGuess}.
+   *
+   * @param id  the session id
+   * @param row the row index (0-based)
+   * @param col the column index (0-based)
+   * @return true if the guess was a hit, false otherwise
+   * @throws IllegalArgumentException if the session does not exist or the coordinates are out of
+   *                                  bounds
+   * @throws IllegalStateException    if the session's game is already over
+   */
+  public boolean makeGuess(long id, int row, int col)
+      throws IllegalArgumentException, IllegalStateException {
+    Session session = find(id);
+    synchronized (session) {
+      checkOpen(session, id);
+      session.lastAccess = clock.getAsLong();
+      return session.model.makeGuess(row, col);
+    }
+  }
+
+  /**
+   * Returns the session with an id.
+   *
+   * @throws IllegalArgumentException if there is none
+   */
+  private Session find(long id) throws IllegalArgumentException {
+    Session session = sessions.get(id);
+    if (session == null) {
+      throw new IllegalArgumentException("Unknown session " + id);
+    }
+    return session;
+  }
+
+  /**
+   * Check that a session, whose monitor is held, has not been removed meanwhile.
+   *
+   * @throws IllegalArgumentException if it has
+   */
+  private static void checkOpen(Session session, long id) throws IllegalArgumentException {
+    if (session.closed) {
+      throw new IllegalArgumentException("Unknown session " + id);
+    }
+  }
+
+  /**
+   * Removes a session, waiting for any operation running on it to finish.
+   *
+   * @param id the session id
+   * @return true if the session existed
+   */
+  public boolean removeSession(long id) {
+    Session session = sessions.get(id);
+    if (session == null) {
+      return false;
+    }
+    synchronized (session) {
+      return close(id, session);
+    }
+  }
+
+  /**
+   * Close a session whose monitor is held and drop it from the registry.
+   *
+   * @return true if this call closed it
+   */
+  private boolean close(long id, Session session) {
+    if (session.closed) {
+      return false;
+    }
+    session.closed = true;
+    sessions.remove(id, session);
+    sessionCount.decrementAndGet();
+    return true;
+  }
+
+  /**
+   * Removes every session that has not been used for longer than the idle timeout, and notes
+   * when the first of the others can turn idle.
+   *
+   * @return the number of sessions removed
+   */
+  public int evictIdle() {
+    long now = clock.getAsLong();
+    long oldestAccess = now;  // earliest last access among the sessions kept
+    int evicted = 0;
+    Iterator<Map.Entry<Long, Session>> it = sessions.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<Long, Session> entry = it.next();
+      Session session = entry.getValue();
+      long lastAccess = session.lastAccess;
+      if (now - lastAccess < idleTimeoutNanos) {
+        if (lastAccess - oldestAccess < 0) {
+          oldestAccess = lastAccess;
+        }
+        continue;
+      }
+      synchronized (session) {
+        if (now - session.lastAccess >= idleTimeoutNanos) {
+          if (close(entry.getKey(), session)) {
+            evicted++;
+          }
+        } else if (session.lastAccess - oldestAccess < 0) {
+          oldestAccess = session.lastAccess;  // used meanwhile
+        }
+      }
+    }
+    // last accesses only move forward, so no session kept can be idle before this
+    nextIdleNanos = oldestAccess + idleTimeoutNanos;
+    return evicted;
+  }
+
+  /**
+   * Returns the number of live sessions.
+   *
+   * @return the number of sessions
+   */
+  public int size() {
+    return sessions.size();
+  }
+
+  /**
+   * Returns the most sessions the registry holds at once.
+   *
+   * @return the session limit
+   */
+  public int getMaxSessions() {
+    return maxSessions;
+  }
+}
@@ -0,0 +1,137 @@
+package battleship;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Headless Monte Carlo simulator that plays many games of a {@link BattleshipModel} with a
+ * {@link GuessStrategy} and aggregates the outcomes into {@link SimulationStats}.
+ * The games are split into fixed-size batches that run as fork/join tasks. Each batch owns a
+ * random generator split from the seed, one model and one strategy, and reuses them for all of
+ * its games, so the result for a given seed does not depend on the number of threads.
+ * Strategies that also implement {@link GameListener} are registered on their model.
+ */
+public class GameSimulator {
+
+  private static final int GAMES_PER_BATCH = 1024;  // games played by one task
+
+  private final Function<RandomGenerator, BattleshipModel> modelFactory;
+  private final Supplier<GuessStrategy> strategyFactory;
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructor for a GameSimulator running on the common fork/join pool.
+   *
+   * @param modelFactory    creates a model that places ships with the given generator
+   * @param strategyFactory creates a strategy
+   */
+  public GameSimulator(Function<RandomGenerator, BattleshipModel> modelFactory,
+                       Supplier<GuessStrategy> strategyFactory) {
+    this(modelFactory, strategyFactory, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructor for a GameSimulator running on the given pool.
+   *
+   * @param modelFactory    creates a model that places ships with the given generator
+   * @param strategyFactory creates a strategy
+   * @param pool            the pool running the simulation tasks
+   * @throws IllegalArgumentException if any argument is null
+   */
+  public GameSimulator(Function<RandomGenerator, BattleshipModel> modelFactory,
+                       Supplier<GuessStrategy> strategyFactory, ForkJoinPool pool)
+      throws IllegalArgumentException {
+    if (modelFactory == null || strategyFactory == null || pool == null) {
+      throw new IllegalArgumentException("Simulator arguments cannot be null.");
+    }
+    this.modelFactory = modelFactory;
+    this.strategyFactory = strategyFactory;
+    this.pool = pool;
+  }
+
+  /**
+   * Plays the given number of games and returns their aggregate statistics.
+   *
+   * @param games number of games to play
+   * @param seed  seed of the random generators
+   * @return the statistics of all games
+   * @throws IllegalArgumentException if games is negative
+   */
+  public SimulationStats run(int games, long seed) throws IllegalArgumentException {
+    if (games < 0) {
+      throw new IllegalArgumentException("Number of games cannot be negative.");
+    }
+    SplittableRandom root = new SplittableRandom(seed);
+    List<Batch> batches = new ArrayList<>();
+    for (int start = 0; start < games; start += GAMES_PER_BATCH) {
+      batches.add(new Batch(Math.min(GAMES_PER_BATCH, games - start), root.split()));
+    }
+    pool.submit(() -> ForkJoinTask.invokeAll(batches)).join();
+
+    SimulationStats total = new SimulationStats();
+    for (Batch batch : batches) {
+      total.merge(batch.stats);
+    }
+    return total;
+  }
+
+  /**
+   * A batch of games played by one task with its own generator, model and strategy.
+   */
+  private class Batch extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int games;
+    private final RandomGenerator random;
+    private final SimulationStats stats = new SimulationStats();
+
+    Batch(int games, RandomGenerator random) {
+      this.games = games;
+      this.random = random;
+    }
+
+    @Override
+    protected void compute() {
+      BattleshipModel model = modelFactory.apply(random);
+      BoardView view = model.getBoardView();
+      GuessStrategy strategy = strategyFactory.get();
+      if (strategy instanceof GameListener) {
+        model.addGameListener((GameListener) strategy);
+      }
+      int[] hitCells = null;
+      for (int g = 0; g < games; g++) {
+        model.startGame();
+        int height = view.getHeight();
+        int width = view.getWidth();
+        if (hitCells == null || hitCells.length != height * width) {
+          hitCells = new int[height * width];
+        }
+        strategy.newGame(height, width, random);
+
+        int hitCount = 0;
+        while (!model.isGameOver()) {
+          int cell = strategy.nextGuess();
+          int row = cell / width;
+          int col = cell % width;
+          boolean hit = model.makeGuess(row, col);
+          strategy.guessResult(row, col, hit);
+          if (hit) {
+            hitCells[hitCount++] = cell;
+          }
+        }
+
+        stats.recordGame(model.getGuessCount(), model.areAllShipsSunk());
+        for (int i = 0; i < hitCount; i++) {
+          stats.recordHit(view.shipAt(hitCells[i] / width, hitCells[i] % width));
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,229 @@
+package battleship;
+
+import java.util.Arrays;
+
+/**
+ * Immutable state of a game as a player sees it: the guessed cells, which of them were hits and
+ * the guess count. Any thread can read a consistent board with
+ * {@link BattleshipModel#getSnapshot()} while another thread plays, without locking it.
+ *
+ * <p>Cells are numbered row * width + col and kept in two bitsets of longs. Each bitset is split
+ * into chunks of about the square root of its word count, which successive snapshots share: a
+ * snapshot with one more guessed cell copies a single chunk of each bitset it changes and the
+ * array of chunks, so on a board of a million cells a guess copies about 1.5 KB of each bitset it
+ * changes rather than the whole 125 KB.
+ */
+public final class GameSnapshot {
+
+  private final int height;  // height of the map
+  private final int width;  // width of the map
+  private final int maxGuesses;  // maximum number of guesses
+  private final int guessCount;  // number of guesses made
+  private final boolean allShipsSunk;  // whether every ship has been sunk
+  private final int chunkShift;  // log2 of the words per chunk
+  private final long[][] guessed;  // bitset of the guessed cells, by chunk
+  private final long[][] hits;  // bitset of the guessed cells that were hits, by chunk
+
+  /**
+   * Build a snapshot, taking ownership of the chunks.
+   */
+  private GameSnapshot(int height, int width, int maxGuesses, int guessCount,
+                       boolean allShipsSunk, int chunkShift, long[][] guessed, long[][] hits) {
+    this.height = height;
+    this.width = width;
+    this.maxGuesses = maxGuesses;
+    this.guessCount = guessCount;
+    this.allShipsSunk = allShipsSunk;
+    this.chunkShift = chunkShift;
+    this.guessed = guessed;
+    this.hits = hits;
+  }
+
+  /**
+   * Returns the log2 of the words per chunk of a board: half the log2 of its word count,
+   * rounded up.
+   */
+  private static int chunkShift(int words) {
+    int log = 32 - Integer.numberOfLeadingZeros(Math.max(1, words) - 1);  // ceil(log2(words))
+    return (log + 1) / 2;
+  }
+
+  /**
+   * Returns the snapshot of a game with no guesses yet.
+   *
+   * @param height     height of the map
+   * @param width      width of the map
+   * @param maxGuesses maximum number of guesses
+   * @return the snapshot
+   */
+  static GameSnapshot empty(int height, int width, int maxGuesses) {
+    int words = (height * width + 63) >>> 6;
+    int shift = chunkShift(words);
+    long[][] chunks = new long[((words - 1) >>> shift) + 1][];
+    Arrays.fill(chunks, new long[1 << shift]);  // never written, so shared by every chunk
+    return new GameSnapshot(height, width, maxGuesses, 0, false, shift, chunks, chunks);
+  }
+
+  /**
+   * Returns the snapshot of a board of at most 128 cells from its bitboards.
+   *
+   * @param height       height of the map
+   * @param width        width of the map
+   * @param maxGuesses   maximum number of guesses
+   * @param guessCount   number of guesses made
+   * @param allShipsSunk whether every ship has been sunk
+   * @param guessedLo    guessed cells 0-63
+   * @param guessedHi    guessed cells 64-127
+   * @param hitLo        hit cells 0-63
+   * @param hitHi        hit cells 64-127
+   * @return the snapshot
+   */
+  static GameSnapshot of(int height, int width, int maxGuesses, int guessCount,
+                         boolean allShipsSunk, long guessedLo, long guessedHi, long hitLo,
+                         long hitHi) {
+    if (height * width <= 64) {
+      return new GameSnapshot(height, width, maxGuesses, guessCount, allShipsSunk, 0,
+          new long[][] {{guessedLo}}, new long[][] {{hitLo}});
+    }
+    return new GameSnapshot(height, width, maxGuesses, guessCount, allShipsSunk, 1,
+        new long[][] {{guessedLo, guessedHi}}, new long[][] {{hitLo, hitHi}});
+  }
+
+  /**
+   * Returns this snapshot with more guesses, sharing every chunk the guesses leave unchanged.
+   * Each chunk they change is copied once, however many of its cells are set.
+   *
+   * @param cells        the newly guessed cells
+   * @param cellHits     whether each of them was a hit
+   * @param count        number of entries of cells and cellHits to apply
+   * @param guessCount   number of guesses made, these ones included
+   * @param allShipsSunk whether every ship has now been sunk
+   * @return the new snapshot
+   */
+  GameSnapshot withGuesses(int[] cells, boolean[] cellHits, int count, int guessCount,
+                           boolean allShipsSunk) {
+    long[][] newGuessed = guessed;
+    long[][] newHits = hits;
+    for (int i = 0; i < count; i++) {
+      newGuessed = withBit(guessed, newGuessed, cells[i]);
+      if (cellHits[i]) {
+        newHits = withBit(hits, newHits, cells[i]);
+      }
+    }
+    return new GameSnapshot(height, width, maxGuesses, guessCount, allShipsSunk, chunkShift,
+        newGuessed, newHits);
+  }
+
+  /**
+   * Returns a bitset with a cell set. The bitset being built shares the chunks of the original
+   * bitset until one of them is first written, when that chunk, and the spine on the first
+   * write, are copied.
+   */
+  private long[][] withBit(long[][] original, long[][] chunks, int cell) {
+    int word = cell >>> 6;
+    int chunk = word >>> chunkShift;
+    int index = word & ((1 << chunkShift) - 1);
+    long bit = 1L << cell;
+    if ((chunks[chunk][index] & bit) != 0) {
+      return chunks;
+    }
+    long[][] copy = chunks == original ? chunks.clone() : chunks;
+    if (copy[chunk] == original[chunk]) {
+      copy[chunk] = original[chunk].clone();
+    }
+    copy[chunk][index] |= bit;
+    return copy;
+  }
+
+  /**
+   * Returns the number of rows of the board.
+   *
+   * @return the height of the board
+   */
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * Returns the number of columns of the board.
+   *
+   * @return the width of the board
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * Returns the number of guesses made when the snapshot was taken.
+   *
+   * @return the number of guesses made
+   */
+  public int getGuessCount() {
+    return guessCount;
+  }
+
+  /**
+   * Returns the maximum number of guesses.
+   *
+   * @return the maximum number of guesses
+   */
+  public int getMaxGuesses() {
+    return maxGuesses;
+  }
+
+  /**
+   * Checks if all ships had been sunk when the snapshot was taken.
+   *
+   * @return true if all ships are sunk, false otherwise
+   */
+  public boolean areAllShipsSunk() {
+    return allShipsSunk;
+  }
+
+  /**
+   * Checks if the game was over when the snapshot was taken.
+   *
+   * @return true if all ships are sunk or the maximum number of guesses is reached
+   */
+  public boolean isGameOver() {
+    return allShipsSunk || guessCount >= maxGuesses;
+  }
+
+  /**
+   * Returns the state of a cell.
+   *
+   * @param row the row index (0-based)
+   * @param col the column index (0-based)
+   * @return UNKNOWN if the cell had not been guessed, else HIT or MISS
+   * @throws IndexOutOfBoundsException if the cell is off the board
+   */
+  public CellState cellAt(int row, int col) throws IndexOutOfBoundsException {
+    if (row < 0 || row >= height || col < 0 || col >= width) {
+      throw new IndexOutOfBoundsException("Cell (" + row + ", " + col + ") is off the board.");
+    }
+    int cell = row * width + col;
+    int word = cell >>> 6;
+    int chunk = word >>> chunkShift;
+    int index = word & ((1 << chunkShift) - 1);
+    long bit = 1L << cell;
+    if ((guessed[chunk][index] & bit) == 0) {
+      return CellState.UNKNOWN;
+    }
+    return (hits[chunk][index] & bit) != 0 ? CellState.HIT : CellState.MISS;
+  }
+
+  /**
+   * Returns the cell grid of the snapshot, like {@link BattleshipModel#getCellGrid()}.
+   *
+   * @return a new 2D array of the cell states
+   */
+  public CellState[][] toCellGrid() {
+    CellState[][] grid = new CellState[height][width];
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        grid[i][j] = cellAt(i, j);
+      }
+    }
+    return grid;
+  }
+}
@@ -0,0 +1,65 @@
+package battleship;
+
+/**
+ * Checks shared by the batched guess methods of the models. A whole batch is checked before its
+ * first guess is made, so a batch with a bad coordinate leaves the game untouched.
+ */
+final class GuessBatch {
+
+  private GuessBatch() {
+  }
+
+  /**
+   * Check a batch of guesses given by row and column.
+   *
+   * @param rows    the row index of each guess
+   * @param cols    the column index of each guess
+   * @param outHits the array receiving the results
+   * @param height  height of the map
+   * @param width   width of the map
+   * @throws IllegalArgumentException if the arrays are too short or a coordinate is out of bounds
+   */
+  static void checkCoordinates(int[] rows, int[] cols, boolean[] outHits, int height, int width)
+      throws IllegalArgumentException {
+    if (cols.length != rows.length || outHits.length < rows.length) {
+      throw new IllegalArgumentException("Rows and columns must have the same length and the"
+          + " results array must be at least as long.");
+    }
+    for (int i = 0; i < rows.length; i++) {
+      if (rows[i] < 0 || rows[i] >= height || cols[i] < 0 || cols[i] >= width) {
+        throw outOfBounds(height, width);
+      }
+    }
+  }
+
+  /**
+   * Check a batch of guesses given as packed cells, row * width + col.
+   *
+   * @param cells   the cell of each guess
+   * @param outHits the array receiving the results
+   * @param height  height of the map
+   * @param width   width of the map
+   * @throws IllegalArgumentException if the results array is too short or a cell is out of bounds
+   */
+  static void checkCells(int[] cells, boolean[] outHits, int height, int width)
+      throws IllegalArgumentException {
+    if (outHits.length < cells.length) {
+      throw new IllegalArgumentException("The results array must be at least as long as the"
+          + " cells.");
+    }
+    int cellCount = height * width;
+    for (int cell : cells) {
+      if (cell < 0 || cell >= cellCount) {
+        throw outOfBounds(height, width);
+      }
+    }
+  }
+
+  /**
+   * Returns the exception for a guess off the board, worded like the one of makeGuess.
+   */
+  static IllegalArgumentException outOfBounds(int height, int width) {
+    return new IllegalArgumentException("Coordinates out of bounds. Rows: 0-" + (height - 1)
+        + ", Columns: 0-" + (width - 1) + ".");
+  }
+}
@@ -0,0 +1,200 @@
+package battleship;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads guesses written like {@code A0} or {@code j9}, one per line: a row letter, A for the
+ * first row, then the column number. Spaces and tabs around them and a {@code \r} before the
+ * line break are ignored.
+ *
+ * <p>Lines are parsed straight from a reused byte buffer, so reading a guess allocates nothing,
+ * and a line that is not a guess is reported with a status code rather than an exception. A line
+ * longer than the buffer is skipped as invalid. Guesses come back as packed cells,
+ * row * width + col, which {@link BattleshipModel#makeGuesses(int[], boolean[])} takes in bulk.
+ */
+public class GuessReader implements Closeable {
+
+  /**
+   * Returned by {@link #next()} when the input is exhausted.
+   */
+  public static final int END = -1;
+
+  /**
+   * Returned by {@link #next()} for a line that is not a guess.
+   */
+  public static final int INVALID = -2;
+
+  /**
+   * Returned by {@link #next()} for a guess off the board.
+   */
+  public static final int OUT_OF_BOUNDS = -3;
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final ReadableByteChannel in;  // source of the lines
+  private final int height;  // height of the map
+  private final int width;  // width of the map
+  private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);  // unread bytes
+  private boolean endOfInput;  // whether the channel is exhausted
+  private boolean skipping;  // whether the current line overflowed the buffer
+  private long lineCount;  // lines read
+  private long rejectedCount;  // lines that were not a guess on the board
+
+  /**
+   * Constructor for a GuessReader.
+   *
+   * @param in     the channel to read, e.g. {@code Channels.newChannel(System.in)} or a file
+   * @param height height of the map, at most 26
+   * @param width  width of the map
+   * @throws IllegalArgumentException if in is null or the board size is illegal
+   */
+  public GuessReader(ReadableByteChannel in, int height, int width)
+      throws IllegalArgumentException {
+    if (in == null) {
+      throw new IllegalArgumentException("Input channel cannot be null.");
+    }
+    if (height <= 0 || height > 26 || width <= 0) {
+      throw new IllegalArgumentException("Board must have 1 to 26 rows and at least 1 column.");
+    }
+    this.in = in;
+    this.height = height;
+    this.width = width;
+    buffer.flip();
+  }
+
+  /**
+   * Reads the next line.
+   *
+   * @return the packed cell of the guess, or {@link #INVALID}, {@link #OUT_OF_BOUNDS} or
+   *     {@link #END}
+   * @throws IOException if the channel cannot be read
+   */
+  public int next() throws IOException {
+    while (true) {
+      int end = buffer.position();
+      while (end < buffer.limit() && buffer.get(end) != '\n') {
+        end++;
+      }
+      if (end < buffer.limit() || (endOfInput && (buffer.hasRemaining() || skipping))) {
+        int result = skipping ? INVALID : parse(buffer.position(), end);
+        buffer.position(Math.min(end + 1, buffer.limit()));
+        skipping = false;
+        lineCount++;
+        if (result < 0) {
+          rejectedCount++;
+        }
+        return result;
+      }
+      if (endOfInput) {
+        return END;
+      }
+      fill();
+    }
+  }
+
+  /**
+   * Reads guesses into an array, skipping the lines that are not guesses on the board.
+   *
+   * @param cells receives the packed cell of each guess
+   * @return the number of guesses read, or {@link #END} if the input is exhausted
+   * @throws IOException if the channel cannot be read
+   */
+  public int read(int[] cells) throws IOException {
+    int count = 0;
+    while (count < cells.length) {
+      int cell = next();
+      if (cell == END) {
+        return count == 0 ? END : count;
+      }
+      if (cell >= 0) {
+        cells[count++] = cell;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Read more bytes after the unread ones. When the unread bytes fill the buffer without a line
+   * break, they are dropped and the rest of their line is skipped.
+   */
+  private void fill() throws IOException {
+    if (buffer.remaining() == buffer.capacity()) {
+      skipping = true;
+      buffer.clear();
+    } else {
+      buffer.compact();
+    }
+    int read = in.read(buffer);
+    buffer.flip();
+    if (read < 0) {
+      endOfInput = true;
+    }
+  }
+
+  /**
+   * Parse the line between start and end.
+   *
+   * @return the packed cell, {@link #INVALID} or {@link #OUT_OF_BOUNDS}
+   */
+  private int parse(int start, int end) {
+    while (start < end && isBlank(buffer.get(start))) {
+      start++;
+    }
+    while (end > start && isBlank(buffer.get(end - 1))) {
+      end--;
+    }
+    if (end - start < 2 || end - start > 10) {
+      return INVALID;
+    }
+    int letter = buffer.get(start) | 0x20;  // lower case
+    if (letter < 'a' || letter > 'z') {
+      return INVALID;
+    }
+    int col = 0;
+    for (int i = start + 1; i < end; i++) {
+      int digit = buffer.get(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return INVALID;
+      }
+      col = col * 10 + digit;
+    }
+    int row = letter - 'a';
+    if (row >= height || col >= width) {
+      return OUT_OF_BOUNDS;
+    }
+    return row * width + col;
+  }
+
+  /**
+   * Returns whether a byte is a space, a tab or a carriage return.
+   */
+  private static boolean isBlank(byte b) {
+    return b == ' ' || b == '\t' || b == '\r';
+  }
+
+  /**
+   * Returns the number of lines read.
+   *
+   * @return the number of lines
+   */
+  public long getLineCount() {
+    return lineCount;
+  }
+
+  /**
+   * Returns the number of lines that were not a guess on the board.
+   *
+   * @return the number of rejected lines
+   */
+  public long getRejectedCount() {
+    return rejectedCount;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+}
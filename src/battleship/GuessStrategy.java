@@ -0,0 +1,39 @@
+package battleship;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A player that chooses where to guess next. Strategies are driven by a {@link GameSimulator}
+ * (or any other loop): {@link #newGame} is called once per game, then {@link #nextGuess} and
+ * {@link #guessResult} alternate until the game is over. A strategy instance is used by a single
+ * thread and is reused across games, so implementations should reset their state in newGame
+ * rather than allocate.
+ */
+public interface GuessStrategy {
+
+  /**
+   * Prepares the strategy for a new game.
+   *
+   * @param height height of the map
+   * @param width  width of the map
+   * @param random random generator owned by the calling thread
+   */
+  void newGame(int height, int width, RandomGenerator random);
+
+  /**
+   * Chooses the next cell to guess. The strategy should not return a cell it has already guessed
+   * in this game.
+   *
+   * @return the cell to guess, packed as row * width + col
+   */
+  int nextGuess();
+
+  /**
+   * Informs the strategy of the outcome of its last guess.
+   *
+   * @param row the row index (0-based)
+   * @param col the column index (0-based)
+   * @param hit true if the guess was a hit
+   */
+  void guessResult(int row, int col, boolean hit);
+}
@@ -0,0 +1,290 @@
+package battleship;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * A strategy that hunts on a parity lattice and targets around its hits. While hunting it fires
+ * at random cells with (row + col) % p fixed, where p is the size of the smallest ship afloat:
+ * every ship of size p or more covers a cell of each class, so the lattice finds it with a p-th
+ * of the shots. After a hit it targets the neighbours of the hit, and once two adjacent hits
+ * give the ship's axis it fires first at the cells extending the run of hits along that axis.
+ *
+ * <p>The target frontier is a deque of packed cells in a ring of ints: cells extending an axis
+ * are pushed at the front, plain neighbours at the back. For each board size and lattice size,
+ * a parity-order table lists the cells grouped by class, and the hunt draws from the current
+ * class with a partial Fisher-Yates shuffle, moving on to the next class once it is exhausted,
+ * so each shot is constant time in amortized terms. A table of the neighbours of every cell
+ * spares the bounds checks. Tables are built once per board size and reused across games.
+ *
+ * <p>The strategy is also a {@link GameListener}: registered on the model it plays, it learns
+ * about sunk ships through {@link #onShipSunk(ShipType)}. Without that it keeps hunting on the
+ * lattice of the smallest ship of the fleet.
+ */
+public class HuntTargetGuessStrategy implements GuessStrategy, GameListener {
+
+  private static final int[] ROW_STEPS = {-1, 1, 0, 0};  // up, down, left, right
+  private static final int[] COL_STEPS = {0, 0, -1, 1};
+
+  private final ShipType[] fleet;  // ships at the start of each game
+  private final int maxSize;  // size of the largest ship of the fleet
+  private int height;  // height of the map
+  private int width;  // width of the map
+
+  // tables of the board size
+  private int[][] huntOrders;  // by lattice size, the cells grouped by (row + col) % size
+  private int[][] classStarts;  // by lattice size, where each class starts in huntOrders
+  private int[] neighbours;  // 4 per cell, in the order of ROW_STEPS, -1 off the board
+
+  // state of the current game
+  private int[] afloat;  // ships of each size not yet sunk
+  private boolean[] guessed;  // whether each cell has been guessed
+  private boolean[] hits;  // whether each cell was hit
+  private int unsunkHits;  // hits not yet accounted for by a sunk ship
+  private int[] frontier = new int[0];  // ring of target cells, capacity a power of two
+  private int head;  // index of the first target cell
+  private int tail;  // index after the last target cell
+  private int lattice;  // size of the current lattice
+  private int offset;  // class hunted first
+  private int classesDone;  // classes exhausted after the first
+  private int drawn;  // position of the next cell to draw in the hunt order
+  private int classEnd;  // end of the current class in the hunt order
+  private RandomGenerator random;
+
+  /**
+   * Constructor for a HuntTargetGuessStrategy against the default fleet.
+   */
+  public HuntTargetGuessStrategy() {
+    this(GameConfig.DEFAULT.getFleet());
+  }
+
+  /**
+   * Constructor for a HuntTargetGuessStrategy against the given fleet.
+   *
+   * @param fleet the ships placed at the start of each game, one entry per ship
+   * @throws IllegalArgumentException if the fleet is null or empty
+   */
+  public HuntTargetGuessStrategy(List<ShipType> fleet) throws IllegalArgumentException {
+    if (fleet == null || fleet.isEmpty()) {
+      throw new IllegalArgumentException("Fleet must contain at least one ship.");
+    }
+    this.fleet = fleet.toArray(new ShipType[0]);
+    this.maxSize = fleet.stream().mapToInt(ShipType::getSize).max().getAsInt();
+  }
+
+  @Override
+  public void newGame(int height, int width, RandomGenerator random) {
+    if (height != this.height || width != this.width || guessed == null) {
+      buildTables(height, width);
+    }
+    this.random = random;
+    Arrays.fill(afloat, 0);
+    for (ShipType type : fleet) {
+      afloat[type.getSize()]++;
+    }
+    Arrays.fill(guessed, false);
+    Arrays.fill(hits, false);
+    unsunkHits = 0;
+    head = 0;
+    tail = 0;
+    startHunt(smallestAfloat());
+  }
+
+  /**
+   * Build the parity-order, neighbour and frontier tables of a board.
+   *
+   * @param height height of the map
+   * @param width  width of the map
+   */
+  private void buildTables(int height, int width) {
+    this.height = height;
+    this.width = width;
+    int cells = height * width;
+    huntOrders = new int[maxSize + 1][];
+    classStarts = new int[maxSize + 1][];
+    for (int size = 1; size <= maxSize; size++) {
+      int[] order = new int[cells];
+      int[] starts = new int[size + 1];
+      for (int c = 0; c < cells; c++) {
+        starts[(c / width + c % width) % size + 1]++;
+      }
+      for (int k = 0; k < size; k++) {
+        starts[k + 1] += starts[k];
+      }
+      int[] fill = Arrays.copyOf(starts, size);
+      for (int c = 0; c < cells; c++) {
+        order[fill[(c / width + c % width) % size]++] = c;
+      }
+      huntOrders[size] = order;
+      classStarts[size] = starts;
+    }
+    neighbours = new int[cells * 4];
+    for (int c = 0; c < cells; c++) {
+      for (int d = 0; d < 4; d++) {
+        int row = c / width + ROW_STEPS[d];
+        int col = c % width + COL_STEPS[d];
+        boolean inside = row >= 0 && row < height && col >= 0 && col < width;
+        neighbours[c * 4 + d] = inside ? row * width + col : -1;
+      }
+    }
+    // each hit pushes at most 6 cells, so the ring never overflows within a game
+    frontier = new int[Integer.highestOneBit(Math.max(1, 6 * cells - 1)) << 1];
+    afloat = new int[maxSize + 1];
+    guessed = new boolean[cells];
+    hits = new boolean[cells];
+  }
+
+  /**
+   * Returns the size of the smallest ship afloat, or 1 once every ship is sunk.
+   */
+  private int smallestAfloat() {
+    for (int size = 1; size <= maxSize; size++) {
+      if (afloat[size] > 0) {
+        return size;
+      }
+    }
+    return 1;
+  }
+
+  /**
+   * Hunt on the lattice of the given size, starting from a random class.
+   */
+  private void startHunt(int size) {
+    lattice = size;
+    offset = random.nextInt(size);
+    classesDone = 0;
+    drawn = classStarts[size][offset];
+    classEnd = classStarts[size][offset + 1];
+  }
+
+  @Override
+  public int nextGuess() {
+    while (head != tail) {
+      int cell = frontier[head];
+      head = (head + 1) & (frontier.length - 1);
+      if (!guessed[cell]) {
+        return cell;
+      }
+    }
+    int[] order = huntOrders[lattice];
+    while (true) {
+      if (drawn == classEnd) {
+        if (++classesDone == lattice) {
+          throw new IllegalStateException("Every cell has already been guessed.");
+        }
+        int k = (offset + classesDone) % lattice;
+        drawn = classStarts[lattice][k];
+        classEnd = classStarts[lattice][k + 1];
+        continue;
+      }
+      int pick = drawn + random.nextInt(classEnd - drawn);
+      int cell = order[pick];
+      order[pick] = order[drawn];
+      order[drawn++] = cell;
+      if (!guessed[cell]) {
+        return cell;
+      }
+    }
+  }
+
+  @Override
+  public void guessResult(int row, int col, boolean hit) {
+    int cell = row * width + col;
+    if (guessed[cell]) {
+      return;
+    }
+    guessed[cell] = true;
+    if (!hit) {
+      return;
+    }
+    hits[cell] = true;
+    unsunkHits++;
+    for (int d = 0; d < 4; d++) {
+      int next = neighbours[cell * 4 + d];
+      if (next >= 0 && !guessed[next]) {
+        addLast(next);
+      }
+    }
+    // d and d ^ 1 are opposite directions: extend a run of hits at both of its ends
+    for (int d = 0; d < 4; d += 2) {
+      int before = neighbours[cell * 4 + d];
+      int after = neighbours[cell * 4 + d + 1];
+      if ((before >= 0 && hits[before]) || (after >= 0 && hits[after])) {
+        extend(cell, d + 1);
+        extend(cell, d);
+      }
+    }
+  }
+
+  /**
+   * Push at the front the first unguessed cell past the run of hits from a cell in a direction,
+   * unless the run ends at a miss or the edge of the board.
+   */
+  private void extend(int cell, int direction) {
+    int next = neighbours[cell * 4 + direction];
+    while (next >= 0 && hits[next]) {
+      next = neighbours[next * 4 + direction];
+    }
+    if (next >= 0 && !guessed[next]) {
+      addFirst(next);
+    }
+  }
+
+  private void addFirst(int cell) {
+    head = (head - 1) & (frontier.length - 1);
+    frontier[head] = cell;
+  }
+
+  private void addLast(int cell) {
+    frontier[tail] = cell;
+    tail = (tail + 1) & (frontier.length - 1);
+  }
+
+  /**
+   * Informs the strategy that a ship has been sunk. Once every hit belongs to a sunk ship the
+   * frontier is dropped, and the hunt moves to the lattice of the smallest ship still afloat.
+   *
+   * @param type the type of the sunk ship
+   * @throws IllegalStateException if no ship of that size is still afloat
+   */
+  public void shipSunk(ShipType type) throws IllegalStateException {
+    int size = type.getSize();
+    if (size > maxSize || afloat[size] == 0) {
+      throw new IllegalStateException("No ship of size " + size + " is afloat.");
+    }
+    afloat[size]--;
+    unsunkHits = Math.max(0, unsunkHits - size);
+    if (unsunkHits == 0) {
+      head = tail;
+    }
+    int smallest = smallestAfloat();
+    if (smallest != lattice) {
+      startHunt(smallest);
+    }
+  }
+
+  @Override
+  public void onShipSunk(ShipType type) {
+    shipSunk(type);
+  }
+
+  /**
+   * Returns the number of cells waiting in the target frontier, some of which may have been
+   * guessed since they were pushed.
+   *
+   * @return the size of the frontier
+   */
+  public int getFrontierSize() {
+    return (tail - head) & (frontier.length - 1);
+  }
+
+  /**
+   * Returns the size of the lattice the strategy hunts on.
+   *
+   * @return the size of the smallest ship afloat
+   */
+  public int getLatticeSize() {
+    return lattice;
+  }
+}
@@ -0,0 +1,127 @@
+package battleship;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations in nanoseconds with one bucket per power of two, which keeps the
+ * relative error of any percentile under a factor of two in 64 counters. Recording is lock-free
+ * and striped, so many threads can share a histogram without contending on one counter.
+ */
+public final class LatencyHistogram {
+
+  private static final int BUCKETS = 64;
+
+  private final LongAdder[] buckets = new LongAdder[BUCKETS];  // bucket i counts [2^(i-1), 2^i)
+  private final LongAdder total = new LongAdder();  // sum of the recorded durations
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);  // longest duration
+
+  /**
+   * Constructor for an empty LatencyHistogram.
+   */
+  public LatencyHistogram() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Returns the bucket of a non-negative duration: 0 for 0, else one more than the index of its
+   * highest bit.
+   */
+  private static int bucketOf(long nanos) {
+    return BUCKETS - Long.numberOfLeadingZeros(nanos);
+  }
+
+  /**
+   * Records a duration. Negative durations, which a clock may report across a core migration,
+   * count as 0.
+   *
+   * @param nanos the duration in nanoseconds
+   */
+  public void record(long nanos) {
+    nanos = Math.max(0, nanos);
+    buckets[bucketOf(nanos)].increment();
+    total.add(nanos);
+    max.accumulate(nanos);
+  }
+
+  /**
+   * Returns the number of recorded durations.
+   *
+   * @return the count
+   */
+  public long getCount() {
+    long count = 0;
+    for (LongAdder bucket : buckets) {
+      count += bucket.sum();
+    }
+    return count;
+  }
+
+  /**
+   * Returns the mean of the recorded durations.
+   *
+   * @return the mean in nanoseconds, or 0 if none was recorded
+   */
+  public double getMean() {
+    long count = getCount();
+    return count == 0 ? 0 : (double) total.sum() / count;
+  }
+
+  /**
+   * Returns the longest recorded duration.
+   *
+   * @return the maximum in nanoseconds, or 0 if none was recorded
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Returns an upper bound of a percentile of the recorded durations: the end of the bucket
+   * holding it, capped by the maximum.
+   *
+   * @param percentile the percentile, between 0 and 100
+   * @return the bound in nanoseconds, or 0 if none was recorded
+   * @throws IllegalArgumentException if the percentile is not between 0 and 100
+   */
+  public long getPercentile(double percentile) throws IllegalArgumentException {
+    if (!(percentile >= 0 && percentile <= 100)) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+    }
+    long[] counts = new long[BUCKETS];
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets[i].sum();
+      count += counts[i];
+    }
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long seen = 0;
+    int i = 0;
+    while (i < BUCKETS - 1 && (seen += counts[i]) < rank) {
+      i++;
+    }
+    return Math.min((1L << i) - 1, getMax());
+  }
+
+  /**
+   * Clears the histogram. Durations recorded meanwhile may or may not be kept.
+   */
+  public void reset() {
+    for (LongAdder bucket : buckets) {
+      bucket.reset();
+    }
+    total.reset();
+    max.reset();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("count=%d mean=%.0fns p50=%dns p99=%dns max=%dns", getCount(),
+        getMean(), getPercentile(50), getPercentile(99), getMax());
+  }
+}
@@ -0,0 +1,301 @@
+package battleship;
+
+import java.util.Arrays;
+
+/**
+ * Reduces fleet layouts to a canonical form under the symmetries of the board, so boards that
+ * are rotations or mirror images of each other can be grouped, and hashes that form into a 64-bit
+ * fingerprint. A square board has 8 symmetries (4 rotations, each possibly mirrored) and any
+ * other board 4 (identity, the two mirrors and the half turn). For boards of at most 128 cells.
+ *
+ * <p>Each ship type is held as bitboard lines: the rows of the board, or its columns when it is
+ * wider than tall, so a line has at most 11 cells. Square boards also keep the cross lines, the
+ * transpose, which is filled in as cells are set. Every symmetry is then a choice of lines or
+ * cross lines, of their order and of whether each line is bit-reversed through a table, so an
+ * image is read line by line without being built. The canonical form is the image whose lines,
+ * compared type by type in ordinal order and line by line, are the smallest; comparisons stop at
+ * the first line that differs, and start past the empty lines, known from the first and last
+ * occupied line of each type. Images that lost are dropped, so once one type has told the images
+ * apart the other types cost nothing but the hashing of the winner.
+ * Fingerprints of distinct canonical layouts collide with probability about 2<sup>-64</sup>.
+ * A canonicalizer reuses its scratch space and is not thread-safe.
+ */
+public class LayoutCanonicalizer {
+
+  private static final ShipType[] TYPES = ShipType.values();
+  private static final int REVERSE_ORDER = 1;  // symmetry bit: lines in reverse order
+  private static final int REVERSE_BITS = 2;  // symmetry bit: each line bit-reversed
+  private static final int CROSS = 4;  // symmetry bit: cross lines instead of lines
+
+  private final int height;  // height of the map
+  private final int width;  // width of the map
+  private final boolean byRow;  // whether lines are rows, else columns
+  private final int lineCount;  // number of lines
+  private final int lineLength;  // cells of a line, at most 11
+  private final int symmetryCount;  // 8 on a square board, else 4
+  private final int[] reversed;  // each line pattern bit-reversed
+  private final int[] lines;  // line patterns of each type, lineCount per type by ordinal
+  private final int[] crossLines;  // square boards: cross line patterns of each type
+  private final int[] firstLines = new int[TYPES.length];  // first line holding cells, by type
+  private final int[] lastLines = new int[TYPES.length];  // last line holding cells, or -1
+  private final int[] firstBits = new int[TYPES.length];  // first cross line holding cells
+  private final int[] lastBits = new int[TYPES.length];  // last cross line holding cells
+  private final int[] canonical;  // line patterns of the canonical form of each type
+
+  /**
+   * Constructor for a LayoutCanonicalizer.
+   *
+   * @param height height of the map
+   * @param width  width of the map
+   * @throws IllegalArgumentException if the board is empty or has more than 128 cells
+   */
+  public LayoutCanonicalizer(int height, int width) throws IllegalArgumentException {
+    if (height <= 0 || width <= 0 || height * width > 128) {
+      throw new IllegalArgumentException("Board must have between 1 and 128 cells.");
+    }
+    this.height = height;
+    this.width = width;
+    this.byRow = width <= height;
+    this.lineCount = Math.max(height, width);
+    this.lineLength = Math.min(height, width);
+    this.symmetryCount = height == width ? 8 : 4;
+    this.reversed = new int[1 << lineLength];
+    for (int pattern = 0; pattern < reversed.length; pattern++) {
+      reversed[pattern] = Integer.reverse(pattern) >>> (32 - lineLength);
+    }
+    this.lines = new int[TYPES.length * lineCount];
+    this.crossLines = height == width ? new int[TYPES.length * lineLength] : null;
+    this.canonical = new int[TYPES.length * lineCount];
+  }
+
+  /**
+   * Returns the number of symmetries of the board.
+   *
+   * @return 8 for a square board, else 4
+   */
+  public int getSymmetryCount() {
+    return symmetryCount;
+  }
+
+  /**
+   * Returns the fingerprint of a layout given by ship, like {@link LayoutVisitor#visit}.
+   *
+   * @param types  the type of each ship
+   * @param layout the packed placement of each ship
+   * @return the fingerprint of the canonical form
+   * @throws IllegalArgumentException if the arrays differ in length or a ship leaves the board
+   */
+  public long fingerprint(ShipType[] types, int[] layout) throws IllegalArgumentException {
+    if (types.length != layout.length) {
+      throw new IllegalArgumentException("Layout does not match the ship types.");
+    }
+    clear();
+    for (int s = 0; s < types.length; s++) {
+      int start = ReplayableModel.start(layout[s]);
+      int size = types[s].getSize();
+      boolean vertical = ReplayableModel.isVertical(layout[s]);
+      int row = start / width;
+      int col = start % width;
+      if (start < 0 || row >= height
+          || (vertical ? row + size > height : col + size > width)) {
+        throw new IllegalArgumentException("Ship " + s + " leaves the board.");
+      }
+      for (int k = 0; k < size; k++) {
+        setCell(types[s], vertical ? row + k : row, vertical ? col : col + k);
+      }
+    }
+    return canonicalize();
+  }
+
+  /**
+   * Returns the fingerprint of a ship grid, as returned by {@link BattleshipModel#getShipGrid()}.
+   *
+   * @param shipGrid the ship type on each cell, or null for water
+   * @return the fingerprint of the canonical form
+   * @throws IllegalArgumentException if the grid does not have the size of the board
+   */
+  public long fingerprint(ShipType[][] shipGrid) throws IllegalArgumentException {
+    if (shipGrid.length != height) {
+      throw new IllegalArgumentException("Ship grid does not match the board.");
+    }
+    clear();
+    for (int i = 0; i < height; i++) {
+      if (shipGrid[i].length != width) {
+        throw new IllegalArgumentException("Ship grid does not match the board.");
+      }
+      for (int j = 0; j < width; j++) {
+        if (shipGrid[i][j] != null) {
+          setCell(shipGrid[i][j], i, j);
+        }
+      }
+    }
+    return canonicalize();
+  }
+
+  /**
+   * Returns the fingerprint of the ships of a board, read without copying the grid.
+   *
+   * @param board the board
+   * @return the fingerprint of the canonical form
+   * @throws IllegalArgumentException if the board does not have the size of this canonicalizer
+   */
+  public long fingerprint(BoardView board) throws IllegalArgumentException {
+    if (board.getHeight() != height || board.getWidth() != width) {
+      throw new IllegalArgumentException("Board size does not match.");
+    }
+    clear();
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        ShipType type = board.shipAt(i, j);
+        if (type != null) {
+          setCell(type, i, j);
+        }
+      }
+    }
+    return canonicalize();
+  }
+
+  /**
+   * Returns the canonical form of the layout last fingerprinted, as a ship grid.
+   *
+   * @return a new grid with the ship type on each cell, or null for water
+   */
+  public ShipType[][] canonicalShipGrid() {
+    ShipType[][] grid = new ShipType[height][width];
+    for (int t = 0; t < TYPES.length; t++) {
+      for (int k = 0; k < lineCount; k++) {
+        for (int pattern = canonical[t * lineCount + k]; pattern != 0;
+             pattern &= pattern - 1) {
+          int b = Integer.numberOfTrailingZeros(pattern);
+          grid[byRow ? k : b][byRow ? b : k] = TYPES[t];
+        }
+      }
+    }
+    return grid;
+  }
+
+  /**
+   * Remove every ship.
+   */
+  private void clear() {
+    Arrays.fill(lines, 0);
+    if (crossLines != null) {
+      Arrays.fill(crossLines, 0);
+    }
+    Arrays.fill(firstLines, Integer.MAX_VALUE);
+    Arrays.fill(lastLines, -1);
+    Arrays.fill(firstBits, Integer.MAX_VALUE);
+    Arrays.fill(lastBits, -1);
+  }
+
+  /**
+   * Mark a cell as covered by a ship of a type.
+   */
+  private void setCell(ShipType type, int row, int col) {
+    int t = type.ordinal();
+    int line = byRow ? row : col;
+    int bit = byRow ? col : row;
+    lines[t * lineCount + line] |= 1 << bit;
+    if (crossLines != null) {
+      crossLines[t * lineLength + bit] |= 1 << line;
+    }
+    firstLines[t] = Math.min(firstLines[t], line);
+    lastLines[t] = Math.max(lastLines[t], line);
+    firstBits[t] = Math.min(firstBits[t], bit);
+    lastBits[t] = Math.max(lastBits[t], bit);
+  }
+
+  /**
+   * Returns line k of the image of a type under a symmetry.
+   */
+  private int line(int t, int symmetry, int k) {
+    int index = (symmetry & REVERSE_ORDER) != 0 ? lineCount - 1 - k : k;
+    int pattern = (symmetry & CROSS) != 0
+        ? crossLines[t * lineLength + index] : lines[t * lineCount + index];
+    return (symmetry & REVERSE_BITS) != 0 ? reversed[pattern] : pattern;
+  }
+
+  /**
+   * Returns the first line of the image of a type under a symmetry that holds cells.
+   */
+  private int firstLine(int t, int symmetry) {
+    if ((symmetry & REVERSE_ORDER) != 0) {
+      return lineCount - 1 - ((symmetry & CROSS) != 0 ? lastBits[t] : lastLines[t]);
+    }
+    return (symmetry & CROSS) != 0 ? firstBits[t] : firstLines[t];
+  }
+
+  /**
+   * Compare the images of a type under two symmetries, line by line. An image whose first lines
+   * are empty is the smaller.
+   */
+  private int compare(int t, int symmetry, int other) {
+    int first = firstLine(t, symmetry);
+    int otherFirst = firstLine(t, other);
+    if (first != otherFirst) {
+      return first > otherFirst ? -1 : 1;
+    }
+    for (int k = first; k < lineCount; k++) {
+      int a = line(t, symmetry, k);
+      int b = line(t, other, k);
+      if (a != b) {
+        return a < b ? -1 : 1;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Find the symmetry giving the smallest image, store that image in canonical and return its
+   * fingerprint.
+   */
+  private long canonicalize() {
+    int alive = (1 << symmetryCount) - 1;  // symmetries whose image is smallest so far
+    for (int t = 0; t < TYPES.length && (alive & (alive - 1)) != 0; t++) {
+      if (lastLines[t] < 0) {
+        continue;
+      }
+      int best = Integer.numberOfTrailingZeros(alive);
+      int tied = 1 << best;
+      for (int rest = alive & (alive - 1); rest != 0; rest &= rest - 1) {
+        int symmetry = Integer.numberOfTrailingZeros(rest);
+        int order = compare(t, symmetry, best);
+        if (order < 0) {
+          best = symmetry;
+          tied = 1 << symmetry;
+        } else if (order == 0) {
+          tied |= 1 << symmetry;
+        }
+      }
+      alive = tied;
+    }
+    int symmetry = Integer.numberOfTrailingZeros(alive);
+    long hash = mix64(height * 0x9E3779B97F4A7C15L + width);
+    for (int t = 0; t < TYPES.length; t++) {
+      long word = 0;
+      int bits = 0;
+      for (int k = 0; k < lineCount; k++) {
+        int pattern = lastLines[t] < 0 ? 0 : line(t, symmetry, k);
+        canonical[t * lineCount + k] = pattern;
+        if (bits + lineLength > 64) {
+          hash = mix64(hash ^ word);
+          word = 0;
+          bits = 0;
+        }
+        word |= (long) pattern << bits;
+        bits += lineLength;
+      }
+      hash = mix64(hash ^ word);
+    }
+    return hash;
+  }
+
+  /**
+   * Scramble the bits of a long, as in SplittableRandom.
+   */
+  private static long mix64(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
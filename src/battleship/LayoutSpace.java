@@ -0,0 +1,570 @@
+package battleship;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator;
+
+/**
+ * The exact space of legal fleet layouts on a board of at most 128 cells, optionally constrained
+ * by the hits and misses of a partly guessed cell grid. It counts the layouts, gives the exact
+ * probability that each cell holds a ship, and enumerates the layouts one by one.
+ *
+ * <p>Cells are scanned in row-major order and each ship is placed at its start cell, the first
+ * of its cells in that order, so every layout is built exactly once. What the scan still has to
+ * know at a cell is only which cells ahead are already covered, kept as a bitmask relative to
+ * the current cell, and which ships are left. Backtracking paths that reach the same cell with
+ * the same mask and ships are merged into one state, so the layouts are counted on a graph of
+ * states instead of one by one: the classic 10x10 board has about thirty billion layouts but
+ * fewer than twenty million states, counted in seconds.
+ *
+ * <p>The graph is built level by level, one level per cell. The number of completions of every
+ * state is then summed backwards, each level split into fork/join tasks. The number of ways to
+ * reach each state is summed forwards. The cover count of a cell is the sum over the moves that
+ * cover it of ways in times completions out, computed for all levels in parallel.
+ */
+public final class LayoutSpace {
+
+  private static final int STATES_PER_TASK = 4096;  // states summed by one fork/join task
+  private static final byte EMPTY = 0;  // edge kind: the cell stays water
+  private static final byte COVERED = 1;  // edge kind: the cell belongs to an earlier ship
+  // any other edge kind k starts a ship: type slot (k - 2) / 2, vertical if k is odd
+
+  private final int height;  // height of the map
+  private final int width;  // width of the map
+  private final int cells;  // number of cells, also the number of levels minus one
+  private final ShipType[] types;  // distinct ship types of the fleet
+  private final int[] radix;  // weight of each type slot in a fleet code
+  private final int[] counts;  // number of ships of each type slot
+  private final int shipCount;  // number of ships of the fleet
+  private final boolean[] misses;  // cells known to be water
+  private final boolean[] hits;  // cells known to hold a ship
+
+  // the state graph, indexed by level, then by state or edge
+  private final int[][] edgeOffsets;  // edges of state i are edgeOffsets[i]..edgeOffsets[i + 1]
+  private final int[][] edgeTargets;  // state of the next level reached by each edge
+  private final byte[][] edgeKinds;  // move made by each edge
+  private final long[][] completions;  // number of ways to finish a layout from each state
+  private final long[] cover;  // number of layouts with a ship on each cell
+  private final long total;  // number of layouts
+
+  /**
+   * Builds the layout space of a board and fleet on the common fork/join pool.
+   *
+   * @param config the board size and fleet; the guess limit is ignored
+   * @param known  a cell grid whose HIT cells must hold a ship and MISS cells must not, or null
+   * @throws IllegalArgumentException if config is null, the board has more than 128 cells, the
+   *                                  grid does not match the board, or the layouts are too many
+   *                                  to count in a long
+   */
+  public LayoutSpace(GameConfig config, CellState[][] known) throws IllegalArgumentException {
+    this(config, known, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Builds the layout space of a board and fleet on the given pool.
+   *
+   * @param config the board size and fleet; the guess limit is ignored
+   * @param known  a cell grid whose HIT cells must hold a ship and MISS cells must not, or null
+   * @param pool   the pool running the counting tasks
+   * @throws IllegalArgumentException if config or pool is null, the board has more than 128
+   *                                  cells, the grid does not match the board, or the layouts
+   *                                  are too many to count in a long
+   */
+  public LayoutSpace(GameConfig config, CellState[][] known, ForkJoinPool pool)
+      throws IllegalArgumentException {
+    if (config == null || pool == null) {
+      throw new IllegalArgumentException("Layout space arguments cannot be null.");
+    }
+    height = config.getHeight();
+    width = config.getWidth();
+    cells = height * width;
+    if (cells > 128) {
+      throw new IllegalArgumentException("Layout space supports at most 128 cells.");
+    }
+    List<ShipType> fleet = config.getFleet();
+    types = fleet.stream().distinct().toArray(ShipType[]::new);
+    counts = new int[types.length];
+    radix = new int[types.length];
+    long code = 1;
+    for (int t = 0; t < types.length; t++) {
+      counts[t] = (int) fleet.stream().filter(types[t]::equals).count();
+      radix[t] = (int) code;
+      code *= counts[t] + 1;
+    }
+    if (code > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Fleet has too many kinds of ships.");
+    }
+    shipCount = fleet.size();
+
+    misses = new boolean[cells];
+    hits = new boolean[cells];
+    if (known != null) {
+      if (known.length != height) {
+        throw new IllegalArgumentException("Cell grid does not match the board.");
+      }
+      for (int i = 0; i < height; i++) {
+        if (known[i].length != width) {
+          throw new IllegalArgumentException("Cell grid does not match the board.");
+        }
+        for (int j = 0; j < width; j++) {
+          misses[i * width + j] = known[i][j] == CellState.MISS;
+          hits[i * width + j] = known[i][j] == CellState.HIT;
+        }
+      }
+    }
+
+    edgeOffsets = new int[cells][];
+    edgeTargets = new int[cells][];
+    edgeKinds = new byte[cells][];
+    int[] finalFleets = buildGraph();
+
+    completions = new long[cells + 1][];
+    completions[cells] = new long[finalFleets.length];
+    for (int i = 0; i < finalFleets.length; i++) {
+      completions[cells][i] = finalFleets[i] == 0 ? 1 : 0;
+    }
+    try {
+      for (int level = cells - 1; level >= 0; level--) {
+        completions[level] = new long[edgeOffsets[level].length - 1];
+        pool.invoke(new SumCompletions(level, 0, completions[level].length));
+      }
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("Too many layouts to count in a long.", e);
+    }
+    total = completions[0][0];
+    cover = countCover(pool);
+  }
+
+  /**
+   * Build the state graph, one level per cell, starting from the empty board with the whole
+   * fleet left.
+   *
+   * @return the fleet code of each state of the last level
+   */
+  private int[] buildGraph() {
+    int fullFleet = 0;
+    for (int t = 0; t < types.length; t++) {
+      fullFleet += counts[t] * radix[t];
+    }
+    StateTable current = new StateTable();
+    current.indexOf(0, 0, fullFleet);
+    for (int level = 0; level < cells; level++) {
+      StateTable next = new StateTable();
+      int[] offsets = new int[current.size + 1];
+      EdgeList edges = new EdgeList();
+      for (int i = 0; i < current.size; i++) {
+        offsets[i] = edges.size;
+        expand(level, current.lo[i], current.hi[i], current.fleet[i], next, edges);
+      }
+      offsets[current.size] = edges.size;
+      edgeOffsets[level] = offsets;
+      edgeTargets[level] = Arrays.copyOf(edges.targets, edges.size);
+      edgeKinds[level] = Arrays.copyOf(edges.kinds, edges.size);
+      current = next;
+    }
+    return Arrays.copyOf(current.fleet, current.size);
+  }
+
+  /**
+   * Add the moves out of a state: the cell is covered by an earlier ship, stays water, or starts
+   * a ship of a type that is left.
+   *
+   * @param cell  the current cell, which is also the level of the state
+   * @param lo    cells ahead already covered, bit k for cell + k, k below 64
+   * @param hi    cells ahead already covered, bit k for cell + 64 + k
+   * @param fleet code of the ships left
+   * @param next  the states of the next level
+   * @param edges the edges of this level
+   */
+  private void expand(int cell, long lo, long hi, int fleet, StateTable next, EdgeList edges) {
+    int cellsLeft = 0;
+    for (int t = 0; t < types.length; t++) {
+      cellsLeft += (fleet / radix[t] % (counts[t] + 1)) * types[t].getSize();
+    }
+    if (cellsLeft > cells - cell) {
+      return;
+    }
+    if ((lo & 1) != 0) {
+      edges.add(next.indexOf((lo >>> 1) | (hi << 63), hi >>> 1, fleet), COVERED);
+      return;
+    }
+    if (misses[cell]) {
+      edges.add(next.indexOf((lo >>> 1) | (hi << 63), hi >>> 1, fleet), EMPTY);
+      return;
+    }
+    if (!hits[cell]) {
+      edges.add(next.indexOf((lo >>> 1) | (hi << 63), hi >>> 1, fleet), EMPTY);
+    }
+    int row = cell / width;
+    int col = cell % width;
+    for (int t = 0; t < types.length; t++) {
+      if (fleet / radix[t] % (counts[t] + 1) == 0) {
+        continue;
+      }
+      int size = types[t].getSize();
+      for (int vertical = 0; vertical < 2; vertical++) {
+        int step = vertical == 1 ? width : 1;
+        if (vertical == 1 ? row + size > height : col + size > width) {
+          continue;
+        }
+        long newLo = lo;
+        long newHi = hi;
+        boolean fits = true;
+        for (int k = 0, offset = 0; k < size && fits; k++, offset += step) {
+          long bit = 1L << (offset & 63);
+          long word = offset < 64 ? newLo : newHi;
+          if ((word & bit) != 0 || misses[cell + offset]) {
+            fits = false;
+          } else if (offset < 64) {
+            newLo |= bit;
+          } else {
+            newHi |= bit;
+          }
+        }
+        if (fits) {
+          int target = next.indexOf((newLo >>> 1) | (newHi << 63), newHi >>> 1,
+              fleet - radix[t]);
+          edges.add(target, (byte) (2 + 2 * t + vertical));
+        }
+      }
+    }
+  }
+
+  /**
+   * Count, for every cell, the layouts with a ship on it: the ways to reach each state are
+   * summed level by level, then every level's covering moves are weighed in parallel.
+   *
+   * @return the cover count of each cell
+   */
+  private long[] countCover(ForkJoinPool pool) {
+    long[][] reach = new long[cells + 1][];
+    for (int level = 0; level <= cells; level++) {
+      reach[level] = new long[completions[level].length];
+    }
+    reach[0][0] = 1;
+    for (int level = 0; level < cells; level++) {
+      int[] offsets = edgeOffsets[level];
+      int[] targets = edgeTargets[level];
+      for (int i = 0; i < reach[level].length; i++) {
+        if (reach[level][i] == 0 || completions[level][i] == 0) {
+          continue;
+        }
+        for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+          if (completions[level + 1][targets[e]] != 0) {
+            reach[level + 1][targets[e]] += reach[level][i];
+          }
+        }
+      }
+    }
+
+    long[] result = new long[cells];
+    List<RecursiveAction> tasks = new ArrayList<>(cells);
+    for (int level = 0; level < cells; level++) {
+      int cell = level;
+      tasks.add(new RecursiveAction() {
+        @Override
+        protected void compute() {
+          int[] offsets = edgeOffsets[cell];
+          long sum = 0;
+          for (int i = 0; i < reach[cell].length; i++) {
+            if (reach[cell][i] == 0) {
+              continue;
+            }
+            for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+              if (edgeKinds[cell][e] != EMPTY) {
+                // reach times completions is a count of distinct layouts, so it fits
+                sum += reach[cell][i] * completions[cell + 1][edgeTargets[cell][e]];
+              }
+            }
+          }
+          result[cell] = sum;
+        }
+      });
+    }
+    pool.submit(() -> ForkJoinTask.invokeAll(tasks)).join();
+    return result;
+  }
+
+  /**
+   * Returns the number of legal layouts.
+   *
+   * @return the number of layouts, 0 if the known cells rule every layout out
+   */
+  public long count() {
+    return total;
+  }
+
+  /**
+   * Returns the number of layouts with a ship on a cell.
+   *
+   * @param row the row index (0-based)
+   * @param col the column index (0-based)
+   * @return the number of layouts covering the cell
+   * @throws IndexOutOfBoundsException if the cell is off the board
+   */
+  public long coverCount(int row, int col) throws IndexOutOfBoundsException {
+    return cover[cellIndex(row, col)];
+  }
+
+  /**
+   * Returns the exact probability that a cell holds a ship when every legal layout is equally
+   * likely.
+   *
+   * @param row the row index (0-based)
+   * @param col the column index (0-based)
+   * @return the share of the layouts covering the cell, 0 if there is no layout
+   * @throws IndexOutOfBoundsException if the cell is off the board
+   */
+  public double probability(int row, int col) throws IndexOutOfBoundsException {
+    return total == 0 ? 0 : (double) cover[cellIndex(row, col)] / total;
+  }
+
+  /**
+   * Returns the probability of every cell, like {@link #probability}.
+   *
+   * @return a new height x width array of probabilities
+   */
+  public double[][] probabilities() {
+    double[][] grid = new double[height][width];
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        grid[i][j] = probability(i, j);
+      }
+    }
+    return grid;
+  }
+
+  /**
+   * Returns the index of a cell.
+   *
+   * @throws IndexOutOfBoundsException if the cell is off the board
+   */
+  private int cellIndex(int row, int col) throws IndexOutOfBoundsException {
+    if (row < 0 || row >= height || col < 0 || col >= width) {
+      throw new IndexOutOfBoundsException("Cell (" + row + ", " + col + ") is off the board.");
+    }
+    return row * width + col;
+  }
+
+  /**
+   * Enumerates the legal layouts, in the order of the row-major scan. Only moves leading to at
+   * least one layout are followed, so no time is lost in dead ends and nothing is allocated per
+   * layout.
+   *
+   * @param visitor receives each layout and may stop the enumeration
+   * @return the number of layouts visited
+   */
+  public long forEachLayout(LayoutVisitor visitor) {
+    if (total == 0) {
+      return 0;
+    }
+    ShipType[] layoutTypes = new ShipType[shipCount];
+    int[] layout = new int[shipCount];
+    int[] state = new int[cells + 1];  // state at each level of the current path
+    int[] cursor = new int[cells];  // next edge to try at each level
+    int[] placed = new int[cells + 1];  // ships placed before each level
+    cursor[0] = edgeOffsets[0][0];
+    long visited = 0;
+    int level = 0;
+    while (level >= 0) {
+      if (level == cells) {
+        visited++;
+        if (!visitor.visit(layoutTypes, layout)) {
+          return visited;
+        }
+        level--;
+        continue;
+      }
+      int end = edgeOffsets[level][state[level] + 1];
+      while (cursor[level] < end
+          && completions[level + 1][edgeTargets[level][cursor[level]]] == 0) {
+        cursor[level]++;
+      }
+      if (cursor[level] == end) {
+        level--;
+        continue;
+      }
+      int e = cursor[level]++;
+      int kind = edgeKinds[level][e];
+      int ships = placed[level];
+      if (kind >= 2) {
+        layoutTypes[ships] = types[(kind - 2) >> 1];
+        layout[ships] = ReplayableModel.pack(level, (kind & 1) != 0);
+        ships++;
+      }
+      int target = edgeTargets[level][e];
+      level++;
+      state[level] = target;
+      placed[level] = ships;
+      if (level < cells) {
+        cursor[level] = edgeOffsets[level][target];
+      }
+    }
+    return visited;
+  }
+
+  /**
+   * Draws a layout uniformly at random among the legal ones: the scan walks the graph and takes
+   * each move with probability proportional to the layouts it leads to.
+   *
+   * @param random the random generator
+   * @param types  receives the type of each ship, in the order of their start cells
+   * @param layout receives the packed placement of each ship, as given to a
+   *               {@link LayoutVisitor}
+   * @throws IllegalArgumentException if an array's length is not the number of ships
+   * @throws IllegalStateException    if there is no legal layout
+   */
+  public void sample(RandomGenerator random, ShipType[] types, int[] layout)
+      throws IllegalArgumentException, IllegalStateException {
+    if (types.length != shipCount || layout.length != shipCount) {
+      throw new IllegalArgumentException("Layout arrays must hold " + shipCount + " ships.");
+    }
+    if (total == 0) {
+      throw new IllegalStateException("There is no legal layout.");
+    }
+    int state = 0;
+    int ships = 0;
+    for (int level = 0; level < cells; level++) {
+      long pick = random.nextLong(completions[level][state]);
+      int e = edgeOffsets[level][state];
+      while (pick >= completions[level + 1][edgeTargets[level][e]]) {
+        pick -= completions[level + 1][edgeTargets[level][e]];
+        e++;
+      }
+      int kind = edgeKinds[level][e];
+      if (kind >= 2) {
+        types[ships] = this.types[(kind - 2) >> 1];
+        layout[ships++] = ReplayableModel.pack(level, (kind & 1) != 0);
+      }
+      state = edgeTargets[level][e];
+    }
+  }
+
+  /**
+   * Returns the number of states of the graph, a measure of the work and memory the space
+   * took.
+   *
+   * @return the number of states over all levels
+   */
+  public long getStateCount() {
+    long states = 0;
+    for (long[] level : completions) {
+      states += level.length;
+    }
+    return states;
+  }
+
+  /**
+   * Sums the completions of a range of states of one level from those of the next level.
+   */
+  private class SumCompletions extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int level;
+    private final int from;
+    private final int to;
+
+    SumCompletions(int level, int from, int to) {
+      this.level = level;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > STATES_PER_TASK) {
+        int mid = (from + to) >>> 1;
+        invokeAll(new SumCompletions(level, from, mid), new SumCompletions(level, mid, to));
+        return;
+      }
+      int[] offsets = edgeOffsets[level];
+      int[] targets = edgeTargets[level];
+      long[] next = completions[level + 1];
+      for (int i = from; i < to; i++) {
+        long sum = 0;
+        for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+          sum = Math.addExact(sum, next[targets[e]]);
+        }
+        completions[level][i] = sum;
+      }
+    }
+  }
+
+  /**
+   * The states of one level, deduplicated through an open-addressing hash table.
+   */
+  private static final class StateTable {
+    private long[] lo = new long[16];  // cells ahead already covered, low word
+    private long[] hi = new long[16];  // cells ahead already covered, high word
+    private int[] fleet = new int[16];  // code of the ships left
+    private int size;  // number of states
+    private int[] slots = new int[32];  // 1 + index of the state in each slot, 0 if free
+
+    /**
+     * Returns the index of a state, adding it if new.
+     */
+    int indexOf(long stateLo, long stateHi, int stateFleet) {
+      int mask = slots.length - 1;
+      long h = stateLo * 0x9E3779B97F4A7C15L + stateHi * 0xC2B2AE3D27D4EB4FL + stateFleet;
+      int slot = (int) (h ^ (h >>> 32)) & mask;
+      while (slots[slot] != 0) {
+        int i = slots[slot] - 1;
+        if (lo[i] == stateLo && hi[i] == stateHi && fleet[i] == stateFleet) {
+          return i;
+        }
+        slot = (slot + 1) & mask;
+      }
+      if (size == lo.length) {
+        lo = Arrays.copyOf(lo, size * 2);
+        hi = Arrays.copyOf(hi, size * 2);
+        fleet = Arrays.copyOf(fleet, size * 2);
+      }
+      lo[size] = stateLo;
+      hi[size] = stateHi;
+      fleet[size] = stateFleet;
+      slots[slot] = ++size;
+      if (size * 2 > slots.length) {
+        rehash();
+      }
+      return size - 1;
+    }
+
+    /**
+     * Double the hash table.
+     */
+    private void rehash() {
+      slots = new int[slots.length * 2];
+      int mask = slots.length - 1;
+      for (int i = 0; i < size; i++) {
+        long h = lo[i] * 0x9E3779B97F4A7C15L + hi[i] * 0xC2B2AE3D27D4EB4FL + fleet[i];
+        int slot = (int) (h ^ (h >>> 32)) & mask;
+        while (slots[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        slots[slot] = i + 1;
+      }
+    }
+  }
+
+  /**
+   * The edges of one level, in a growable pair of arrays.
+   */
+  private static final class EdgeList {
+    private int[] targets = new int[64];
+    private byte[] kinds = new byte[64];
+    private int size;
+
+    void add(int target, byte kind) {
+      if (size == targets.length) {
+        targets = Arrays.copyOf(targets, size * 2);
+        kinds = Arrays.copyOf(kinds, size * 2);
+      }
+      targets[size] = target;
+      kinds[size++] = kind;
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package battleship;
+
+/**
+ * Receives the layouts enumerated by {@link LayoutSpace#forEachLayout}.
+ */
+@FunctionalInterface
+public interface LayoutVisitor {
+
+  /**
+   * Visits one layout. Ships are listed in the order of their start cells, and each placement
+   * is packed as the start cell (row * width + col of the top or left end) shifted left by one,
+   * with the low bit set for vertical ships. Both arrays are reused for the next layout.
+   *
+   * @param types  the type of each ship
+   * @param layout the packed placement of each ship
+   * @return true to go on with the next layout, false to stop
+   */
+  boolean visit(ShipType[] types, int[] layout);
+}
@@ -0,0 +1,262 @@
+package battleship;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Load generator for {@link GameServer}: opens many connections from one thread and has each
+ * play games with random guesses, one request in flight per connection, for a given time. It
+ * reports completed games, guesses, errors and a histogram of request latencies.
+ *
+ * <p>Each connection uses its own local port, so on loopback a single client address can hold
+ * roughly as many connections as the ephemeral port range, about 28,000 on Linux by default.
+ */
+public class LoadGenerator {
+
+  private static final byte[] NEW_REQUEST = "NEW\n".getBytes(StandardCharsets.US_ASCII);
+  private static final int BUFFER_SIZE = 256;  // request and reply buffer of a connection
+
+  private final InetSocketAddress server;  // address of the server
+  private final int connections;  // number of connections
+  private final long seed;  // seed of the guesses
+  private final LatencyHistogram latency = new LatencyHistogram();  // request round trips
+  private long gamesCompleted;  // games played to the end
+  private long guesses;  // guesses answered
+  private long errors;  // requests answered with ERR
+  private long elapsedNanos;  // duration of the last run
+
+  /**
+   * Constructor for a LoadGenerator.
+   *
+   * @param server      address of the server
+   * @param connections number of connections, each playing one game at a time
+   * @param seed        seed of the guesses
+   * @throws IllegalArgumentException if server is null or connections is not positive
+   */
+  public LoadGenerator(InetSocketAddress server, int connections, long seed)
+      throws IllegalArgumentException {
+    if (server == null) {
+      throw new IllegalArgumentException("Server address cannot be null.");
+    }
+    if (connections <= 0) {
+      throw new IllegalArgumentException("Connection count must be positive.");
+    }
+    this.server = server;
+    this.connections = connections;
+    this.seed = seed;
+  }
+
+  /**
+   * Connects, plays for the given time and closes the connections. Replies still in flight when
+   * the time is up are not counted.
+   *
+   * @param durationNanos how long to play, in nanoseconds
+   * @throws IOException if a connection cannot be opened or fails
+   */
+  public void run(long durationNanos) throws IOException {
+    SplittableRandom random = new SplittableRandom(seed);
+    List<Player> players = new ArrayList<>(connections);
+    try (Selector selector = Selector.open()) {
+      try {
+        for (int i = 0; i < connections; i++) {
+          SocketChannel channel = SocketChannel.open();
+          players.add(new Player(channel, random.split()));
+          channel.configureBlocking(false);
+          channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+          channel.connect(server);
+          channel.register(selector, SelectionKey.OP_CONNECT, players.get(i));
+        }
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+        for (long now = start; now - end < 0; now = System.nanoTime()) {
+          selector.select(Math.max(1, (end - now) / 1_000_000));
+          Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+          while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            ((Player) key.attachment()).serve(key);
+          }
+        }
+        elapsedNanos = System.nanoTime() - start;
+      } finally {
+        for (Player player : players) {
+          player.channel.close();
+        }
+      }
+    }
+  }
+
+  /**
+   * One connection playing games.
+   */
+  private final class Player {
+    private final SocketChannel channel;
+    private final SplittableRandom random;  // source of the guesses
+    private final RandomGuessStrategy strategy = new RandomGuessStrategy();
+    private final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);  // unread replies
+    private final ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);  // unsent requests
+    private int width;  // width of the board, 0 before the first game
+    private int row;  // row of the guess in flight
+    private int col;  // column of the guess in flight
+    private long sentAt;  // time the request in flight was sent
+
+    private Player(SocketChannel channel, SplittableRandom random) {
+      this.channel = channel;
+      this.random = random;
+    }
+
+    /**
+     * Finish connecting, read the replies that arrived and send the next request.
+     */
+    private void serve(SelectionKey key) throws IOException {
+      if (key.isConnectable()) {
+        channel.finishConnect();
+        request(NEW_REQUEST);
+      }
+      if (key.isReadable()) {
+        if (channel.read(in) < 0) {
+          throw new IOException("Server closed the connection.");
+        }
+        in.flip();
+        int lineStart = in.position();
+        for (int i = lineStart; i < in.limit(); i++) {
+          if (in.get(i) == '\n') {
+            reply(lineStart, i);
+            lineStart = i + 1;
+          }
+        }
+        in.position(lineStart);
+        in.compact();
+      }
+      out.flip();
+      channel.write(out);
+      out.compact();
+      key.interestOps(out.position() > 0 ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    /**
+     * Queue a request and start timing it.
+     */
+    private void request(byte[] request) {
+      out.put(request);
+      sentAt = System.nanoTime();
+    }
+
+    /**
+     * Handle the reply line between start and end and queue the next request.
+     */
+    private void reply(int start, int end) {
+      latency.record(System.nanoTime() - sentAt);
+      byte first = in.get(start);
+      if (first == 'O') {
+        int[] numbers = numbers(start + 3, end);
+        width = numbers[1];
+        strategy.newGame(numbers[0], width, random);
+        guess();
+      } else if (first == 'H' || first == 'M') {
+        guesses++;
+        strategy.guessResult(row, col, first == 'H');
+        byte last = in.get(end - 1);
+        if (last == 'N' || last == 'T') {  // WON or LOST
+          gamesCompleted++;
+          request(NEW_REQUEST);
+        } else {
+          guess();
+        }
+      } else {
+        errors++;
+        request(NEW_REQUEST);
+      }
+    }
+
+    /**
+     * Queue the next guess of the game.
+     */
+    private void guess() {
+      int cell = strategy.nextGuess();
+      row = cell / width;
+      col = cell % width;
+      sentAt = System.nanoTime();
+      out.put((byte) 'G').put((byte) ' ');
+      putInt(row);
+      out.put((byte) ' ');
+      putInt(col);
+      out.put((byte) '\n');
+    }
+
+    private void putInt(int value) {
+      out.put(Integer.toString(value).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Returns the first two numbers separated by spaces between start and end.
+     */
+    private int[] numbers(int start, int end) {
+      int[] numbers = new int[2];
+      int n = 0;
+      for (int i = start; i < end && n < 2; i++) {
+        byte b = in.get(i);
+        if (b == ' ') {
+          n++;
+        } else {
+          numbers[n] = numbers[n] * 10 + (b - '0');
+        }
+      }
+      return numbers;
+    }
+  }
+
+  /**
+   * Returns the number of games played to the end.
+   *
+   * @return the number of games
+   */
+  public long getGamesCompleted() {
+    return gamesCompleted;
+  }
+
+  /**
+   * Returns the number of guesses answered.
+   *
+   * @return the number of guesses
+   */
+  public long getGuesses() {
+    return guesses;
+  }
+
+  /**
+   * Returns the number of requests answered with an error.
+   *
+   * @return the number of errors
+   */
+  public long getErrors() {
+    return errors;
+  }
+
+  /**
+   * Returns the histogram of request round trips.
+   *
+   * @return the histogram
+   */
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  @Override
+  public String toString() {
+    double seconds = elapsedNanos / 1e9;
+    return String.format("%d connections: %d games (%.0f/s), %d guesses (%.0f/s), %d errors%n"
+            + "latency: %s", connections, gamesCompleted, gamesCompleted / seconds, guesses,
+        guesses / seconds, errors, latency);
+  }
+}
@@ -0,0 +1,22 @@
+package battleship;
+
+/**
+ * How a model places its fleet at the start of a game.
+ */
+public enum PlacementMode {
+  /**
+   * Each ship in turn picks an orientation at random, then a start cell uniformly among the legal
+   * ones with that orientation. Starting a game fails if the chosen orientation has no room left.
+   */
+  ORIENTATION_FIRST,
+
+  /**
+   * Every legal layout of the fleet is equally likely. Each ship draws a placement uniformly among
+   * all of its placements, both orientations together, and the draw is rejected against the
+   * occupied cells; any overlap restarts the whole fleet. On a board of more than 128 cells where
+   * overlaps keep restarting the fleet, ships are placed one by one among their legal placements
+   * instead, which is not exactly uniform. Starting a game fails if the fleet has no legal layout
+   * at all, or on such a large board if none was found within a bounded number of attempts.
+   */
+  UNIFORM
+}
@@ -0,0 +1,176 @@
+package battleship;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable table of every in-bounds placement of a ship of one size on a board of at most 128
+ * cells. Cells are numbered row * width + col and each placement's body is stored as a pair of
+ * longs (cells 0-63 in the low word, 64-127 in the high word). Horizontal placements come first,
+ * followed by the vertical ones.
+ * Tables are built lazily, once per JVM, and shared by every model through {@link #of}.
+ */
+final class PlacementTable {
+
+  private static final ConcurrentHashMap<Long, PlacementTable> CACHE =
+      new ConcurrentHashMap<>();
+
+  private final int height;  // height of the map
+  private final int width;  // width of the map
+  private final int size;  // length of the ship
+  private final int horizontalCount;  // number of horizontal placements
+  private final int[] starts;  // start cell of each placement
+  private final long[] masksLo;  // low word of each placement's body
+  private final long[] masksHi;  // high word of each placement's body
+
+  /**
+   * Returns the shared placement table for a board and ship size, building it on first use.
+   *
+   * @param height height of the map
+   * @param width  width of the map
+   * @param size   length of the ship
+   * @return the placement table
+   * @throws IllegalArgumentException if the board does not fit in two longs or size is not
+   *                                  positive
+   */
+  static PlacementTable of(int height, int width, int size) throws IllegalArgumentException {
+    if (height <= 0 || width <= 0 || height * width > 128) {
+      throw new IllegalArgumentException("Board must have between 1 and 128 cells.");
+    }
+    if (size <= 0) {
+      throw new IllegalArgumentException("Ship size must be positive.");
+    }
+    long key = ((long) height << 40) | ((long) width << 32) | size;
+    return CACHE.computeIfAbsent(key, k -> new PlacementTable(height, width, size));
+  }
+
+  /**
+   * Builds the table of a board and ship size.
+   */
+  private PlacementTable(int height, int width, int size) {
+    this.height = height;
+    this.width = width;
+    this.size = size;
+    int horizontal = width >= size ? height * (width - size + 1) : 0;
+    int vertical = height >= size ? (height - size + 1) * width : 0;
+    horizontalCount = horizontal;
+    starts = new int[horizontal + vertical];
+    masksLo = new long[horizontal + vertical];
+    masksHi = new long[horizontal + vertical];
+
+    int p = 0;
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j + size <= width; j++) {
+        fill(p++, i * width + j, 1);
+      }
+    }
+    for (int i = 0; i + size <= height; i++) {
+      for (int j = 0; j < width; j++) {
+        fill(p++, i * width + j, width);
+      }
+    }
+  }
+
+  /**
+   * Set up one placement of the table.
+   *
+   * @param placement the placement index
+   * @param start     the start cell
+   * @param step      distance between consecutive cells of the body
+   */
+  private void fill(int placement, int start, int step) {
+    long lo = 0;
+    long hi = 0;
+    for (int k = 0, cell = start; k < size; k++, cell += step) {
+      if (cell < 64) {
+        lo |= 1L << cell;
+      } else {
+        hi |= 1L << (cell - 64);
+      }
+    }
+    starts[placement] = start;
+    masksLo[placement] = lo;
+    masksHi[placement] = hi;
+  }
+
+  /**
+   * Returns the height of the board this table was built for.
+   */
+  int getHeight() {
+    return height;
+  }
+
+  /**
+   * Returns the width of the board this table was built for.
+   */
+  int getWidth() {
+    return width;
+  }
+
+  /**
+   * Returns the ship length this table was built for.
+   */
+  int getSize() {
+    return size;
+  }
+
+  /**
+   * Returns the total number of placements.
+   */
+  int size() {
+    return starts.length;
+  }
+
+  /**
+   * Returns the index of the first placement with the given orientation.
+   */
+  int firstPlacement(boolean isVertical) {
+    return isVertical ? horizontalCount : 0;
+  }
+
+  /**
+   * Returns the index one past the last placement with the given orientation.
+   */
+  int endPlacement(boolean isVertical) {
+    return isVertical ? starts.length : horizontalCount;
+  }
+
+  /**
+   * Returns whether a placement is vertical.
+   */
+  boolean isVertical(int placement) {
+    return placement >= horizontalCount;
+  }
+
+  /**
+   * Returns the start cell of a placement.
+   */
+  int start(int placement) {
+    return starts[placement];
+  }
+
+  /**
+   * Returns the low word of a placement's body mask.
+   */
+  long maskLo(int placement) {
+    return masksLo[placement];
+  }
+
+  /**
+   * Returns the high word of a placement's body mask.
+   */
+  long maskHi(int placement) {
+    return masksHi[placement];
+  }
+
+  /**
+   * Checks whether a placement avoids every occupied cell.
+   *
+   * @param placement  the placement index
+   * @param occupiedLo low word of the occupied cells
+   * @param occupiedHi high word of the occupied cells
+   * @return true if the placement does not overlap
+   */
+  boolean fits(int placement, long occupiedLo, long occupiedHi) {
+    return ((masksLo[placement] & occupiedLo) | (masksHi[placement] & occupiedHi)) == 0;
+  }
+}
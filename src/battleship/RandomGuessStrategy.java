@@ -0,0 +1,45 @@
+package battleship;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A strategy that guesses unguessed cells uniformly at random, ignoring the results.
+ * The cells are drawn from a reused array with a partial Fisher-Yates shuffle, so each guess is
+ * constant time and no cell is guessed twice.
+ */
+public class RandomGuessStrategy implements GuessStrategy {
+
+  private int[] cells = new int[0];  // cell order, the first `drawn` entries have been guessed
+  private int drawn;  // number of cells guessed so far
+  private RandomGenerator random;
+
+  @Override
+  public void newGame(int height, int width, RandomGenerator random) {
+    int count = height * width;
+    if (cells.length != count) {
+      cells = new int[count];
+      for (int i = 0; i < count; i++) {
+        cells[i] = i;
+      }
+    }
+    this.drawn = 0;
+    this.random = random;
+  }
+
+  @Override
+  public int nextGuess() {
+    if (drawn >= cells.length) {
+      throw new IllegalStateException("Every cell has already been guessed.");
+    }
+    int pick = drawn + random.nextInt(cells.length - drawn);
+    int cell = cells[pick];
+    cells[pick] = cells[drawn];
+    cells[drawn++] = cell;
+    return cell;
+  }
+
+  @Override
+  public void guessResult(int row, int col, boolean hit) {
+    // random guessing does not learn from results
+  }
+}
@@ -0,0 +1,78 @@
+package battleship;
+
+/**
+ * A model that can also start a game from a given ship layout instead of a random one, which is
+ * how recorded games are replayed. A layout holds one packed placement per ship: the start cell
+ * (row * width + col of the top or left end of the ship) shifted left by one, with the low bit
+ * set for vertical ships.
+ */
+interface ReplayableModel extends BattleshipModel {
+
+  /**
+   * Packs a placement into a layout entry.
+   *
+   * @param start      the start cell of the ship
+   * @param isVertical whether the ship is vertical
+   * @return the packed placement
+   */
+  static int pack(int start, boolean isVertical) {
+    return (start << 1) | (isVertical ? 1 : 0);
+  }
+
+  /**
+   * Returns the start cell of a packed placement.
+   */
+  static int start(int packed) {
+    return packed >>> 1;
+  }
+
+  /**
+   * Returns whether a packed placement is vertical.
+   */
+  static boolean isVertical(int packed) {
+    return (packed & 1) != 0;
+  }
+
+  /**
+   * Matches the ships of a layout to the slots of a fleet: the k-th ship of a type in the fleet
+   * gets the k-th ship of that type in the layout.
+   *
+   * @param fleet the type of each fleet slot
+   * @param types the type of each ship of the layout
+   * @param slots receives, for each fleet slot, the index of its ship in the layout
+   * @throws IllegalArgumentException if the layout's ships are not the fleet's
+   */
+  static void matchFleet(ShipType[] fleet, ShipType[] types, int[] slots)
+      throws IllegalArgumentException {
+    if (types.length != fleet.length) {
+      throw new IllegalArgumentException("Layout does not match the fleet.");
+    }
+    for (int j = 0; j < fleet.length; j++) {
+      int occurrence = 0;
+      for (int i = 0; i < j; i++) {
+        if (fleet[i] == fleet[j]) {
+          occurrence++;
+        }
+      }
+      slots[j] = -1;
+      for (int s = 0; s < types.length && slots[j] < 0; s++) {
+        if (types[s] == fleet[j] && occurrence-- == 0) {
+          slots[j] = s;
+        }
+      }
+      if (slots[j] < 0) {
+        throw new IllegalArgumentException("Layout does not match the fleet.");
+      }
+    }
+  }
+
+  /**
+   * Starts a new game with the given ships at the given places.
+   *
+   * @param types  the type of each ship; together they must be the model's fleet, in any order
+   * @param layout the packed placement of each ship
+   * @throws IllegalArgumentException if the types do not match the fleet or a ship is off the
+   *                                  board or overlaps another; the current game is then kept
+   */
+  void startGame(ShipType[] types, int[] layout) throws IllegalArgumentException;
+}
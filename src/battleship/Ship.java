@@ -1,24 +1,36 @@
 package battleship;
 
-import java.util.ArrayList;
-
 /**
  * Represents a ship in the Battleship game.
- * Each ship has a type and a boolean flag indicating
- * whether it has been sunk.
+ * Each ship has a type, the cells of its body and a boolean flag indicating
+ * whether it has been sunk. Body cells are packed as row * width + col, see
+ * {@link Coordinates}.
  */
 public class Ship {
-  private ArrayList<Vector2Int> body = new ArrayList<>();
-  private ShipType type;
+  private final int[] body;
+  private final ShipType type;
   private boolean isDead;
 
+  /**
+   * Constructor for a Ship object that is not placed yet.
+   *
+   * @param type the type of the ship
+   */
+  public Ship(ShipType type) {
+    this(type, new int[type.getSize()]);
+  }
+
   /**
    * Constructor for a Ship object.
    *
    * @param type the type of the ship
-   * @param body the body positions of the ship
+   * @param body the packed cells of the ship, owned by the ship from now on
+   * @throws IllegalArgumentException if the body length does not match the ship's size
    */
-  public Ship(ShipType type, ArrayList<Vector2Int> body) {
+  public Ship(ShipType type, int[] body) throws IllegalArgumentException {
+    if (body.length != type.getSize()) {
+      throw new IllegalArgumentException("A " + type + " has " + type.getSize() + " cells.");
+    }
     this.type = type;
     this.isDead = false;
     this.body = body;
@@ -50,21 +62,31 @@ public class Ship {
   }
 
   /**
-   * Returns the body positions of the ship.
+   * Marks the ship as not sunk, so it can be reused in a new game.
+   */
+  public void revive() {
+    isDead = false;
+  }
+
+  /**
+   * Returns the body cells of the ship. The array is the ship's own and is updated in place when
+   * the ship moves.
    *
-   * @return the body positions of the ship
+   * @return the packed cells of the ship
    */
-  public ArrayList<Vector2Int> getBody() {
+  public int[] getBody() {
     return body;
   }
 
   /**
-   * Set the body positions of the ship.
+   * Moves the ship so that its body starts at a cell and runs in steps of the given length.
    *
-   * @param body the body positions of the ship
+   * @param start the packed cell of the top or left end of the ship
+   * @param step  1 for a horizontal ship, the board width for a vertical one
    */
-  public void setBody(ArrayList<Vector2Int> body) {
-    this.body = body;
+  public void place(int start, int step) {
+    for (int i = 0; i < body.length; i++) {
+      body[i] = start + i * step;
+    }
   }
-
 }
@@ -0,0 +1,383 @@
+package battleship;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Places ships on a board of any size without allocating.
+ * Cells are numbered row * width + col and the occupied cells are kept as a bitset of longs.
+ * The placements of a ship of a given size are numbered like in {@link PlacementTable}:
+ * horizontal ones first, row by row, then vertical ones, whose index minus the number of
+ * horizontal placements is their start cell.
+ *
+ * <p>A random legal placement is found by drawing placements uniformly and rejecting those that
+ * overlap, which costs a few bit tests on a sparse board regardless of its size. Only when many
+ * draws in a row fail does the placer fall back to counting every legal placement. On boards of
+ * at most 128 cells the overlap test uses the shared {@link PlacementTable} masks, a single AND
+ * per word.
+ *
+ * <p>{@link #randomLayout} places a whole fleet uniformly among its legal layouts for
+ * {@link PlacementMode#UNIFORM}.
+ */
+class ShipPlacer {
+
+  private static final int MAX_ATTEMPTS = 64;  // random draws before enumerating
+  private static final int MAX_RESTARTS = 256;  // fleet draws before sampling exactly
+  private static final int MAX_SEQUENTIAL_RESTARTS = 1024;  // sequential fleets on larger boards
+
+  private final int height;  // height of the map
+  private final int width;  // width of the map
+  private final PlacementTable[] tables;  // masks of each ship type on small boards, else null
+  private final long[] occupied;  // bitset of the occupied cells
+  private int retries;  // draws rejected since takeRetries was last called
+  private LayoutSpace exactSpace;  // layouts of exactFleet, built if rejection keeps failing
+  private ShipType[] exactFleet;
+
+  /**
+   * Constructor for a ShipPlacer.
+   *
+   * @param height height of the map
+   * @param width  width of the map
+   */
+  ShipPlacer(int height, int width) {
+    this.height = height;
+    this.width = width;
+    this.occupied = new long[(height * width + 63) >>> 6];
+    if (height * width <= 128) {
+      ShipType[] types = ShipType.values();
+      tables = new PlacementTable[types.length];
+      for (ShipType type : types) {
+        tables[type.ordinal()] = PlacementTable.of(height, width, type.getSize());
+      }
+    } else {
+      tables = null;
+    }
+  }
+
+  /**
+   * Remove every ship from the board.
+   */
+  void clear() {
+    Arrays.fill(occupied, 0);
+  }
+
+  /**
+   * Returns the number of horizontal placements of a ship size.
+   */
+  private int horizontalCount(int size) {
+    return size <= width ? height * (width - size + 1) : 0;
+  }
+
+  /**
+   * Returns the number of placements of a ship size with the given orientation.
+   */
+  private int placementCount(int size, boolean isVertical) {
+    if (!isVertical) {
+      return horizontalCount(size);
+    }
+    return size <= height ? (height - size + 1) * width : 0;
+  }
+
+  /**
+   * Returns whether a placement is vertical.
+   *
+   * @param type      the ship type
+   * @param placement the placement
+   * @return true if the placement is vertical
+   */
+  boolean isVertical(ShipType type, int placement) {
+    return placement >= horizontalCount(type.getSize());
+  }
+
+  /**
+   * Returns the start cell of a placement.
+   *
+   * @param type      the ship type
+   * @param placement the placement
+   * @return the cell of the top or left end of the ship
+   */
+  int start(ShipType type, int placement) {
+    int horizontal = horizontalCount(type.getSize());
+    if (placement >= horizontal) {
+      return placement - horizontal;
+    }
+    int cols = width - type.getSize() + 1;
+    return placement / cols * width + placement % cols;
+  }
+
+  /**
+   * Returns the placement of a ship with the given start cell and orientation.
+   *
+   * @param type       the ship type
+   * @param start      the cell of the top or left end of the ship
+   * @param isVertical whether the ship is vertical
+   * @return the placement, or -1 if the ship would leave the board
+   */
+  int placementOf(ShipType type, int start, boolean isVertical) {
+    int size = type.getSize();
+    if (start < 0 || start >= height * width) {
+      return -1;
+    }
+    int row = start / width;
+    int col = start % width;
+    if (isVertical) {
+      return row + size <= height ? horizontalCount(size) + start : -1;
+    }
+    return col + size <= width ? row * (width - size + 1) + col : -1;
+  }
+
+  /**
+   * Checks whether a placement avoids every occupied cell.
+   *
+   * @param type      the ship type
+   * @param placement the placement
+   * @return true if the placement does not overlap another ship
+   */
+  boolean fits(ShipType type, int placement) {
+    if (tables != null) {
+      return tables[type.ordinal()].fits(placement, occupied[0],
+          occupied.length > 1 ? occupied[1] : 0);
+    }
+    int step = isVertical(type, placement) ? width : 1;
+    for (int k = 0, cell = start(type, placement); k < type.getSize(); k++, cell += step) {
+      if ((occupied[cell >>> 6] & (1L << cell)) != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Picks a placement for a ship uniformly among the legal ones with the given orientation.
+   *
+   * @param type       the ship type
+   * @param isVertical whether the ship is vertical
+   * @param random     the random generator
+   * @return the placement, or -1 if the ship has no legal place with that orientation
+   */
+  int randomPlacement(ShipType type, boolean isVertical, RandomGenerator random) {
+    int count = placementCount(type.getSize(), isVertical);
+    if (count == 0) {
+      return -1;
+    }
+    int first = isVertical ? horizontalCount(type.getSize()) : 0;
+    for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+      int placement = first + random.nextInt(count);
+      if (fits(type, placement)) {
+        return placement;
+      }
+      retries++;
+    }
+
+    // crowded board: count the legal placements and pick one of them
+    int legalCount = 0;
+    for (int p = first; p < first + count; p++) {
+      if (fits(type, p)) {
+        legalCount++;
+      }
+    }
+    if (legalCount == 0) {
+      return -1;
+    }
+    int remaining = random.nextInt(legalCount);
+    for (int p = first; ; p++) {
+      if (fits(type, p) && remaining-- == 0) {
+        return p;
+      }
+    }
+  }
+
+  /**
+   * Places a fleet uniformly among its legal layouts and marks its cells as occupied. Every ship
+   * draws a placement among all of its placements and the draw is tested against the occupied
+   * cells; on an overlap the whole fleet starts again, which keeps every layout equally likely.
+   * A failed draw removes only the ships it placed, so it costs no more than the draw itself.
+   * On the classic board four draws in ten succeed, so a fleet costs a few dozen bit operations
+   * per ship. Where the fleet barely fits and {@value #MAX_RESTARTS} draws fail, a board of at
+   * most 128 cells draws the layout exactly from the {@link LayoutSpace} of the fleet instead.
+   * Larger boards have no layout space: there the fleet is placed ship by ship, largest first,
+   * each among its legal placements, restarting on a dead end. That layout is not exactly
+   * uniform, and after {@value #MAX_SEQUENTIAL_RESTARTS} dead ends the placer gives up.
+   *
+   * @param fleet      the ships to place
+   * @param random     the random generator
+   * @param placements receives the placement of each ship
+   * @return false if the fleet has no legal layout
+   * @throws IllegalStateException if the board has more than 128 cells and no layout was found
+   *                               within the bound, though one may exist
+   */
+  boolean randomLayout(ShipType[] fleet, RandomGenerator random, int[] placements)
+      throws IllegalStateException {
+    clear();
+    for (int attempt = 0; attempt < MAX_RESTARTS; attempt++) {
+      int s = 0;
+      while (s < fleet.length) {
+        int size = fleet[s].getSize();
+        int count = horizontalCount(size) + placementCount(size, true);
+        if (count == 0) {
+          return false;
+        }
+        int placement = random.nextInt(count);
+        if (!fits(fleet[s], placement)) {
+          break;
+        }
+        occupy(fleet[s], placement);
+        placements[s++] = placement;
+      }
+      if (s == fleet.length) {
+        return true;
+      }
+      for (int k = 0; k < s; k++) {
+        vacate(fleet[k], placements[k]);
+      }
+      retries++;
+    }
+    if (tables == null) {
+      return sequentialLayout(fleet, random, placements);
+    }
+    return exactLayout(fleet, random, placements);
+  }
+
+  /**
+   * Place a fleet ship by ship, largest first, each uniformly among the legal placements of a
+   * random orientation, or of the other one if that has none. A ship with no legal placement
+   * left starts the fleet again.
+   *
+   * @throws IllegalStateException if every attempt ends in a dead end
+   */
+  private boolean sequentialLayout(ShipType[] fleet, RandomGenerator random, int[] placements)
+      throws IllegalStateException {
+    int maxSize = 0;
+    for (ShipType type : fleet) {
+      maxSize = Math.max(maxSize, type.getSize());
+    }
+    int[] order = new int[fleet.length];  // fleet indices, largest ship first
+    int n = 0;
+    for (int size = maxSize; size > 0; size--) {
+      for (int s = 0; s < fleet.length; s++) {
+        if (fleet[s].getSize() == size) {
+          order[n++] = s;
+        }
+      }
+    }
+    for (int attempt = 0; attempt < MAX_SEQUENTIAL_RESTARTS; attempt++) {
+      int placed = 0;
+      while (placed < n) {
+        ShipType type = fleet[order[placed]];
+        boolean isVertical = random.nextBoolean();
+        int placement = randomPlacement(type, isVertical, random);
+        if (placement < 0) {
+          placement = randomPlacement(type, !isVertical, random);
+        }
+        if (placement < 0) {
+          break;
+        }
+        occupy(type, placement);
+        placements[order[placed++]] = placement;
+      }
+      if (placed == n) {
+        return true;
+      }
+      for (int k = 0; k < placed; k++) {
+        vacate(fleet[order[k]], placements[order[k]]);
+      }
+      retries++;
+    }
+    throw new IllegalStateException("No layout of the fleet was found in "
+        + MAX_SEQUENTIAL_RESTARTS + " attempts; it may not fit on this board.");
+  }
+
+  /**
+   * Draw a fleet's layout from its layout space, built on first use.
+   *
+   * @return false if the fleet has no legal layout
+   */
+  private boolean exactLayout(ShipType[] fleet, RandomGenerator random, int[] placements) {
+    if (exactFleet != fleet) {
+      exactSpace = new LayoutSpace(new GameConfig(height, width, 1, List.of(fleet)), null);
+      exactFleet = fleet;
+    }
+    if (exactSpace.count() == 0) {
+      return false;
+    }
+    ShipType[] types = new ShipType[fleet.length];
+    int[] layout = new int[fleet.length];
+    int[] slots = new int[fleet.length];
+    exactSpace.sample(random, types, layout);
+    ReplayableModel.matchFleet(fleet, types, slots);
+    clear();
+    for (int s = 0; s < fleet.length; s++) {
+      int packed = layout[slots[s]];
+      placements[s] = placementOf(fleet[s], ReplayableModel.start(packed),
+          ReplayableModel.isVertical(packed));
+      occupy(fleet[s], placements[s]);
+    }
+    return true;
+  }
+
+  /**
+   * Returns the number of random draws rejected since the last call: single placements that
+   * overlapped a ship, and whole fleets drawn again by {@link #randomLayout}.
+   *
+   * @return the number of retries
+   */
+  int takeRetries() {
+    int taken = retries;
+    retries = 0;
+    return taken;
+  }
+
+  /**
+   * Mark the cells of a placement as occupied.
+   *
+   * @param type      the ship type
+   * @param placement the placement
+   * @return the start cell of the placement
+   */
+  int occupy(ShipType type, int placement) {
+    int start = start(type, placement);
+    int step = isVertical(type, placement) ? width : 1;
+    for (int k = 0, cell = start; k < type.getSize(); k++, cell += step) {
+      occupied[cell >>> 6] |= 1L << cell;
+    }
+    return start;
+  }
+
+  /**
+   * Remove a ship from the board, undoing {@link #occupy}.
+   *
+   * @param type      the ship type
+   * @param placement the placement of the ship on the board
+   */
+  void vacate(ShipType type, int placement) {
+    int step = isVertical(type, placement) ? width : 1;
+    for (int k = 0, cell = start(type, placement); k < type.getSize(); k++, cell += step) {
+      occupied[cell >>> 6] &= ~(1L << cell);
+    }
+  }
+
+  /**
+   * Returns the placement table of a ship type, available on boards of at most 128 cells.
+   *
+   * @param type the ship type
+   * @return the shared placement table
+   * @throws IllegalStateException if the board has more than 128 cells
+   */
+  PlacementTable table(ShipType type) throws IllegalStateException {
+    if (tables == null) {
+      throw new IllegalStateException("Placement tables need a board of at most 128 cells.");
+    }
+    return tables[type.ordinal()];
+  }
+
+  /**
+   * Returns one word of the occupied-cell bitset.
+   *
+   * @param index the word index; word i holds cells 64 * i to 64 * i + 63
+   * @return the word, or 0 past the end of the board
+   */
+  long occupiedWord(int index) {
+    return index < occupied.length ? occupied[index] : 0;
+  }
+}
@@ -0,0 +1,120 @@
+package battleship;
+
+import java.util.Arrays;
+
+/**
+ * Aggregate statistics of a batch of simulated games: number of games and wins, a histogram of
+ * the number of guesses each game took, and the number of hits landed on each ship type.
+ * Each simulation worker fills its own instance, which are then merged into the final result.
+ */
+public class SimulationStats {
+
+  private long games;  // number of games played
+  private long wins;  // number of games where every ship was sunk
+  private long[] guessHistogram = new long[0];  // games by number of guesses made
+  private final long[] hitsPerShipType = new long[ShipType.values().length];
+
+  /**
+   * Record the outcome of one game.
+   *
+   * @param guessCount number of guesses made in the game
+   * @param won        whether every ship was sunk
+   */
+  void recordGame(int guessCount, boolean won) {
+    games++;
+    if (won) {
+      wins++;
+    }
+    if (guessCount >= guessHistogram.length) {
+      guessHistogram = Arrays.copyOf(guessHistogram, guessCount + 1);
+    }
+    guessHistogram[guessCount]++;
+  }
+
+  /**
+   * Record a hit on a ship.
+   *
+   * @param type the type of the ship that was hit
+   */
+  void recordHit(ShipType type) {
+    hitsPerShipType[type.ordinal()]++;
+  }
+
+  /**
+   * Add the statistics of another batch to this one.
+   *
+   * @param other the statistics to add
+   */
+  void merge(SimulationStats other) {
+    games += other.games;
+    wins += other.wins;
+    if (other.guessHistogram.length > guessHistogram.length) {
+      guessHistogram = Arrays.copyOf(guessHistogram, other.guessHistogram.length);
+    }
+    for (int i = 0; i < other.guessHistogram.length; i++) {
+      guessHistogram[i] += other.guessHistogram[i];
+    }
+    for (int i = 0; i < hitsPerShipType.length; i++) {
+      hitsPerShipType[i] += other.hitsPerShipType[i];
+    }
+  }
+
+  /**
+   * Returns the number of games played.
+   *
+   * @return the number of games
+   */
+  public long getGames() {
+    return games;
+  }
+
+  /**
+   * Returns the number of games where every ship was sunk.
+   *
+   * @return the number of wins
+   */
+  public long getWins() {
+    return wins;
+  }
+
+  /**
+   * Returns the fraction of games won.
+   *
+   * @return the win rate, or 0 if no game was played
+   */
+  public double getWinRate() {
+    return games == 0 ? 0 : (double) wins / games;
+  }
+
+  /**
+   * Returns the guess-count histogram.
+   *
+   * @return a copy of the histogram, where entry i is the number of games that took i guesses
+   */
+  public long[] getGuessHistogram() {
+    return guessHistogram.clone();
+  }
+
+  /**
+   * Returns the number of hits landed on ships of a type, over all games.
+   *
+   * @param type the ship type
+   * @return the number of hits
+   */
+  public long getHits(ShipType type) {
+    return hitsPerShipType[type.ordinal()];
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("games=").append(games)
+        .append(" wins=").append(wins)
+        .append(" winRate=").append(getWinRate())
+        .append(" guessHistogram=").append(Arrays.toString(guessHistogram));
+    for (ShipType type : ShipType.values()) {
+      sb.append(' ').append(type.name()).append('=').append(getHits(type));
+    }
+    return sb.toString();
+  }
+}
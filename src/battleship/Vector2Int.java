@@ -2,7 +2,10 @@ package battleship;
 
 /**
  * Represents a 2D integer vector.
+ *
+ * @deprecated the models keep coordinates as packed ints; use {@link Coordinates} instead
  */
+@Deprecated
 public class Vector2Int {
   public int gridX;
   public int gridY;
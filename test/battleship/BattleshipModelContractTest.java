@@ -0,0 +1,304 @@
+package battleship;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks of the {@link BattleshipModel} contract that every engine must pass. Each engine's test
+ * extends this class and says how to create its model.
+ */
+public abstract class BattleshipModelContractTest {
+
+  protected BattleshipModel model;  // default game of the engine under test, started
+
+  /**
+   * Creates a model of the engine under test.
+   *
+   * @param config the board size, guess limit and fleet
+   * @param random the generator placing the ships
+   * @return a new model, before its first game
+   */
+  protected abstract BattleshipModel newModel(GameConfig config, RandomGenerator random);
+
+  @Before
+  public void setUp() {
+    model = newModel(GameConfig.DEFAULT, RandomGenerator.getDefault());
+    model.startGame();
+  }
+
+  /**
+   * Returns a model of the engine under test with a game started.
+   */
+  private BattleshipModel startedModel(long seed) {
+    BattleshipModel model = newModel(GameConfig.DEFAULT, new SplittableRandom(seed));
+    model.startGame();
+    return model;
+  }
+
+  @Test
+  public void testSameSeedProducesSameLayout() {
+    for (long seed = 0; seed < 20; seed++) {
+      assertArrayEquals(startedModel(seed).getShipGrid(), startedModel(seed).getShipGrid());
+    }
+  }
+
+  @Test
+  public void testGetCellGridReturnsCopy() {
+    BattleshipModel model = startedModel(1);
+    model.getCellGrid()[0][0] = CellState.HIT;
+    assertEquals(CellState.UNKNOWN, model.getCellGrid()[0][0]);
+  }
+
+  @Test
+  public void testBoardViewMatchesGrids() {
+    BattleshipModel model = startedModel(1);
+    BoardView view = model.getBoardView();
+    model.makeGuess(3, 4);
+    model.makeGuess(7, 1);
+    CellState[][] cellGrid = model.getCellGrid();
+    ShipType[][] shipGrid = model.getShipGrid();
+    assertEquals(10, view.getHeight());
+    assertEquals(10, view.getWidth());
+    for (int i = 0; i < 10; i++) {
+      for (int j = 0; j < 10; j++) {
+        assertEquals(cellGrid[i][j], view.cellAt(i, j));
+        assertEquals(shipGrid[i][j], view.shipAt(i, j));
+      }
+    }
+    assertSame(view, model.getBoardView());
+  }
+
+  @Test
+  public void testMakeGuessesMatchesSingleGuesses() {
+    BattleshipModel single = startedModel(3);
+    BattleshipModel batched = startedModel(3);
+    int[] rows = {0, 4, 4, 9, 2, 7};
+    int[] cols = {0, 5, 5, 1, 8, 3};
+    boolean[] hits = new boolean[rows.length];
+    assertEquals(rows.length, batched.makeGuesses(rows, cols, hits));
+    for (int i = 0; i < rows.length; i++) {
+      assertEquals(single.makeGuess(rows[i], cols[i]), hits[i]);
+    }
+    assertArrayEquals(single.getCellGrid(), batched.getCellGrid());
+    assertEquals(single.getGuessCount(), batched.getGuessCount());
+  }
+
+  @Test
+  public void testMakeGuessesStopsWhenGameIsOver() {
+    BattleshipModel model = startedModel(1);
+    int[] cells = new int[15];
+    for (int i = 0; i < cells.length; i++) {
+      cells[i] = 99 - i;
+    }
+    boolean[] hits = new boolean[cells.length];
+    assertEquals(model.getMaxGuesses(), model.makeGuesses(cells, hits));
+    assertTrue(model.isGameOver());
+    assertEquals(CellState.UNKNOWN, model.getCellGrid()[8][9]);
+  }
+
+  @Test
+  public void testMakeGuessesRejectsWholeBatchOutOfBounds() {
+    BattleshipModel model = startedModel(1);
+    try {
+      model.makeGuesses(new int[] {1, 2, 10}, new int[] {1, 2, 3}, new boolean[3]);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals(0, model.getGuessCount());
+      assertEquals(CellState.UNKNOWN, model.getCellGrid()[1][1]);
+    }
+  }
+
+  @Test
+  public void testVisualMapIsInitialized() {
+
+    CellState[][] visualMap = model.getCellGrid();
+    assertNotNull(visualMap);
+    assertEquals(10, visualMap.length);
+    assertEquals(10, visualMap[0].length);
+  }
+
+  @Test
+  public void testShipsArePlacedOnBoard() {
+    ShipType[][] shipGrid = model.getShipGrid();
+    assertNotNull(shipGrid);
+    assertEquals(10, shipGrid.length);
+    assertEquals(10, shipGrid[0].length);
+
+    int shipCount = 0;
+    for (ShipType[] row : shipGrid) {
+      for (ShipType cell : row) {
+        if (cell != null) {
+          shipCount++;
+        }
+      }
+    }
+    assertTrue(shipCount > 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMakeGuessThrowsIllegalArgumentExceptionForOutOfBounds() {
+    model.makeGuess(-1, 0); // Out of bounds
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMakeGuessThrowsIllegalStateExceptionIfGameOver() {
+    while (!model.isGameOver()) {
+      model.makeGuess(0, 0);
+    }
+    model.makeGuess(0, 0);
+  }
+
+  @Test
+  public void testMakeGuessIncrementsGuessCount() {
+    int initialGuessCount = model.getGuessCount();
+    model.makeGuess(0, 0);
+    assertEquals(initialGuessCount + 1, model.getGuessCount());
+  }
+
+  @Test
+  public void testMakeGuessIdentifiesHit() {
+    boolean hit = model.makeGuess(0, 0);
+    assertTrue(
+        hit == true || hit == false);  // cannot know true or false as map is generated randomly
+  }
+
+  @Test
+  public void testMakeGuessUpdatesVisualMap() {
+    model.makeGuess(0, 0);
+    CellState[][] visualMap = model.getCellGrid();
+    assertNotNull(visualMap);
+    assertTrue(visualMap[0][0] == CellState.HIT || visualMap[0][0] == CellState.MISS);
+  }
+
+
+  @Test
+  public void testIsGameOverMaxGuessesReached() {
+    for (int i = 0; i < model.getMaxGuesses(); i++) {
+      model.makeGuess(0, 0);
+    }
+    assertTrue(model.isGameOver());
+  }
+
+  @Test
+  public void testIsGameOverFalse() {
+    assertFalse(model.isGameOver());
+  }
+
+  @Test
+  public void areAllShipsSunk() {
+    assertFalse(model.areAllShipsSunk());  // how to test the true case?
+  }
+
+  @Test
+  public void testGetGuessCountInitial() {
+    assertEquals(0, model.getGuessCount());
+  }
+
+  @Test
+  public void testGetGuessCountAfterOneGuess() {
+    model.makeGuess(0, 0);
+    assertEquals(1, model.getGuessCount());
+  }
+
+
+  @Test
+  public void getMaxGuesses() {
+    assertEquals(10, model.getMaxGuesses());
+  }
+
+
+  @Test
+  public void testGetCellGridNotNull() {
+    CellState[][] visualMap = model.getCellGrid();
+    assertNotNull(visualMap);
+  }
+
+  @Test
+  public void testGetCellGridInitialState() {
+    CellState[][] visualMap = model.getCellGrid();
+    for (int i = 0; i < visualMap.length; i++) {
+      for (int j = 0; j < visualMap[i].length; j++) {
+        assertEquals(CellState.UNKNOWN, visualMap[i][j]);
+      }
+    }
+  }
+
+  @Test
+  public void testGetShipGrid() {
+    ShipType[][] shipGrid = model.getShipGrid();
+    assertNotNull(shipGrid);
+
+    for (int i = 0; i < shipGrid.length; i++) {
+      for (int j = 0; j < shipGrid[i].length; j++) {
+        ShipType cell = shipGrid[i][j];
+        if (cell != null) {
+          assertTrue(cell instanceof ShipType);  // dont know what else could test here
+        }
+
+      }
+    }
+  }
+
+  @Test
+  public void testStartGameResetsState() {
+    for (int i = 0; i < model.getMaxGuesses(); i++) {
+      model.makeGuess(i, i);
+    }
+    model.startGame();
+    assertEquals(0, model.getGuessCount());
+    assertFalse(model.isGameOver());
+    for (CellState[] row : model.getCellGrid()) {
+      for (CellState cell : row) {
+        assertEquals(CellState.UNKNOWN, cell);
+      }
+    }
+    int shipCells = 0;
+    for (ShipType[] row : model.getShipGrid()) {
+      for (ShipType cell : row) {
+        if (cell != null) {
+          shipCells++;
+        }
+      }
+    }
+    assertEquals(17, shipCells);
+  }
+
+  @Test
+  public void testShipSinksOnlyWhenEverySegmentIsHit() {
+    GameConfig config = new GameConfig(10, 10, 100, List.of(ShipType.values()));
+    BattleshipModel game = newModel(config, new SplittableRandom(9));
+    game.startGame();
+    ShipType[][] shipGrid = game.getShipGrid();
+    int lastRow = -1;
+    int lastCol = -1;
+    for (int i = 0; i < 10; i++) {
+      for (int j = 0; j < 10; j++) {
+        if (shipGrid[i][j] == null) {
+          continue;
+        }
+        if (lastRow >= 0) {
+          assertTrue(game.makeGuess(lastRow, lastCol));
+          assertTrue(game.makeGuess(lastRow, lastCol));  // hitting twice counts once
+        }
+        lastRow = i;
+        lastCol = j;
+      }
+    }
+    assertFalse(game.areAllShipsSunk());
+    assertFalse(game.isGameOver());
+    assertTrue(game.makeGuess(lastRow, lastCol));
+    assertTrue(game.areAllShipsSunk());
+    assertTrue(game.isGameOver());
+  }
+}
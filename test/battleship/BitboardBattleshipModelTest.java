@@ -0,0 +1,66 @@
+package battleship;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.random.RandomGenerator;
+import org.junit.Test;
+
+public class BitboardBattleshipModelTest extends BattleshipModelContractTest {
+
+  @Override
+  protected BattleshipModel newModel(GameConfig config, RandomGenerator random) {
+    return new BitboardBattleshipModel(config, random);
+  }
+
+  @Test
+  public void testEveryShipIsPlacedWithItsSize() {
+    ShipType[][] shipGrid = model.getShipGrid();
+    int[] counts = new int[ShipType.values().length];
+    for (ShipType[] row : shipGrid) {
+      for (ShipType cell : row) {
+        if (cell != null) {
+          counts[cell.ordinal()]++;
+        }
+      }
+    }
+    for (ShipType type : ShipType.values()) {
+      assertEquals(type.getSize(), counts[type.ordinal()]);
+    }
+  }
+
+  @Test
+  public void testShipsAreStraightLines() {
+    ShipType[][] shipGrid = model.getShipGrid();
+    for (ShipType type : ShipType.values()) {
+      int minRow = 10;
+      int maxRow = -1;
+      int minCol = 10;
+      int maxCol = -1;
+      for (int i = 0; i < 10; i++) {
+        for (int j = 0; j < 10; j++) {
+          if (shipGrid[i][j] == type) {
+            minRow = Math.min(minRow, i);
+            maxRow = Math.max(maxRow, i);
+            minCol = Math.min(minCol, j);
+            maxCol = Math.max(maxCol, j);
+          }
+        }
+      }
+      assertTrue(minRow == maxRow || minCol == maxCol);
+      assertEquals(type.getSize(), (maxRow - minRow) + (maxCol - minCol) + 1);
+    }
+  }
+
+  @Test
+  public void testMakeGuessMatchesShipGrid() {
+    ShipType[][] shipGrid = model.getShipGrid();
+    for (int i = 0; i < model.getMaxGuesses(); i++) {
+      int row = 9 - i;
+      int col = (i * 3) % 10;
+      boolean hit = model.makeGuess(row, col);
+      assertEquals(shipGrid[row][col] != null, hit);
+      assertEquals(hit ? CellState.HIT : CellState.MISS, model.getCellGrid()[row][col]);
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package battleship;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+public class BoardRendererTest {
+
+  /**
+   * Renders a board the way the console front-end used to, one cell at a time.
+   */
+  private static String expected(BoardView board) {
+    StringBuilder text = new StringBuilder("\nCurrent Grid State:\n  ");
+    for (int j = 0; j < board.getWidth(); j++) {
+      text.append(j).append(' ');
+    }
+    text.append('\n');
+    for (int i = 0; i < board.getHeight(); i++) {
+      text.append((char) ('A' + i)).append(' ');
+      for (int j = 0; j < board.getWidth(); j++) {
+        text.append(board.cellAt(i, j).getSymbol()).append(' ');
+      }
+      text.append('\n');
+    }
+    text.append("\nShip Grid:\n  ");
+    for (int j = 0; j < board.getWidth(); j++) {
+      text.append(j).append(' ');
+    }
+    text.append('\n');
+    for (int i = 0; i < board.getHeight(); i++) {
+      text.append((char) ('A' + i)).append(' ');
+      for (int j = 0; j < board.getWidth(); j++) {
+        ShipType ship = board.shipAt(i, j);
+        text.append(ship == null ? "-" : ship.getSymbol()).append(' ');
+      }
+      text.append('\n');
+    }
+    return text.toString();
+  }
+
+  @Test
+  public void testFramesMatchTheConsoleFormat() throws IOException {
+    for (GameConfig config : new GameConfig[] {GameConfig.DEFAULT,
+        new GameConfig(20, 30, 50, List.of(ShipType.AIRCRAFT_CARRIER, ShipType.PATROL_BOAT))}) {
+      BattleshipModel model = new BattleshipModelImpl(config, new SplittableRandom(4));
+      model.startGame();
+      for (int i = 0; i < 8; i++) {
+        model.makeGuess(i, (i * 3) % 10);
+      }
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      BoardRenderer renderer = new BoardRenderer(Channels.newChannel(bytes));
+      BoardView board = model.getBoardView();
+      renderer.appendCellGrid(board).appendShipGrid(board).flush();
+      assertEquals(expected(board), bytes.toString(StandardCharsets.UTF_8));
+      assertEquals(bytes.size(), renderer.getBytesWritten());
+    }
+  }
+
+  @Test
+  public void testRowLabelsPastTheAsciiRangeAreEncoded() throws IOException {
+    // rows 63 and up are labelled with 2-byte characters, rows 1983 and up with 3-byte ones
+    for (GameConfig config : new GameConfig[] {
+        new GameConfig(100, 3, 10, List.of(ShipType.SUBMARINE)),
+        new GameConfig(2100, 2, 10, List.of(ShipType.PATROL_BOAT))}) {
+      BattleshipModel model = new BattleshipModelImpl(config, new SplittableRandom(6));
+      model.startGame();
+      model.makeGuess(config.getHeight() - 1, 1);
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      BoardRenderer renderer = new BoardRenderer(Channels.newChannel(bytes));
+      BoardView board = model.getBoardView();
+      renderer.appendCellGrid(board).appendShipGrid(board).flush();
+      String text = expected(board);
+      assertEquals(text, bytes.toString(StandardCharsets.UTF_8));
+      assertEquals(text.getBytes(StandardCharsets.UTF_8).length, renderer.getBytesWritten());
+    }
+  }
+
+  @Test
+  public void testEachFlushWritesOneFrame() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    BoardRenderer renderer = new BoardRenderer(Channels.newChannel(bytes));
+    renderer.appendLine("Hit!").flush();
+    renderer.flush();
+    renderer.appendLine("Miss!").flush();
+    assertEquals("Hit!\nMiss!\n", bytes.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testHeadlessRendererCountsBytes() throws IOException {
+    BattleshipModel model = new BitboardBattleshipModel(new SplittableRandom(5));
+    model.startGame();
+    BoardRenderer renderer = BoardRenderer.headless();
+    for (int frame = 0; frame < 3; frame++) {
+      renderer.appendCellGrid(model.getBoardView()).flush();
+    }
+    assertEquals(3L * expected(model.getBoardView()).indexOf("\nShip Grid:"),
+        renderer.getBytesWritten());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullChannelIsRejected() {
+    new BoardRenderer(null);
+  }
+}
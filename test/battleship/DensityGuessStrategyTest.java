@@ -0,0 +1,211 @@
+package battleship;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+public class DensityGuessStrategyTest {
+
+  /**
+   * Recounts the density of every cell from scratch.
+   */
+  private static long[][] recount(CellState[][] grid, List<ShipType> afloat) {
+    int height = grid.length;
+    int width = grid[0].length;
+    long[][] density = new long[height][width];
+    for (ShipType type : afloat) {
+      int size = type.getSize();
+      for (int vertical = 0; vertical < 2; vertical++) {
+        for (int i = 0; i + (vertical == 1 ? size : 1) <= height; i++) {
+          for (int j = 0; j + (vertical == 1 ? 1 : size) <= width; j++) {
+            int hitCount = 0;
+            boolean legal = true;
+            for (int k = 0; k < size; k++) {
+              CellState cell = vertical == 1 ? grid[i + k][j] : grid[i][j + k];
+              legal &= cell != CellState.MISS;
+              hitCount += cell == CellState.HIT ? 1 : 0;
+            }
+            for (int k = 0; legal && k < size; k++) {
+              density[vertical == 1 ? i + k : i][vertical == 1 ? j : j + k] += 1 + 20 * hitCount;
+            }
+          }
+        }
+      }
+    }
+    return density;
+  }
+
+  /**
+   * Sinks a ship of the given type on cells not yet guessed, as the strategy sees it: its cells
+   * are hit in turn, then the ship is reported sunk. Where the strategy can tell the wreck from
+   * the last hit alone, its cells are marked as misses, which is how they then count.
+   */
+  private static void sink(DensityGuessStrategy strategy, CellState[][] grid, ShipType type) {
+    int size = type.getSize();
+    for (int i = 0; i + size <= grid.length; i++) {
+      for (int j = 0; j < grid[0].length; j++) {
+        boolean free = true;
+        for (int k = 0; k < size; k++) {
+          free &= grid[i + k][j] == CellState.UNKNOWN;
+        }
+        if (!free) {
+          continue;
+        }
+        for (int k = 0; k < size; k++) {
+          grid[i + k][j] = CellState.HIT;
+          strategy.guessResult(i + k, j, true);
+        }
+        strategy.shipSunk(type);
+        int row = i + size - 1;  // the last hit
+        List<int[]> wrecks = new ArrayList<>();
+        for (int vertical = 0; vertical < 2; vertical++) {
+          for (int back = 0; back < size; back++) {
+            int top = vertical == 1 ? row - back : row;
+            int left = vertical == 1 ? j : j - back;
+            boolean allHits = top >= 0 && left >= 0
+                && (vertical == 1 ? top + size <= grid.length : left + size <= grid[0].length);
+            for (int k = 0; allHits && k < size; k++) {
+              allHits = (vertical == 1 ? grid[top + k][left] : grid[top][left + k])
+                  == CellState.HIT;
+            }
+            if (allHits) {
+              wrecks.add(new int[] {top, left, vertical});
+            }
+          }
+        }
+        if (wrecks.size() == 1) {
+          int[] wreck = wrecks.get(0);
+          for (int k = 0; k < size; k++) {
+            grid[wreck[0] + (wreck[2] == 1 ? k : 0)][wreck[1] + (wreck[2] == 1 ? 0 : k)] =
+                CellState.MISS;
+          }
+        }
+        return;
+      }
+    }
+  }
+
+  @Test
+  public void testIncrementalDensityMatchesRecount() {
+    SplittableRandom random = new SplittableRandom(3);
+    DensityGuessStrategy strategy = new DensityGuessStrategy();
+    strategy.newGame(10, 10, random);
+    CellState[][] grid = new CellState[10][10];
+    for (CellState[] row : grid) {
+      Arrays.fill(row, CellState.UNKNOWN);
+    }
+    List<ShipType> afloat = new ArrayList<>(Arrays.asList(ShipType.values()));
+
+    for (int shot = 0; shot < 60; shot++) {
+      int row = random.nextInt(10);
+      int col = random.nextInt(10);
+      boolean hit = random.nextInt(4) == 0;
+      if (grid[row][col] == CellState.UNKNOWN) {
+        grid[row][col] = hit ? CellState.HIT : CellState.MISS;
+        strategy.guessResult(row, col, hit);
+      }
+      if (shot % 15 == 14) {
+        sink(strategy, grid, afloat.remove(0));
+      }
+      long[][] expected = recount(grid, afloat);
+      for (int i = 0; i < 10; i++) {
+        for (int j = 0; j < 10; j++) {
+          assertEquals(expected[i][j], strategy.getDensity(i, j));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSunkShipNoLongerCountsAsHits() {
+    DensityGuessStrategy strategy = new DensityGuessStrategy();
+    strategy.newGame(10, 10, new SplittableRandom(2));
+    strategy.guessResult(4, 4, true);
+    strategy.guessResult(4, 5, true);
+    long target = strategy.getDensity(4, 6);
+    strategy.shipSunk(ShipType.PATROL_BOAT);
+    CellState[][] grid = new CellState[10][10];
+    for (CellState[] row : grid) {
+      Arrays.fill(row, CellState.UNKNOWN);
+    }
+    grid[4][4] = CellState.MISS;
+    grid[4][5] = CellState.MISS;
+    List<ShipType> afloat = new ArrayList<>(Arrays.asList(ShipType.values()));
+    afloat.remove(ShipType.PATROL_BOAT);
+    assertEquals(recount(grid, afloat)[4][6], strategy.getDensity(4, 6));
+    assertTrue(strategy.getDensity(4, 6) < target / 2);
+  }
+
+  @Test
+  public void testListenerSeesTheSinkingHitFirst() {
+    GameConfig config = new GameConfig(1, 2, 2, List.of(ShipType.PATROL_BOAT));
+    BattleshipModel model = new BitboardBattleshipModel(config, new SplittableRandom(1));
+    DensityGuessStrategy strategy = new DensityGuessStrategy(config.getFleet());
+    strategy.newGame(1, 2, new SplittableRandom(1));
+    model.addGameListener(strategy);
+    model.startGame();
+    model.makeGuess(0, 0);
+    model.makeGuess(0, 1);
+    assertEquals(0, strategy.getDensity(0, 0));
+    assertEquals(0, strategy.getDensity(0, 1));
+  }
+
+  @Test
+  public void testObserveAppliesCellGrid() {
+    BattleshipModel model = new BattleshipModelImpl(new SplittableRandom(1));
+    model.startGame();
+    model.makeGuess(4, 4);
+    model.makeGuess(0, 9);
+    DensityGuessStrategy strategy = new DensityGuessStrategy();
+    strategy.newGame(10, 10, new SplittableRandom(1));
+    strategy.observe(model.getCellGrid());
+
+    List<ShipType> fleet = Arrays.asList(ShipType.values());
+    long[][] expected = recount(model.getCellGrid(), fleet);
+    for (int i = 0; i < 10; i++) {
+      for (int j = 0; j < 10; j++) {
+        assertEquals(expected[i][j], strategy.getDensity(i, j));
+      }
+    }
+  }
+
+  @Test
+  public void testFiresAtDensestCellAndNeverRepeats() {
+    DensityGuessStrategy strategy = new DensityGuessStrategy();
+    strategy.newGame(10, 10, new SplittableRandom(5));
+    boolean[] seen = new boolean[100];
+    for (int shot = 0; shot < 100; shot++) {
+      int cell = strategy.nextGuess();
+      long density = strategy.getDensity(cell / 10, cell % 10);
+      for (int c = 0; c < 100; c++) {
+        if (!seen[c]) {
+          assertTrue(strategy.getDensity(c / 10, c % 10) <= density);
+        }
+      }
+      assertFalse(seen[cell]);
+      seen[cell] = true;
+      strategy.guessResult(cell / 10, cell % 10, false);
+    }
+  }
+
+  @Test
+  public void testBeatsRandomGuessing() {
+    SimulationStats density = new GameSimulator(BitboardBattleshipModel::new,
+        DensityGuessStrategy::new).run(2000, 11L);
+    SimulationStats random = new GameSimulator(BitboardBattleshipModel::new,
+        RandomGuessStrategy::new).run(2000, 11L);
+    long densityHits = 0;
+    long randomHits = 0;
+    for (ShipType type : ShipType.values()) {
+      densityHits += density.getHits(type);
+      randomHits += random.getHits(type);
+    }
+    assertTrue(densityHits > randomHits);
+  }
+}
@@ -0,0 +1,103 @@
+package battleship;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+public class FingerprintCacheTest {
+
+  /**
+   * Returns an LRU map of the given capacity to check a cache against.
+   */
+  private static LinkedHashMap<Long, Long> referenceLru(int capacity) {
+    return new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+        return size() > capacity;
+      }
+    };
+  }
+
+  /**
+   * Returns keys whose home bucket in a cache is the given one.
+   */
+  private static long[] keysInBucket(FingerprintCache<?> cache, int bucket, int count) {
+    long[] keys = new long[count];
+    int found = 0;
+    for (long key = 0; found < count; key++) {
+      if (cache.bucketOf(key) == bucket) {
+        keys[found++] = key;
+      }
+    }
+    return keys;
+  }
+
+  @Test
+  public void testCacheEvictsTheLeastRecentlyUsedKey() {
+    FingerprintCache<String> cache = new FingerprintCache<>(3);
+    cache.put(1, "one");
+    cache.put(2, "two");
+    cache.put(3, "three");
+    assertEquals("one", cache.get(1));
+    cache.put(4, "four");
+    assertNull(cache.get(2));
+    assertEquals(3, cache.size());
+    assertEquals("three", cache.computeIfAbsent(3, key -> "other"));
+    assertEquals("five", cache.computeIfAbsent(5, key -> "five"));
+    assertTrue(cache.containsKey(4));
+    assertTrue(!cache.containsKey(1));
+    assertEquals(2, cache.getHits());
+    assertEquals(2, cache.getMisses());
+  }
+
+  @Test
+  public void testCacheAgreesWithAReferenceLru() {
+    SplittableRandom random = new SplittableRandom(2);
+    FingerprintCache<Long> cache = new FingerprintCache<>(100);
+    LinkedHashMap<Long, Long> reference = referenceLru(100);
+    for (int i = 0; i < 200_000; i++) {
+      long key = random.nextInt(300) * 0x100000000L;  // keys that differ in high bits only
+      Long value = cache.computeIfAbsent(key, k -> k + 1);
+      assertEquals(reference.computeIfAbsent(key, k -> k + 1), value);
+      assertEquals(reference.size(), cache.size());
+    }
+    for (long key : reference.keySet()) {
+      assertTrue(cache.containsKey(key));
+    }
+  }
+
+  @Test
+  public void testEvictingCollidingKeysKeepsTheOthersReachable() {
+    // capacity 4 gives 16 buckets: homes 14 and 15 make clusters that wrap around to bucket 0
+    FingerprintCache<Long> cache = new FingerprintCache<>(4);
+    long[] first = keysInBucket(cache, 14, 6);
+    long[] second = keysInBucket(cache, 15, 6);
+    cache.put(first[0], 0L);  // bucket 14
+    cache.put(first[1], 1L);  // bucket 15
+    cache.put(second[0], 2L);  // bucket 0, past its home
+    cache.put(first[2], 3L);  // bucket 1
+    // evicting first[0] shifts every later entry of the cluster back one bucket
+    cache.put(second[1], 4L);
+    assertTrue(!cache.containsKey(first[0]));
+    assertEquals(Long.valueOf(1), cache.get(first[1]));
+    assertEquals(Long.valueOf(2), cache.get(second[0]));
+    assertEquals(Long.valueOf(3), cache.get(first[2]));
+    assertEquals(Long.valueOf(4), cache.get(second[1]));
+
+    SplittableRandom random = new SplittableRandom(5);
+    LinkedHashMap<Long, Long> reference = referenceLru(4);
+    for (int i = 0; i < 20_000; i++) {
+      long key = (random.nextBoolean() ? first : second)[random.nextInt(6)];
+      assertEquals(reference.computeIfAbsent(key, k -> k + 1),
+          cache.computeIfAbsent(key, k -> k + 1));
+      for (long kept : reference.keySet()) {
+        assertTrue(cache.containsKey(kept));
+      }
+    }
+  }
+}
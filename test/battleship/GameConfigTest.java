@@ -0,0 +1,103 @@
+package battleship;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+public class GameConfigTest {
+
+  @Test
+  public void testDefaultConfig() {
+    assertEquals(10, GameConfig.DEFAULT.getHeight());
+    assertEquals(10, GameConfig.DEFAULT.getWidth());
+    assertEquals(10, GameConfig.DEFAULT.getMaxGuesses());
+    assertEquals(List.of(ShipType.values()), GameConfig.DEFAULT.getFleet());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFleetMustFit() {
+    new GameConfig(2, 2, 4, List.of(ShipType.PATROL_BOAT, ShipType.SUBMARINE));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptyFleet() {
+    new GameConfig(10, 10, 10, List.of());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBoardTooLarge() {
+    new GameConfig(5000, 5000, 10, List.of(ShipType.PATROL_BOAT));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBitboardEngineRejectsLargeBoard() {
+    new BitboardBattleshipModel(new GameConfig(12, 12, 10, List.of(ShipType.PATROL_BOAT)),
+        new SplittableRandom(0));
+  }
+
+  @Test
+  public void testLargeBoardWithFleetMultiset() {
+    List<ShipType> fleet = new ArrayList<>(Collections.nCopies(200, ShipType.DESTROYER));
+    fleet.add(ShipType.AIRCRAFT_CARRIER);
+    GameConfig config = new GameConfig(1000, 1000, 5000, fleet);
+    BattleshipModelImpl model = new BattleshipModelImpl(config, new SplittableRandom(1));
+    model.startGame();
+
+    BoardView view = model.getBoardView();
+    assertEquals(1000, view.getHeight());
+    int destroyerCells = 0;
+    int shipRow = -1;
+    int shipCol = -1;
+    for (int i = 0; i < 1000; i++) {
+      for (int j = 0; j < 1000; j++) {
+        if (view.shipAt(i, j) == ShipType.DESTROYER) {
+          destroyerCells++;
+          shipRow = i;
+          shipCol = j;
+        }
+      }
+    }
+    assertEquals(600, destroyerCells);
+    assertTrue(model.makeGuess(shipRow, shipCol));
+    assertEquals(CellState.HIT, view.cellAt(shipRow, shipCol));
+    assertFalse(model.isGameOver());
+    assertEquals(5000, model.getMaxGuesses());
+
+    model.startGame();
+    assertEquals(CellState.UNKNOWN, view.cellAt(shipRow, shipCol));
+    assertEquals(0, model.getGuessCount());
+  }
+
+  @Test
+  public void testSmallBoardWithCustomFleet() {
+    GameConfig config = new GameConfig(4, 5, 20, List.of(ShipType.BATTLESHIP,
+        ShipType.PATROL_BOAT, ShipType.PATROL_BOAT));
+    for (BattleshipModel model : List.of(
+        new BattleshipModelImpl(config, new SplittableRandom(2)),
+        new BitboardBattleshipModel(config, new SplittableRandom(2)))) {
+      model.startGame();
+      ShipType[][] shipGrid = model.getShipGrid();
+      assertEquals(4, shipGrid.length);
+      assertEquals(5, shipGrid[0].length);
+      int cells = 0;
+      for (int i = 0; i < 4; i++) {
+        for (int j = 0; j < 5; j++) {
+          if (shipGrid[i][j] != null) {
+            cells++;
+            assertFalse(model.areAllShipsSunk());
+            model.makeGuess(i, j);
+          }
+        }
+      }
+      assertEquals(8, cells);
+      assertTrue(model.areAllShipsSunk());
+      assertTrue(model.isGameOver());
+    }
+  }
+}
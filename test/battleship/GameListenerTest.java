@@ -0,0 +1,103 @@
+package battleship;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+public class GameListenerTest {
+
+  /**
+   * Records every event as a string.
+   */
+  private static class Recorder implements GameListener {
+    private final List<String> events = new ArrayList<>();
+
+    @Override
+    public void onGuess(int row, int col, boolean hit) {
+      events.add("guess " + row + " " + col + " " + hit);
+    }
+
+    @Override
+    public void onHit(int row, int col) {
+      events.add("hit " + row + " " + col);
+    }
+
+    @Override
+    public void onMiss(int row, int col) {
+      events.add("miss " + row + " " + col);
+    }
+
+    @Override
+    public void onShipSunk(ShipType type) {
+      events.add("sunk " + type);
+    }
+
+    @Override
+    public void onGameOver(boolean allShipsSunk, int guessCount) {
+      events.add("over " + allShipsSunk + " " + guessCount);
+    }
+  }
+
+  /**
+   * Sinks every ship of a model on a small board and checks the events.
+   */
+  private static void checkEvents(BattleshipModel model) {
+    Recorder recorder = new Recorder();
+    model.addGameListener(recorder);
+    model.startGame();
+    ShipType[][] shipGrid = model.getShipGrid();
+
+    List<String> expected = new ArrayList<>();
+    int[] remaining = new int[ShipType.values().length];
+    for (ShipType type : ShipType.values()) {
+      remaining[type.ordinal()] = type.getSize();
+    }
+    int guesses = 0;
+    for (int i = 0; i < shipGrid.length && !model.isGameOver(); i++) {
+      for (int j = 0; j < shipGrid[i].length && !model.isGameOver(); j++) {
+        ShipType type = shipGrid[i][j];
+        model.makeGuess(i, j);
+        guesses++;
+        expected.add("guess " + i + " " + j + " " + (type != null));
+        expected.add((type != null ? "hit " : "miss ") + i + " " + j);
+        if (type != null && --remaining[type.ordinal()] == 0) {
+          expected.add("sunk " + type);
+        }
+      }
+    }
+    expected.add("over true " + guesses);
+    assertEquals(expected, recorder.events);
+
+    model.removeGameListener(recorder);
+    model.startGame();
+    model.makeGuess(0, 0);
+    assertEquals(expected.size(), recorder.events.size());
+  }
+
+  @Test
+  public void testBattleshipModelImplEvents() {
+    checkEvents(new BattleshipModelImpl(
+        new GameConfig(8, 8, 64, List.of(ShipType.values())), new SplittableRandom(4)));
+  }
+
+  @Test
+  public void testBitboardBattleshipModelEvents() {
+    checkEvents(new BitboardBattleshipModel(
+        new GameConfig(8, 8, 64, List.of(ShipType.values())), new SplittableRandom(4)));
+  }
+
+  @Test
+  public void testGameOverWhenOutOfGuesses() {
+    Recorder recorder = new Recorder();
+    BattleshipModel model = new BitboardBattleshipModel(new SplittableRandom(6));
+    model.addGameListener(recorder);
+    model.startGame();
+    while (!model.isGameOver()) {
+      model.makeGuess(0, 0);
+    }
+    assertEquals("over false 10", recorder.events.get(recorder.events.size() - 1));
+  }
+}
@@ -0,0 +1,117 @@
+package battleship;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+public class GameMetricsTest {
+
+  /**
+   * Counts the events a listener sees, to compare with the recorded metrics.
+   */
+  private static final class Counter implements GameListener {
+    private int guesses;
+    private int hits;
+    private int sinks;
+
+    @Override
+    public void onGuess(int row, int col, boolean hit) {
+      guesses++;
+      hits += hit ? 1 : 0;
+    }
+
+    @Override
+    public void onShipSunk(ShipType type) {
+      sinks++;
+    }
+  }
+
+  /**
+   * Plays games of a model to the end by sweeping the board, and checks the recorded counts.
+   */
+  private static void checkCounts(BattleshipModel model, GameMetricsRecorder recorder) {
+    Counter counter = new Counter();
+    model.addGameListener(counter);
+    for (int game = 0; game < 5; game++) {
+      model.startGame();
+      for (int cell = 0; !model.isGameOver(); cell++) {
+        model.makeGuess(cell / 10, cell % 10);
+      }
+    }
+    assertEquals(5, recorder.getGamesStarted());
+    assertEquals(counter.guesses, recorder.getGuesses());
+    assertEquals(counter.hits, recorder.getHits());
+    assertEquals(counter.sinks, recorder.getSinks());
+    assertEquals(25, recorder.getSinks());
+    assertEquals(5, recorder.getPlacementLatency().getCount());
+    assertEquals(counter.guesses, recorder.getGuessLatency().getCount());
+  }
+
+  @Test
+  public void testModelsReportEveryGameAndGuess() {
+    GameConfig config = new GameConfig(10, 10, 100, GameConfig.DEFAULT.getFleet());
+    GameMetricsRecorder recorder = new GameMetricsRecorder();
+    checkCounts(new BattleshipModelImpl(config, new SplittableRandom(1), recorder), recorder);
+    recorder.reset();
+    checkCounts(new BitboardBattleshipModel(config, new SplittableRandom(1), recorder), recorder);
+  }
+
+  @Test
+  public void testBatchedGuessesAreReported() {
+    GameMetricsRecorder recorder = new GameMetricsRecorder();
+    BattleshipModel model =
+        new BitboardBattleshipModel(GameConfig.DEFAULT, new SplittableRandom(2), recorder);
+    model.startGame();
+    int made = model.makeGuesses(new int[] {0, 1, 2, 3}, new boolean[4]);
+    assertEquals(made, recorder.getGuesses());
+  }
+
+  @Test
+  public void testCrowdedBoardsReportPlacementRetries() {
+    List<ShipType> fleet = List.of(ShipType.AIRCRAFT_CARRIER, ShipType.AIRCRAFT_CARRIER,
+        ShipType.AIRCRAFT_CARRIER, ShipType.AIRCRAFT_CARRIER);
+    GameMetricsRecorder recorder = new GameMetricsRecorder();
+    BattleshipModel model = new BattleshipModelImpl(
+        new GameConfig(5, 5, 10, fleet, PlacementMode.UNIFORM), new SplittableRandom(3), recorder);
+    model.startGame();
+    assertTrue(recorder.getPlacementRetries() > 0);
+  }
+
+  @Test
+  public void testNoopMetricsAreDisabled() {
+    assertFalse(GameMetrics.NOOP.isEnabled());
+    assertTrue(new GameMetricsRecorder().isEnabled());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullMetricsAreRejected() {
+    new BattleshipModelImpl(GameConfig.DEFAULT, new SplittableRandom(0), null);
+  }
+
+  @Test
+  public void testHistogramPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getPercentile(50));
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i);
+    }
+    histogram.record(-5);
+    assertEquals(101, histogram.getCount());
+    assertEquals(100, histogram.getMax());
+    assertEquals(5050 / 101.0, histogram.getMean(), 1e-9);
+    assertEquals(0, histogram.getPercentile(0));
+    assertEquals(63, histogram.getPercentile(50));
+    assertEquals(100, histogram.getPercentile(100));
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testHistogramRejectsIllegalPercentile() {
+    new LatencyHistogram().getPercentile(101);
+  }
+}
@@ -0,0 +1,167 @@
+package battleship;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GameRecordTest {
+
+  private static final int GAMES = 200;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Plays a game with random guesses, recording the guessed cells.
+   */
+  private static int play(BattleshipModel model, SplittableRandom random, int[] guesses) {
+    int count = 0;
+    while (!model.isGameOver()) {
+      int cell = random.nextInt(100);
+      guesses[count++] = cell;
+      model.makeGuess(cell / 10, cell % 10);
+    }
+    return count;
+  }
+
+  @Test
+  public void testRecordsReplayIntoBothModels() throws IOException {
+    Path directory = folder.getRoot().toPath().resolve("games");
+    CellState[][][] cellGrids = new CellState[GAMES][][];
+    ShipType[][][] shipGrids = new ShipType[GAMES][][];
+    int[] guesses = new int[10];
+    try (GameRecordWriter writer = new GameRecordWriter(directory, 1000)) {
+      for (int g = 0; g < GAMES; g++) {
+        BattleshipModel model = new BattleshipModelImpl(new SplittableRandom(g));
+        model.startGame();
+        int count = play(model, new SplittableRandom(-g), guesses);
+        cellGrids[g] = model.getCellGrid();
+        shipGrids[g] = model.getShipGrid();
+        writer.append(g, shipGrids[g], guesses, count);
+      }
+    }
+
+    List<Path> segments = GameRecordReader.segments(directory);
+    assertTrue(segments.size() > 1);
+    for (Path segment : segments) {
+      assertTrue(Files.size(segment) <= 1000);
+    }
+
+    BattleshipModel impl = new BattleshipModelImpl();
+    BattleshipModel bitboard = new BitboardBattleshipModel();
+    int g = 0;
+    for (Path segment : segments) {
+      try (GameRecordReader reader = new GameRecordReader(segment)) {
+        while (reader.next()) {
+          assertEquals(g, reader.getSeed());
+          assertEquals(ShipType.values().length, reader.getShipCount());
+          for (BattleshipModel model : new BattleshipModel[] {impl, bitboard}) {
+            reader.replay(model);
+            assertArrayEquals(shipGrids[g], model.getShipGrid());
+            assertArrayEquals(cellGrids[g], model.getCellGrid());
+          }
+          g++;
+        }
+      }
+    }
+    assertEquals(GAMES, g);
+  }
+
+  @Test
+  public void testShipsSideBySideAreDecoded() throws IOException {
+    GameConfig config = new GameConfig(4, 4, 16,
+        List.of(ShipType.PATROL_BOAT, ShipType.PATROL_BOAT, ShipType.SUBMARINE));
+    BattleshipModelImpl model = new BattleshipModelImpl(config, new SplittableRandom(1));
+    ShipType[] types = {ShipType.PATROL_BOAT, ShipType.PATROL_BOAT, ShipType.SUBMARINE};
+    // two vertical patrol boats side by side, a vertical submarine next to them
+    model.startGame(types, new int[] {
+        ReplayableModel.pack(0, true), ReplayableModel.pack(1, true),
+        ReplayableModel.pack(2, true)});
+    ShipType[][] shipGrid = model.getShipGrid();
+
+    Path directory = folder.getRoot().toPath();
+    try (GameRecordWriter writer = new GameRecordWriter(directory, 1 << 20)) {
+      writer.append(7, shipGrid, new int[] {0, 5}, 2);
+    }
+    try (GameRecordReader reader = new GameRecordReader(directory.resolve("games-000000.seg"))) {
+      assertTrue(reader.next());
+      assertEquals(2, reader.getGuessCount());
+      assertEquals(5, reader.getGuess(1));
+      reader.replay(model);
+      assertArrayEquals(shipGrid, model.getShipGrid());
+      assertEquals(CellState.HIT, model.getCellGrid()[1][1]);
+      assertFalse(reader.next());
+    }
+  }
+
+  @Test
+  public void testLayoutRecordsKeepTheirShipOrder() throws IOException {
+    LayoutSpace space = new LayoutSpace(GameConfig.DEFAULT, null);
+    SplittableRandom random = new SplittableRandom(11);
+    ShipType[][] types = new ShipType[20][ShipType.values().length];
+    int[][] layouts = new int[20][ShipType.values().length];
+    Path directory = folder.getRoot().toPath();
+    try (GameRecordWriter writer = new GameRecordWriter(directory, 1 << 20)) {
+      for (int g = 0; g < layouts.length; g++) {
+        space.sample(random, types[g], layouts[g]);
+        writer.append(g, 10, 10, types[g], layouts[g], new int[] {g}, 1);
+      }
+    }
+    BattleshipModelImpl model = new BattleshipModelImpl();
+    try (GameRecordReader reader = new GameRecordReader(directory.resolve("games-000000.seg"))) {
+      for (int g = 0; g < layouts.length; g++) {
+        assertTrue(reader.next());
+        for (int s = 0; s < layouts[g].length; s++) {
+          assertEquals(types[g][s], reader.getShipType(s));
+          assertEquals(layouts[g][s], reader.getShipPlacement(s));
+        }
+        reader.replay(model);
+        BattleshipModelImpl expected = new BattleshipModelImpl();
+        expected.startGame(types[g], layouts[g]);
+        assertArrayEquals(expected.getShipGrid(), model.getShipGrid());
+        assertEquals(1, model.getGuessCount());
+      }
+      assertFalse(reader.next());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLayoutRecordRejectsOverlap() throws IOException {
+    ShipType[] types = {ShipType.PATROL_BOAT, ShipType.SUBMARINE};
+    int[] layout = {ReplayableModel.pack(3, false), ReplayableModel.pack(4, true)};
+    try (GameRecordWriter writer = new GameRecordWriter(folder.getRoot().toPath(), 1 << 20)) {
+      writer.append(1, 10, 10, types, layout, new int[0], 0);
+    }
+  }
+
+  @Test
+  public void testNewWriterStartsANewSegment() throws IOException {
+    Path directory = folder.getRoot().toPath();
+    BattleshipModel model = new BattleshipModelImpl();
+    model.startGame();
+    for (int i = 0; i < 2; i++) {
+      try (GameRecordWriter writer = new GameRecordWriter(directory, 1 << 20)) {
+        writer.append(i, model.getShipGrid(), new int[0], 0);
+      }
+    }
+    assertEquals(2, GameRecordReader.segments(directory).size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPresetLayoutRejectsOverlap() {
+    BattleshipModelImpl model = new BattleshipModelImpl();
+    ShipType[] types = ShipType.values();
+    int[] layout = new int[types.length];
+    model.startGame(types, layout);
+  }
+}
@@ -0,0 +1,168 @@
+package battleship;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GameServerTest {
+
+  private GameServer server;
+  private InetSocketAddress address;
+
+  @Before
+  public void setUp() throws IOException {
+    server = new GameServer(GameConfig.DEFAULT, 100, TimeUnit.MINUTES.toNanos(1), 2);
+    address = server.start(new InetSocketAddress("127.0.0.1", 0));
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.close();
+  }
+
+  /**
+   * A blocking client speaking the line protocol.
+   */
+  private static final class Client implements AutoCloseable {
+    private final Socket socket;
+    private final OutputStream out;
+    private final BufferedReader in;
+
+    private Client(InetSocketAddress address) throws IOException {
+      socket = new Socket(address.getAddress(), address.getPort());
+      socket.setSoTimeout(5000);
+      out = socket.getOutputStream();
+      in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+          StandardCharsets.US_ASCII));
+    }
+
+    private void send(String text) throws IOException {
+      out.write(text.getBytes(StandardCharsets.US_ASCII));
+      out.flush();
+    }
+
+    private String call(String request) throws IOException {
+      send(request + "\n");
+      return in.readLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+      socket.close();
+    }
+  }
+
+  @Test
+  public void testPlaysAGameOverTheProtocol() throws IOException {
+    try (Client client = new Client(address)) {
+      assertTrue(client.call("G 0 0").startsWith("ERR "));
+      assertEquals("OK 10 10 10", client.call("NEW"));
+      assertEquals("BOARD " + "_".repeat(100), client.call("B"));
+      String reply = client.call("G 0 0");
+      assertTrue(reply, reply.equals("HIT 1") || reply.equals("MISS 1"));
+      assertEquals(reply.startsWith("HIT") ? 'H' : 'M', client.call("B").charAt(6));
+      for (int i = 1; i < 9; i++) {
+        assertTrue(client.call("G 1 " + i).endsWith(" " + (i + 1)));
+      }
+      assertTrue(client.call("G 2 0").matches("(HIT|MISS) 10 LOST"));
+      assertEquals("ERR Game is already over.", client.call("G 2 1"));
+      assertTrue(client.call("G 10 0").startsWith("ERR "));
+      assertEquals("ERR Expected G row col.", client.call("G 1"));
+      assertEquals("ERR Unknown request.", client.call("HELLO"));
+      assertEquals(1, server.getSessionCount());
+      assertEquals("BYE", client.call("Q"));
+      assertNull(client.in.readLine());
+    }
+  }
+
+  @Test
+  public void testPipelinedRequestsAreAnsweredInOrder() throws IOException {
+    try (Client client = new Client(address)) {
+      StringBuilder requests = new StringBuilder();
+      for (int game = 0; game < 50; game++) {
+        requests.append("NEW\r\nG 0 0\nB\n");
+      }
+      client.send(requests.toString());
+      for (int game = 0; game < 50; game++) {
+        assertEquals("OK 10 10 10", client.in.readLine());
+        assertTrue(client.in.readLine().endsWith(" 1"));
+        assertTrue(client.in.readLine().startsWith("BOARD "));
+      }
+      assertEquals(1, server.getSessionCount());
+    }
+  }
+
+  @Test
+  public void testLongRequestClosesTheConnection() throws IOException {
+    try (Client client = new Client(address)) {
+      client.send("G " + "1".repeat(GameServer.MAX_LINE));
+      assertEquals("ERR Request too long.", client.in.readLine());
+      assertNull(client.in.readLine());
+    }
+  }
+
+  @Test
+  public void testLoadGeneratorPlaysManyGames() throws IOException, InterruptedException {
+    LoadGenerator generator = new LoadGenerator(address, 50, 1);
+    generator.run(TimeUnit.MILLISECONDS.toNanos(500));
+    assertTrue(generator.getGamesCompleted() > 0);
+    assertEquals(0, generator.getErrors());
+    assertTrue(generator.getGuesses() >= 10 * generator.getGamesCompleted());
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (server.getConnectionCount() > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(0, server.getConnectionCount());
+    assertEquals(0, server.getSessionCount());
+  }
+
+  @Test
+  public void testSessionLimitIsReported() throws IOException {
+    GameServer small = new GameServer(
+        new GameConfig(4, 4, 16, List.of(ShipType.PATROL_BOAT)), 1, TimeUnit.MINUTES.toNanos(1),
+        1);
+    InetSocketAddress smallAddress = small.start(new InetSocketAddress("127.0.0.1", 0));
+    try (Client first = new Client(smallAddress); Client second = new Client(smallAddress)) {
+      assertEquals("OK 4 4 16", first.call("NEW"));
+      assertEquals("ERR Too many sessions: 1", second.call("NEW"));
+      assertEquals("OK 4 4 16", first.call("NEW"));
+    } finally {
+      small.close();
+    }
+  }
+
+  @Test
+  public void testLargeBoardIsSentInPieces() throws IOException {
+    // 40000 cells do not fit in the reply buffer, so each board is written as the client reads
+    GameServer large = new GameServer(new GameConfig(200, 200, 1000, List.of(ShipType.values())),
+        1, TimeUnit.MINUTES.toNanos(1), 1);
+    InetSocketAddress largeAddress = large.start(new InetSocketAddress("127.0.0.1", 0));
+    try (Client client = new Client(largeAddress)) {
+      client.send("NEW\nB\nG 0 5\nB\nQ\n");
+      assertEquals("OK 200 200 1000", client.in.readLine());
+      assertEquals("BOARD " + "_".repeat(40000), client.in.readLine());
+      String reply = client.in.readLine();
+      assertTrue(reply, reply.equals("HIT 1") || reply.equals("MISS 1"));
+      String board = client.in.readLine();
+      assertEquals(6 + 40000, board.length());
+      assertEquals(reply.startsWith("HIT") ? 'H' : 'M', board.charAt(6 + 5));
+      assertEquals(39999, board.chars().filter(c -> c == '_').count());
+      assertEquals("BYE", client.in.readLine());
+    } finally {
+      large.close();
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package battleship;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+public class GameSessionRegistryTest {
+
+  private final AtomicLong now = new AtomicLong();
+
+  private GameSessionRegistry registry(int maxSessions) {
+    return new GameSessionRegistry(BattleshipModelImpl::new, maxSessions, 100, now::get);
+  }
+
+  /**
+   * Returns whether a session could be created.
+   */
+  private static boolean tryCreate(GameSessionRegistry registry) {
+    try {
+      registry.createSession();
+      return true;
+    } catch (IllegalStateException e) {
+      return false;
+    }
+  }
+
+  @Test
+  public void testSessionsAreIndependent() {
+    GameSessionRegistry registry = registry(10);
+    long first = registry.createSession();
+    long second = registry.createSession();
+    assertNotEquals(first, second);
+    registry.makeGuess(first, 0, 0);
+    registry.makeGuess(first, 1, 1);
+    assertEquals(2, (int) registry.withSession(first, BattleshipModel::getGuessCount));
+    assertEquals(0, (int) registry.withSession(second, BattleshipModel::getGuessCount));
+    assertEquals(2, registry.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownSessionThrows() {
+    registry(10).makeGuess(42, 0, 0);
+  }
+
+  @Test
+  public void testIdleSessionsAreEvicted() {
+    GameSessionRegistry registry = registry(10);
+    long idle = registry.createSession();
+    now.set(60);
+    long active = registry.createSession();
+    now.set(120);
+    registry.makeGuess(active, 0, 0);
+    assertEquals(1, registry.evictIdle());
+    assertEquals(1, registry.size());
+    assertFalse(registry.removeSession(idle));
+    assertTrue(registry.removeSession(active));
+    assertEquals(0, registry.size());
+  }
+
+  @Test
+  public void testFullRegistryEvictsIdleSessions() {
+    GameSessionRegistry registry = registry(2);
+    long first = registry.createSession();
+    registry.createSession();
+    now.set(100);
+    registry.createSession();
+    assertEquals(1, registry.size());
+    assertFalse(registry.removeSession(first));
+  }
+
+  @Test
+  public void testFullRegistryScansOnlyOnceASessionCanBeIdle() {
+    AtomicLong clockReads = new AtomicLong();
+    GameSessionRegistry registry = new GameSessionRegistry(BattleshipModelImpl::new, 2, 100,
+        () -> {
+          clockReads.incrementAndGet();
+          return now.get();
+        });
+    long first = registry.createSession();
+    now.set(30);
+    long second = registry.createSession();
+    now.set(50);
+    assertFalse(tryCreate(registry));  // scans: the first session turns idle at 100
+    long reads = clockReads.get();
+    for (int i = 0; i < 1000; i++) {
+      assertFalse(tryCreate(registry));
+    }
+    assertEquals(reads + 1000, clockReads.get());  // one read per attempt, no scan
+
+    now.set(70);
+    registry.makeGuess(first, 0, 0);
+    now.set(100);
+    assertFalse(tryCreate(registry));  // scans, both used within the timeout
+    now.set(130);
+    assertTrue(tryCreate(registry));  // the second turned idle at 130
+    assertFalse(registry.removeSession(second));
+    assertTrue(registry.removeSession(first));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testFullRegistryOfActiveSessionsRejectsNewOnes() {
+    GameSessionRegistry registry = registry(2);
+    registry.createSession();
+    registry.createSession();
+    registry.createSession();
+  }
+
+  @Test
+  public void testConcurrentGuessesOnOneSessionAreSerialized() throws Exception {
+    int threads = 8;
+    int guessesPerThread = 1000;
+    GameConfig config = new GameConfig(10, 10, threads * guessesPerThread,
+        List.of(ShipType.PATROL_BOAT));
+    GameSessionRegistry registry = new GameSessionRegistry(
+        () -> new BattleshipModelImpl(config, new SplittableRandom(1)), 4,
+        TimeUnit.MINUTES.toNanos(1));
+    long id = registry.createSession();
+    ShipType[][] shipGrid = registry.withSession(id, BattleshipModel::getShipGrid);
+    int waterRow = -1;
+    int waterCol = -1;
+    for (int i = 0; i < 10 && waterRow < 0; i++) {
+      for (int j = 0; j < 10 && waterRow < 0; j++) {
+        if (shipGrid[i][j] == null) {
+          waterRow = i;
+          waterCol = j;
+        }
+      }
+    }
+    int row = waterRow;
+    int col = waterCol;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      Future<?>[] futures = new Future<?>[threads];
+      for (int t = 0; t < threads; t++) {
+        futures[t] = executor.submit(() -> {
+          for (int i = 0; i < guessesPerThread; i++) {
+            registry.makeGuess(id, row, col);
+          }
+        });
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(threads * guessesPerThread,
+        (int) registry.withSession(id, BattleshipModel::getGuessCount));
+    assertTrue(registry.withSession(id, BattleshipModel::isGameOver));
+  }
+}
@@ -0,0 +1,59 @@
+package battleship;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+public class GameSimulatorTest {
+
+  @Test
+  public void testStatsAreConsistent() {
+    GameSimulator simulator = new GameSimulator(BitboardBattleshipModel::new,
+        RandomGuessStrategy::new);
+    SimulationStats stats = simulator.run(3000, 7L);
+    assertEquals(3000, stats.getGames());
+
+    long[] histogram = stats.getGuessHistogram();
+    long games = 0;
+    for (long count : histogram) {
+      games += count;
+    }
+    assertEquals(3000, games);
+    // 17 ship cells cannot all be hit within 10 guesses
+    assertEquals(0, stats.getWins());
+    assertEquals(3000, histogram[10]);
+
+    long hits = 0;
+    for (ShipType type : ShipType.values()) {
+      hits += stats.getHits(type);
+    }
+    // roughly 17% of random guesses hit a ship
+    assertEquals(0.17, hits / 30000.0, 0.02);
+  }
+
+  @Test
+  public void testResultDoesNotDependOnParallelism() {
+    ForkJoinPool single = new ForkJoinPool(1);
+    ForkJoinPool several = new ForkJoinPool(4);
+    try {
+      SimulationStats first = new GameSimulator(BattleshipModelImpl::new,
+          RandomGuessStrategy::new, single).run(5000, 42L);
+      SimulationStats second = new GameSimulator(BattleshipModelImpl::new,
+          RandomGuessStrategy::new, several).run(5000, 42L);
+      assertArrayEquals(first.getGuessHistogram(), second.getGuessHistogram());
+      for (ShipType type : ShipType.values()) {
+        assertEquals(first.getHits(type), second.getHits(type));
+      }
+    } finally {
+      single.shutdown();
+      several.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeGames() {
+    new GameSimulator(BitboardBattleshipModel::new, RandomGuessStrategy::new).run(-1, 0L);
+  }
+}
@@ -0,0 +1,163 @@
+package battleship;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+public class GameSnapshotTest {
+
+  private static BattleshipModel[] models(GameConfig config) {
+    return new BattleshipModel[] {
+        new BattleshipModelImpl(config, new SplittableRandom(5)),
+        new BitboardBattleshipModel(config, new SplittableRandom(5))};
+  }
+
+  @Test
+  public void testSnapshotMatchesCellGrid() {
+    for (BattleshipModel model : models(GameConfig.DEFAULT)) {
+      model.startGame();
+      GameSnapshot empty = model.getSnapshot();
+      model.makeGuess(2, 3);
+      model.makeGuess(9, 9);
+      model.makeGuess(2, 3);
+      GameSnapshot snapshot = model.getSnapshot();
+      assertArrayEquals(model.getCellGrid(), snapshot.toCellGrid());
+      assertEquals(3, snapshot.getGuessCount());
+      assertEquals(model.getMaxGuesses(), snapshot.getMaxGuesses());
+      assertEquals(model.isGameOver(), snapshot.isGameOver());
+      assertEquals(CellState.UNKNOWN, empty.cellAt(2, 3));
+      assertEquals(0, empty.getGuessCount());
+
+      model.startGame();
+      assertSame(empty, model.getSnapshot());
+      assertEquals(3, snapshot.getGuessCount());
+    }
+  }
+
+  @Test
+  public void testUnchangedStateReturnsTheSameSnapshot() {
+    for (BattleshipModel model : models(GameConfig.DEFAULT)) {
+      model.startGame();
+      model.makeGuess(4, 4);
+      GameSnapshot snapshot = model.getSnapshot();
+      assertSame(snapshot, model.getSnapshot());
+      model.makeGuess(5, 5);
+      assertNotSame(snapshot, model.getSnapshot());
+    }
+  }
+
+  /**
+   * Plays whole games on a model after a warm-up game and checks that they allocate nothing
+   * worth mentioning, snapshots included.
+   */
+  private static void checkGamesDoNotAllocate(BattleshipModel model) {
+    ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long before = 0;
+    for (int game = 0; game <= 1000; game++) {
+      if (game == 1) {
+        before = threads.getCurrentThreadAllocatedBytes();
+      }
+      model.startGame();
+      for (int cell = 0; !model.isGameOver(); cell++) {
+        model.makeGuess(cell / 10, cell % 10);
+      }
+    }
+    long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+    // a snapshot per guess would be megabytes
+    assertTrue("allocated " + allocated + " bytes", allocated < 100_000);
+  }
+
+  @Test
+  public void testBitboardGuessesDoNotAllocate() {
+    checkGamesDoNotAllocate(new BitboardBattleshipModel(new SplittableRandom(3)));
+  }
+
+  @Test
+  public void testImplGuessesDoNotAllocate() {
+    checkGamesDoNotAllocate(new BattleshipModelImpl(new SplittableRandom(3)));
+  }
+
+  @Test
+  public void testSnapshotOfLargeBoard() {
+    GameConfig config = new GameConfig(20, 30, 600, List.of(ShipType.values()));
+    BattleshipModel model = new BattleshipModelImpl(config, new SplittableRandom(5));
+    model.startGame();
+    for (int i = 0; i < 20; i++) {
+      model.makeGuess(i, 29 - i);
+    }
+    assertArrayEquals(model.getCellGrid(), model.getSnapshot().toCellGrid());
+  }
+
+  @Test
+  public void testSnapshotReportsSunkFleet() {
+    GameConfig config = new GameConfig(3, 3, 9, List.of(ShipType.PATROL_BOAT));
+    for (BattleshipModel model : models(config)) {
+      model.startGame();
+      ShipType[][] shipGrid = model.getShipGrid();
+      for (int i = 0; i < 3; i++) {
+        for (int j = 0; j < 3; j++) {
+          if (shipGrid[i][j] != null) {
+            assertFalse(model.getSnapshot().areAllShipsSunk());
+            model.makeGuess(i, j);
+          }
+        }
+      }
+      assertTrue(model.getSnapshot().areAllShipsSunk());
+      assertTrue(model.getSnapshot().isGameOver());
+    }
+  }
+
+  @Test
+  public void testReaderSeesConsistentSnapshots() throws Exception {
+    GameConfig config = new GameConfig(10, 10, 100_000, List.of(ShipType.values()));
+    for (BattleshipModel model : models(config)) {
+      model.startGame();
+      AtomicBoolean done = new AtomicBoolean();
+      AtomicReference<String> failure = new AtomicReference<>();
+      Thread reader = new Thread(() -> {
+        int lastCount = 0;
+        while (!done.get() && failure.get() == null) {
+          GameSnapshot snapshot = model.getSnapshot();
+          int guessed = 0;
+          for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < 10; j++) {
+              if (snapshot.cellAt(i, j) != CellState.UNKNOWN) {
+                guessed++;
+              }
+            }
+          }
+          if (snapshot.getGuessCount() < lastCount || guessed > snapshot.getGuessCount()) {
+            failure.set("inconsistent snapshot after " + lastCount + " guesses");
+          }
+          lastCount = snapshot.getGuessCount();
+        }
+      });
+      reader.start();
+      // guesses stay on water so the game never ends
+      ShipType[][] shipGrid = model.getShipGrid();
+      SplittableRandom random = new SplittableRandom(9);
+      for (int i = 0; i < 50_000; ) {
+        int row = random.nextInt(10);
+        int col = random.nextInt(10);
+        if (shipGrid[row][col] == null) {
+          model.makeGuess(row, col);
+          i++;
+        }
+      }
+      done.set(true);
+      reader.join();
+      assertEquals(null, failure.get());
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package battleship;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class GuessReaderTest {
+
+  private static GuessReader reader(String text, int height, int width) {
+    return new GuessReader(Channels.newChannel(
+        new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))), height, width);
+  }
+
+  @Test
+  public void testParsesGuessesAndRejectsOtherLines() throws IOException {
+    GuessReader reader =
+        reader("A0\nj9\n  C 4\n\tB7 \r\nA\n0A\nK0\nA10\n\nA-1\n\u00c41\nE5", 10, 10);
+    assertEquals(0, reader.next());
+    assertEquals(99, reader.next());
+    assertEquals(GuessReader.INVALID, reader.next());
+    assertEquals(17, reader.next());
+    assertEquals(GuessReader.INVALID, reader.next());
+    assertEquals(GuessReader.INVALID, reader.next());
+    assertEquals(GuessReader.OUT_OF_BOUNDS, reader.next());
+    assertEquals(GuessReader.OUT_OF_BOUNDS, reader.next());
+    assertEquals(GuessReader.INVALID, reader.next());
+    assertEquals(GuessReader.INVALID, reader.next());
+    assertEquals(GuessReader.INVALID, reader.next());
+    assertEquals(45, reader.next());
+    assertEquals(GuessReader.END, reader.next());
+    assertEquals(GuessReader.END, reader.next());
+    assertEquals(12, reader.getLineCount());
+    assertEquals(8, reader.getRejectedCount());
+  }
+
+  @Test
+  public void testPacksCellsWithTheBoardWidth() throws IOException {
+    GuessReader reader = reader("B12\nC3\n", 3, 20);
+    assertEquals(32, reader.next());
+    assertEquals(43, reader.next());
+  }
+
+  @Test
+  public void testReadsLargeFilesInBatches() throws IOException {
+    StringBuilder text = new StringBuilder();
+    int[] expected = new int[30_000];
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = i % 100;
+      text.append((char) ('A' + i % 100 / 10)).append(i % 10).append(i % 7 == 0 ? "\r\n" : "\n");
+      if (i % 1000 == 0) {
+        text.append("not a guess\n");
+      }
+    }
+    GuessReader reader = reader(text.toString(), 10, 10);
+    int[] cells = new int[4096];
+    int[] read = new int[0];
+    int count;
+    while ((count = reader.read(cells)) != GuessReader.END) {
+      int from = read.length;
+      read = Arrays.copyOf(read, from + count);
+      System.arraycopy(cells, 0, read, from, count);
+    }
+    assertArrayEquals(expected, read);
+    assertEquals(30, reader.getRejectedCount());
+  }
+
+  @Test
+  public void testSkipsLinesLongerThanTheBuffer() throws IOException {
+    GuessReader reader = reader("A1\n" + "x".repeat(20_000) + "\nB2\n" + "y".repeat(9000), 10,
+        10);
+    assertEquals(1, reader.next());
+    assertEquals(GuessReader.INVALID, reader.next());
+    assertEquals(12, reader.next());
+    assertEquals(GuessReader.INVALID, reader.next());
+    assertEquals(GuessReader.END, reader.next());
+  }
+
+  @Test
+  public void testReadsLinesSplitAcrossReads() throws IOException {
+    InputStream trickle = new ByteArrayInputStream("A1\nB2\nC3".getBytes(StandardCharsets.UTF_8)) {
+      @Override
+      public synchronized int read(byte[] b, int off, int len) {
+        return super.read(b, off, Math.min(len, 1));
+      }
+    };
+    GuessReader reader = new GuessReader(Channels.newChannel(trickle), 10, 10);
+    int[] cells = new int[5];
+    assertEquals(3, reader.read(cells));
+    assertArrayEquals(new int[] {1, 12, 23}, Arrays.copyOf(cells, 3));
+    assertEquals(GuessReader.END, reader.read(cells));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBoardsOfMoreThan26RowsAreRejected() {
+    reader("", 27, 10);
+  }
+}
@@ -0,0 +1,131 @@
+package battleship;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+public class HuntTargetGuessStrategyTest {
+
+  /**
+   * Returns the mean number of guesses per game.
+   */
+  private static double meanGuesses(SimulationStats stats) {
+    long[] histogram = stats.getGuessHistogram();
+    long total = 0;
+    for (int guesses = 0; guesses < histogram.length; guesses++) {
+      total += guesses * histogram[guesses];
+    }
+    return (double) total / stats.getGames();
+  }
+
+  @Test
+  public void testHuntCoversOneParityClassFirst() {
+    HuntTargetGuessStrategy strategy = new HuntTargetGuessStrategy();
+    strategy.newGame(10, 10, new SplittableRandom(3));
+    assertEquals(2, strategy.getLatticeSize());
+    boolean[] seen = new boolean[100];
+    int parity = -1;
+    for (int shot = 0; shot < 100; shot++) {
+      int cell = strategy.nextGuess();
+      assertFalse(seen[cell]);
+      seen[cell] = true;
+      if (shot == 0) {
+        parity = (cell / 10 + cell % 10) % 2;
+      }
+      int expected = shot < 50 ? parity : 1 - parity;
+      assertEquals(expected, (cell / 10 + cell % 10) % 2);
+      strategy.guessResult(cell / 10, cell % 10, false);
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testNoCellLeft() {
+    HuntTargetGuessStrategy strategy = new HuntTargetGuessStrategy();
+    strategy.newGame(2, 2, new SplittableRandom(1));
+    for (int shot = 0; shot < 5; shot++) {
+      int cell = strategy.nextGuess();
+      strategy.guessResult(cell / 2, cell % 2, false);
+    }
+  }
+
+  @Test
+  public void testLatticeFollowsSmallestShipAfloat() {
+    HuntTargetGuessStrategy strategy = new HuntTargetGuessStrategy();
+    strategy.newGame(10, 10, new SplittableRandom(5));
+    strategy.shipSunk(ShipType.PATROL_BOAT);
+    assertEquals(3, strategy.getLatticeSize());
+    int first = strategy.nextGuess();
+    strategy.guessResult(first / 10, first % 10, false);
+    for (int shot = 1; shot < 33; shot++) {
+      int cell = strategy.nextGuess();
+      assertEquals((first / 10 + first % 10) % 3, (cell / 10 + cell % 10) % 3);
+      strategy.guessResult(cell / 10, cell % 10, false);
+    }
+    strategy.shipSunk(ShipType.SUBMARINE);
+    assertEquals(3, strategy.getLatticeSize());
+    strategy.shipSunk(ShipType.DESTROYER);
+    assertEquals(4, strategy.getLatticeSize());
+  }
+
+  @Test
+  public void testTargetsNeighboursThenExtendsAlongTheAxis() {
+    HuntTargetGuessStrategy strategy = new HuntTargetGuessStrategy();
+    strategy.newGame(10, 10, new SplittableRandom(7));
+    strategy.guessResult(4, 4, true);
+    Set<Integer> neighbours = new HashSet<>(List.of(34, 54, 43, 45));
+    assertTrue(neighbours.contains(strategy.nextGuess()));
+
+    strategy.guessResult(4, 5, true);
+    assertEquals(43, strategy.nextGuess());
+    strategy.guessResult(4, 3, false);
+    assertEquals(46, strategy.nextGuess());
+    strategy.guessResult(4, 6, true);
+    assertEquals(47, strategy.nextGuess());
+  }
+
+  @Test
+  public void testSinkingEveryHitShipClearsTheFrontier() {
+    HuntTargetGuessStrategy strategy = new HuntTargetGuessStrategy();
+    strategy.newGame(10, 10, new SplittableRandom(9));
+    strategy.guessResult(0, 0, true);
+    strategy.guessResult(0, 1, true);
+    strategy.guessResult(5, 5, true);
+    assertTrue(strategy.getFrontierSize() > 0);
+    strategy.shipSunk(ShipType.PATROL_BOAT);
+    assertTrue(strategy.getFrontierSize() > 0);
+    strategy.guessResult(5, 6, true);
+    strategy.guessResult(5, 7, true);
+    strategy.shipSunk(ShipType.SUBMARINE);
+    assertEquals(0, strategy.getFrontierSize());
+    assertEquals(3, strategy.getLatticeSize());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSinkingAShipNotAfloat() {
+    HuntTargetGuessStrategy strategy = new HuntTargetGuessStrategy();
+    strategy.newGame(10, 10, new SplittableRandom(1));
+    strategy.shipSunk(ShipType.PATROL_BOAT);
+    strategy.shipSunk(ShipType.PATROL_BOAT);
+  }
+
+  @Test
+  public void testWinsFasterThanRandomGuessing() {
+    GameConfig config = new GameConfig(10, 10, 100, GameConfig.DEFAULT.getFleet());
+    SimulationStats huntTarget = new GameSimulator(
+        random -> new BitboardBattleshipModel(config, random),
+        HuntTargetGuessStrategy::new).run(2000, 13L);
+    SimulationStats randomGuessing = new GameSimulator(
+        random -> new BitboardBattleshipModel(config, random),
+        RandomGuessStrategy::new).run(2000, 13L);
+    assertEquals(2000, huntTarget.getWins());
+    // random guessing needs about 96 guesses, hunt and target about 56
+    assertTrue(meanGuesses(huntTarget) < 70);
+    assertTrue(meanGuesses(huntTarget) < meanGuesses(randomGuessing) - 20);
+  }
+}
@@ -0,0 +1,184 @@
+package battleship;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+public class LayoutCanonicalizerTest {
+
+  /**
+   * Returns a grid turned a quarter clockwise.
+   */
+  private static ShipType[][] rotate(ShipType[][] grid) {
+    int height = grid.length;
+    int width = grid[0].length;
+    ShipType[][] turned = new ShipType[width][height];
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        turned[j][height - 1 - i] = grid[i][j];
+      }
+    }
+    return turned;
+  }
+
+  /**
+   * Returns a grid mirrored left to right.
+   */
+  private static ShipType[][] mirror(ShipType[][] grid) {
+    ShipType[][] mirrored = new ShipType[grid.length][];
+    for (int i = 0; i < grid.length; i++) {
+      mirrored[i] = new ShipType[grid[i].length];
+      for (int j = 0; j < grid[i].length; j++) {
+        mirrored[i][j] = grid[i][grid[i].length - 1 - j];
+      }
+    }
+    return mirrored;
+  }
+
+  /**
+   * Returns the images of a grid under the symmetries of its board, computed cell by cell.
+   */
+  private static List<ShipType[][]> images(ShipType[][] grid) {
+    List<ShipType[][]> images = new ArrayList<>();
+    boolean square = grid.length == grid[0].length;
+    ShipType[][] image = grid;
+    for (int turn = 0; turn < 4; turn++) {
+      if (square || turn % 2 == 0) {
+        images.add(image);
+        images.add(mirror(image));
+      }
+      image = rotate(image);
+    }
+    return images;
+  }
+
+  private static ShipType[][] randomGrid(int height, int width, SplittableRandom random) {
+    ShipType[] types = ShipType.values();
+    ShipType[][] grid = new ShipType[height][width];
+    for (ShipType[] row : grid) {
+      for (int j = 0; j < width; j++) {
+        int pick = random.nextInt(types.length + 3);
+        row[j] = pick < types.length ? types[pick] : null;
+      }
+    }
+    return grid;
+  }
+
+  @Test
+  public void testSymmetricImagesShareTheCanonicalForm() {
+    SplittableRandom random = new SplittableRandom(1);
+    int[][] sizes = {{10, 10}, {11, 11}, {8, 8}, {1, 1}, {10, 12}, {8, 16}, {3, 7}, {1, 128},
+        {128, 1}, {2, 64}, {5, 13}};
+    for (int[] size : sizes) {
+      LayoutCanonicalizer canonicalizer = new LayoutCanonicalizer(size[0], size[1]);
+      assertEquals(size[0] == size[1] ? 8 : 4, canonicalizer.getSymmetryCount());
+      for (int trial = 0; trial < 50; trial++) {
+        ShipType[][] grid = randomGrid(size[0], size[1], random);
+        List<ShipType[][]> images = images(grid);
+        assertEquals(canonicalizer.getSymmetryCount(), images.size());
+        long fingerprint = canonicalizer.fingerprint(grid);
+        ShipType[][] canonical = canonicalizer.canonicalShipGrid();
+        boolean found = false;
+        for (ShipType[][] image : images) {
+          found |= Arrays.deepEquals(canonical, image);
+        }
+        assertTrue(Arrays.toString(size), found);
+        for (ShipType[][] image : images) {
+          assertEquals(fingerprint, canonicalizer.fingerprint(image));
+          assertArrayEquals(canonical, canonicalizer.canonicalShipGrid());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testFingerprintsCountTheOrbitsOfTheLayouts() {
+    for (int[] size : new int[][] {{5, 5}, {4, 6}}) {
+      GameConfig config = new GameConfig(size[0], size[1], 1,
+          List.of(ShipType.BATTLESHIP, ShipType.SUBMARINE, ShipType.PATROL_BOAT));
+      LayoutSpace space = new LayoutSpace(config, null);
+      LayoutCanonicalizer canonicalizer = new LayoutCanonicalizer(size[0], size[1]);
+      BitboardBattleshipModel model = new BitboardBattleshipModel(config, new SplittableRandom());
+      Set<Long> fingerprints = new HashSet<>();
+      Set<String> orbits = new HashSet<>();
+      space.forEachLayout((types, layout) -> {
+        long fingerprint = canonicalizer.fingerprint(types, layout);
+        fingerprints.add(fingerprint);
+        model.startGame(types, layout);
+        ShipType[][] grid = model.getShipGrid();
+        assertEquals(fingerprint, canonicalizer.fingerprint(grid));
+        assertEquals(fingerprint, canonicalizer.fingerprint(model.getBoardView()));
+        String smallest = null;
+        for (ShipType[][] image : images(grid)) {
+          String text = Arrays.deepToString(image);
+          smallest = smallest == null || text.compareTo(smallest) < 0 ? text : smallest;
+        }
+        orbits.add(smallest);
+        return true;
+      });
+      assertEquals(orbits.size(), fingerprints.size());
+      assertTrue(fingerprints.size() * canonicalizer.getSymmetryCount() >= space.count());
+    }
+  }
+
+  @Test
+  public void testRecordedLayoutsAreFingerprinted() throws IOException {
+    Path directory = Files.createTempDirectory("canonical");
+    BattleshipModel model = new BitboardBattleshipModel(new SplittableRandom(3));
+    LayoutCanonicalizer canonicalizer = new LayoutCanonicalizer(10, 10);
+    long[] expected = new long[20];
+    try (GameRecordWriter writer = new GameRecordWriter(directory, 1 << 20)) {
+      for (int game = 0; game < expected.length; game++) {
+        model.startGame();
+        expected[game] = canonicalizer.fingerprint(model.getShipGrid());
+        writer.append(game, model.getShipGrid(), new int[0], 0);
+      }
+    }
+    for (Path segment : GameRecordReader.segments(directory)) {
+      try (GameRecordReader reader = new GameRecordReader(segment)) {
+        ShipType[] types = new ShipType[5];
+        int[] layout = new int[5];
+        for (int game = 0; reader.next(); game++) {
+          for (int s = 0; s < reader.getShipCount(); s++) {
+            types[s] = reader.getShipType(s);
+            layout[s] = reader.getShipPlacement(s);
+          }
+          assertEquals(expected[game], canonicalizer.fingerprint(types, layout));
+        }
+      }
+      Files.delete(segment);
+    }
+    Files.delete(directory);
+  }
+
+  @Test
+  public void testDistinctLayoutsHaveDistinctFingerprints() {
+    LayoutCanonicalizer canonicalizer = new LayoutCanonicalizer(10, 10);
+    ShipType[] types = {ShipType.PATROL_BOAT};
+    assertEquals(canonicalizer.fingerprint(types, new int[] {ReplayableModel.pack(0, false)}),
+        canonicalizer.fingerprint(types, new int[] {ReplayableModel.pack(9, true)}));
+    assertNotEquals(canonicalizer.fingerprint(types, new int[] {ReplayableModel.pack(0, false)}),
+        canonicalizer.fingerprint(types, new int[] {ReplayableModel.pack(1, false)}));
+    assertNotEquals(canonicalizer.fingerprint(types, new int[] {ReplayableModel.pack(0, false)}),
+        canonicalizer.fingerprint(new ShipType[] {ShipType.SUBMARINE},
+            new int[] {ReplayableModel.pack(0, false)}));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testShipsLeavingTheBoardAreRejected() {
+    new LayoutCanonicalizer(10, 10).fingerprint(new ShipType[] {ShipType.BATTLESHIP},
+        new int[] {ReplayableModel.pack(8, false)});
+  }
+}
@@ -0,0 +1,151 @@
+package battleship;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+public class LayoutSpaceTest {
+
+  private static final List<ShipType> FLEET =
+      List.of(ShipType.BATTLESHIP, ShipType.SUBMARINE, ShipType.PATROL_BOAT);
+
+  /**
+   * Counts the layouts of distinct ships by trying every placement of every ship, keeping those
+   * that agree with the known cells, and adds each layout's cells to cover.
+   */
+  private static long bruteForce(int height, int width, List<ShipType> fleet, int ship,
+                                 long lo, long hi, CellState[][] known, long[] cover) {
+    if (ship == fleet.size()) {
+      for (int c = 0; c < height * width; c++) {
+        boolean occupied = c < 64 ? (lo & (1L << c)) != 0 : (hi & (1L << (c - 64))) != 0;
+        CellState state = known == null ? CellState.UNKNOWN : known[c / width][c % width];
+        if (occupied ? state == CellState.MISS : state == CellState.HIT) {
+          return 0;
+        }
+      }
+      for (int c = 0; c < height * width; c++) {
+        if (c < 64 ? (lo & (1L << c)) != 0 : (hi & (1L << (c - 64))) != 0) {
+          cover[c]++;
+        }
+      }
+      return 1;
+    }
+    PlacementTable table = PlacementTable.of(height, width, fleet.get(ship).getSize());
+    long count = 0;
+    for (int p = 0; p < table.size(); p++) {
+      if (table.fits(p, lo, hi)) {
+        count += bruteForce(height, width, fleet, ship + 1, lo | table.maskLo(p),
+            hi | table.maskHi(p), known, cover);
+      }
+    }
+    return count;
+  }
+
+  @Test
+  public void testCountsAndProbabilitiesMatchBruteForce() {
+    for (int[] size : new int[][] {{4, 4}, {5, 6}, {7, 3}, {11, 11}}) {
+      GameConfig config = new GameConfig(size[0], size[1], 1, FLEET);
+      LayoutSpace space = new LayoutSpace(config, null);
+      long[] cover = new long[size[0] * size[1]];
+      long expected = bruteForce(size[0], size[1], FLEET, 0, 0, 0, null, cover);
+      assertEquals(expected, space.count());
+      for (int c = 0; c < cover.length; c++) {
+        assertEquals(cover[c], space.coverCount(c / size[1], c % size[1]));
+        assertEquals((double) cover[c] / expected, space.probability(c / size[1], c % size[1]),
+            1e-12);
+      }
+    }
+  }
+
+  @Test
+  public void testKnownCellsConstrainTheLayouts() {
+    CellState[][] known = new CellState[6][6];
+    for (CellState[] row : known) {
+      Arrays.fill(row, CellState.UNKNOWN);
+    }
+    known[0][0] = CellState.MISS;
+    known[2][2] = CellState.HIT;
+    known[2][3] = CellState.MISS;
+    known[4][1] = CellState.HIT;
+    GameConfig config = new GameConfig(6, 6, 1, FLEET);
+    LayoutSpace space = new LayoutSpace(config, known);
+    long[] cover = new long[36];
+    long expected = bruteForce(6, 6, FLEET, 0, 0, 0, known, cover);
+    assertTrue(expected > 0);
+    assertEquals(expected, space.count());
+    assertEquals(1.0, space.probability(2, 2), 1e-12);
+    assertEquals(0.0, space.probability(0, 0), 0);
+    for (int c = 0; c < 36; c++) {
+      assertEquals(cover[c], space.coverCount(c / 6, c % 6));
+    }
+  }
+
+  @Test
+  public void testEnumerationVisitsEveryLayoutOnce() {
+    GameConfig config = new GameConfig(5, 5, 1, FLEET);
+    LayoutSpace space = new LayoutSpace(config, null);
+    Set<List<Integer>> seen = new HashSet<>();
+    long[] cover = new long[25];
+    long visited = space.forEachLayout((types, layout) -> {
+      assertEquals(FLEET.size(), types.length);
+      long lo = 0;
+      for (int s = 0; s < types.length; s++) {
+        int step = ReplayableModel.isVertical(layout[s]) ? 5 : 1;
+        for (int k = 0, c = ReplayableModel.start(layout[s]); k < types[s].getSize();
+             k++, c += step) {
+          assertEquals(0, lo & (1L << c));
+          lo |= 1L << c;
+          cover[c]++;
+        }
+      }
+      assertTrue(seen.add(List.of(types[0].ordinal(), layout[0], types[1].ordinal(), layout[1],
+          types[2].ordinal(), layout[2])));
+      return true;
+    });
+    assertEquals(space.count(), visited);
+    for (int c = 0; c < 25; c++) {
+      assertEquals(space.coverCount(c / 5, c % 5), cover[c]);
+    }
+    int[] calls = new int[1];
+    assertEquals(3, space.forEachLayout((types, layout) -> ++calls[0] < 3));
+  }
+
+  @Test
+  public void testShipsOfOneTypeAreInterchangeable() {
+    GameConfig config = new GameConfig(1, 4, 1,
+        List.of(ShipType.PATROL_BOAT, ShipType.PATROL_BOAT));
+    assertEquals(1, new LayoutSpace(config, null).count());
+  }
+
+  @Test
+  public void testEnumeratedLayoutsReplayIntoModels() {
+    GameConfig config = new GameConfig(4, 5, 20, FLEET);
+    LayoutSpace space = new LayoutSpace(config, null);
+    BitboardBattleshipModel model = new BitboardBattleshipModel(config, new SplittableRandom(1));
+    Set<String> shipGrids = new HashSet<>();
+    space.forEachLayout((types, layout) -> {
+      model.startGame(types, layout);
+      shipGrids.add(Arrays.deepToString(model.getShipGrid()));
+      return true;
+    });
+    assertEquals(space.count(), shipGrids.size());
+  }
+
+  @Test
+  public void testImpossibleConstraintsHaveNoLayout() {
+    CellState[][] known = new CellState[3][3];
+    for (CellState[] row : known) {
+      Arrays.fill(row, CellState.MISS);
+    }
+    LayoutSpace space = new LayoutSpace(new GameConfig(3, 3, 1, FLEET.subList(1, 3)), known);
+    assertEquals(0, space.count());
+    assertEquals(0.0, space.probability(1, 1), 0);
+    assertEquals(0, space.forEachLayout((types, layout) -> true));
+  }
+}
@@ -0,0 +1,167 @@
+package battleship;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+public class PlacementModeTest {
+
+  /**
+   * Plays many games and checks with a chi-square test that every layout of the fleet comes up
+   * equally often.
+   */
+  private static void checkUniform(GameConfig config, BattleshipModel model, int games) {
+    LayoutSpace space = new LayoutSpace(config, null);
+    Map<String, Integer> counts = new HashMap<>();
+    BitboardBattleshipModel replay = new BitboardBattleshipModel(config, new SplittableRandom(0));
+    space.forEachLayout((types, layout) -> {
+      replay.startGame(types, layout);
+      counts.put(Arrays.deepToString(replay.getShipGrid()), 0);
+      return true;
+    });
+    assertEquals(space.count(), counts.size());
+    for (int g = 0; g < games; g++) {
+      model.startGame();
+      String grid = Arrays.deepToString(model.getShipGrid());
+      assertTrue(grid, counts.containsKey(grid));
+      counts.merge(grid, 1, Integer::sum);
+    }
+    double expected = (double) games / counts.size();
+    double chiSquare = 0;
+    for (int count : counts.values()) {
+      chiSquare += (count - expected) * (count - expected) / expected;
+    }
+    int freedom = counts.size() - 1;
+    assertTrue("chi-square " + chiSquare, chiSquare < freedom + 5 * Math.sqrt(2.0 * freedom));
+  }
+
+  @Test
+  public void testUniformModeDrawsEveryLayoutEquallyOften() {
+    GameConfig config = new GameConfig(3, 4, 10,
+        List.of(ShipType.SUBMARINE, ShipType.PATROL_BOAT), PlacementMode.UNIFORM);
+    checkUniform(config, new BattleshipModelImpl(config, new SplittableRandom(7)), 40_000);
+    checkUniform(config, new BitboardBattleshipModel(config, new SplittableRandom(8)), 40_000);
+  }
+
+  @Test
+  public void testUniformModeMatchesLayoutProbabilities() {
+    GameConfig config = new GameConfig(6, 6, 10,
+        List.of(ShipType.BATTLESHIP, ShipType.SUBMARINE, ShipType.PATROL_BOAT),
+        PlacementMode.UNIFORM);
+    LayoutSpace space = new LayoutSpace(config, null);
+    BitboardBattleshipModel model = new BitboardBattleshipModel(config, new SplittableRandom(3));
+    int games = 50_000;
+    int[] hits = new int[36];
+    for (int g = 0; g < games; g++) {
+      model.startGame();
+      ShipType[][] grid = model.getShipGrid();
+      for (int c = 0; c < 36; c++) {
+        if (grid[c / 6][c % 6] != null) {
+          hits[c]++;
+        }
+      }
+    }
+    for (int c = 0; c < 36; c++) {
+      double p = space.probability(c / 6, c % 6);
+      double sigma = Math.sqrt(p * (1 - p) / games);
+      assertEquals(p, (double) hits[c] / games, 5 * sigma);
+    }
+  }
+
+  @Test
+  public void testUniformModeFallsBackOnCrowdedBoards() {
+    List<ShipType> fleet = List.of(ShipType.AIRCRAFT_CARRIER, ShipType.AIRCRAFT_CARRIER,
+        ShipType.AIRCRAFT_CARRIER, ShipType.AIRCRAFT_CARRIER);
+    GameConfig config = new GameConfig(5, 5, 10, fleet, PlacementMode.UNIFORM);
+    checkUniform(config, new BattleshipModelImpl(config, new SplittableRandom(5)), 2_000);
+    checkUniform(config, new BitboardBattleshipModel(config, new SplittableRandom(6)), 2_000);
+  }
+
+  @Test
+  public void testUniformModePlacesShipsThatFitOneWayOnly() {
+    GameConfig config = new GameConfig(1, 5, 10, List.of(ShipType.PATROL_BOAT),
+        PlacementMode.UNIFORM);
+    checkUniform(config, new BattleshipModelImpl(config, new SplittableRandom(9)), 4_000);
+    checkUniform(config, new BitboardBattleshipModel(config, new SplittableRandom(9)), 4_000);
+  }
+
+  @Test
+  public void testUniformModeOnLargeBoard() {
+    GameConfig config = new GameConfig(20, 30, 10,
+        List.of(ShipType.AIRCRAFT_CARRIER, ShipType.DESTROYER), PlacementMode.UNIFORM);
+    BattleshipModelImpl model = new BattleshipModelImpl(config, new SplittableRandom(2));
+    for (int g = 0; g < 100; g++) {
+      model.startGame();
+      int cells = 0;
+      for (ShipType[] row : model.getShipGrid()) {
+        for (ShipType type : row) {
+          cells += type == null ? 0 : 1;
+        }
+      }
+      assertEquals(8, cells);
+    }
+  }
+
+  @Test
+  public void testUniformModeOnCrowdedLargeBoard() {
+    // whole-fleet draws practically never succeed here, so ships are placed one at a time
+    List<ShipType> fleet = Collections.nCopies(22, ShipType.BATTLESHIP);
+    GameConfig config = new GameConfig(12, 12, 10, fleet, PlacementMode.UNIFORM);
+    BattleshipModelImpl model = new BattleshipModelImpl(config, new SplittableRandom(4));
+    model.startGame();
+    int cells = 0;
+    for (ShipType[] row : model.getShipGrid()) {
+      for (ShipType type : row) {
+        cells += type == null ? 0 : 1;
+      }
+    }
+    assertEquals(88, cells);
+  }
+
+  @Test
+  public void testUniformModeBoundsFleetDrawsOnLargeBoard() {
+    // 3000 carriers on 300x300: whole-fleet draws fail, and placing ship by ship must be quick
+    ShipType[] fleet = new ShipType[3000];
+    Arrays.fill(fleet, ShipType.AIRCRAFT_CARRIER);
+    ShipPlacer placer = new ShipPlacer(300, 300);
+    int[] placements = new int[fleet.length];
+    for (long seed = 0; seed < 3; seed++) {
+      assertTrue(placer.randomLayout(fleet, new SplittableRandom(seed), placements));
+      // at most 256 fleet draws, then a few overlapping single draws
+      assertTrue(placer.takeRetries() < fleet.length);
+      int cells = 0;
+      for (int i = 0; i < (300 * 300 + 63) / 64; i++) {
+        cells += Long.bitCount(placer.occupiedWord(i));
+      }
+      assertEquals(5 * fleet.length, cells);
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testUniformModeGivesUpOnPackedLargeBoard() {
+    // 26 carriers tile the row exactly, which ship-by-ship placement does not find
+    GameConfig config = new GameConfig(1, 130, 10,
+        Collections.nCopies(26, ShipType.AIRCRAFT_CARRIER), PlacementMode.UNIFORM);
+    new BattleshipModelImpl(config, new SplittableRandom(4)).startGame();
+  }
+
+  @Test
+  public void testDefaultModeIsOrientationFirst() {
+    assertEquals(PlacementMode.ORIENTATION_FIRST, GameConfig.DEFAULT.getPlacementMode());
+    GameConfig config = new GameConfig(4, 4, 10, List.of(ShipType.PATROL_BOAT),
+        PlacementMode.UNIFORM);
+    assertEquals(PlacementMode.UNIFORM, config.getPlacementMode());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullModeIsRejected() {
+    new GameConfig(4, 4, 10, List.of(ShipType.PATROL_BOAT), null);
+  }
+}
@@ -0,0 +1,63 @@
+package battleship;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class PlacementTableTest {
+
+  @Test
+  public void testPlacementCounts() {
+    PlacementTable table = PlacementTable.of(10, 10, 5);
+    assertEquals(120, table.size());
+    assertEquals(60, table.endPlacement(false) - table.firstPlacement(false));
+    assertEquals(60, table.endPlacement(true) - table.firstPlacement(true));
+    assertEquals(0, PlacementTable.of(3, 4, 5).size());
+    assertEquals(3 * 2 + 4, PlacementTable.of(3, 4, 3).size());
+  }
+
+  @Test
+  public void testTablesAreShared() {
+    assertSame(PlacementTable.of(10, 10, 3), PlacementTable.of(10, 10, 3));
+  }
+
+  @Test
+  public void testMasksMatchStartAndOrientation() {
+    PlacementTable table = PlacementTable.of(10, 10, 4);
+    for (int p = 0; p < table.size(); p++) {
+      int step = table.isVertical(p) ? 10 : 1;
+      long lo = 0;
+      long hi = 0;
+      for (int k = 0; k < 4; k++) {
+        int cell = table.start(p) + k * step;
+        assertTrue(cell < 100);
+        if (cell < 64) {
+          lo |= 1L << cell;
+        } else {
+          hi |= 1L << (cell - 64);
+        }
+      }
+      assertEquals(lo, table.maskLo(p));
+      assertEquals(hi, table.maskHi(p));
+      if (!table.isVertical(p)) {
+        assertEquals(table.start(p) / 10, (table.start(p) + 3) / 10);
+      }
+    }
+  }
+
+  @Test
+  public void testFits() {
+    PlacementTable table = PlacementTable.of(10, 10, 2);
+    assertTrue(table.fits(0, 0, 0));
+    assertFalse(table.fits(0, 1L, 0));
+    assertTrue(table.fits(0, 1L << 5, 0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBoardTooLarge() {
+    PlacementTable.of(12, 12, 3);
+  }
+}